@@ -0,0 +1,322 @@
+package io.github.lgp547.anydoor.admission;
+
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.util.SpringUtil;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * /any_door/run 的准入控制，避免 any-door 调用挤占线上真实请求：全局及每个方法（类名#方法名）的并发数限制、令牌桶限流，
+ * 以及按系统负载和GC耗时自适应收缩的全局并发上限，被拒绝时抛出 {@link AnyDoorRejectedException}（http 429）
+ * <p>
+ * 每个方法的并发数通过分段信号量限制，方法名按哈希落到固定数量的信号量上，不会随方法数增长，哈希冲突的方法共享同一个限制
+ * <p>
+ * any-door.admission.max-concurrency        全局最大并发数，默认 0 不限制
+ * any-door.admission.method-max-concurrency 每个方法的最大并发数，默认 0 不限制
+ * any-door.admission.stripes                方法并发信号量的分段数，默认 64
+ * any-door.admission.rate                   全局每秒调用次数，默认 0 不限制
+ * any-door.admission.method-rate            每个方法每秒调用次数，默认 0 不限制
+ * any-door.admission.burst                  令牌桶容量（允许的突发次数），默认与每秒次数相同
+ * any-door.admission.retry-after            并发数超限时建议的重试等待时间，默认 1s
+ * any-door.admission.adaptive.enabled       是否按负载自适应调整全局并发上限，默认 false
+ * any-door.admission.adaptive.max-load      每个cpu的系统平均负载超过该值视为过载，默认 1.0
+ * any-door.admission.adaptive.max-gc-ratio  一个采样间隔内GC耗时占比超过该值视为过载，默认 0.1
+ * any-door.admission.adaptive.interval      采样间隔，默认 1s
+ */
+public class AnyDoorAdmission {
+
+    private static volatile AnyDoorAdmission instance;
+
+    private final int maxConcurrency;
+
+    private final int methodMaxConcurrency;
+
+    private final Semaphore[] methodSemaphores;
+
+    private final double methodRate;
+
+    private final double burst;
+
+    private final TokenBucket globalBucket;
+
+    private final ConcurrentHashMap<String, TokenBucket> methodBuckets = new ConcurrentHashMap<>();
+
+    private final long retryAfterMillis;
+
+    private final AdaptiveLimit adaptiveLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param stripes       方法并发信号量的分段数，向下取2的幂
+     * @param adaptiveLimit 为 null 时不按负载调整
+     */
+    AnyDoorAdmission(int maxConcurrency, int methodMaxConcurrency, int stripes, double rate, double methodRate, double burst,
+                     long retryAfterMillis, AdaptiveLimit adaptiveLimit) {
+        this.maxConcurrency = maxConcurrency;
+        this.methodMaxConcurrency = methodMaxConcurrency;
+        this.methodSemaphores = new Semaphore[methodMaxConcurrency > 0 ? Integer.highestOneBit(Math.max(1, stripes)) : 0];
+        for (int i = 0; i < methodSemaphores.length; i++) {
+            methodSemaphores[i] = new Semaphore(methodMaxConcurrency);
+        }
+        this.methodRate = methodRate;
+        this.burst = burst;
+        this.globalBucket = rate > 0 ? new TokenBucket(rate, burst) : null;
+        this.retryAfterMillis = retryAfterMillis;
+        this.adaptiveLimit = adaptiveLimit;
+    }
+
+    private static AnyDoorAdmission fromProperties() {
+        int maxConcurrency = SpringUtil.getProperty("any-door.admission.max-concurrency", Integer.class, 0);
+        boolean adaptive = SpringUtil.getProperty("any-door.admission.adaptive.enabled", Boolean.class, false);
+        int ceiling = maxConcurrency > 0 ? maxConcurrency : Runtime.getRuntime().availableProcessors() * 2;
+        return new AnyDoorAdmission(maxConcurrency,
+                SpringUtil.getProperty("any-door.admission.method-max-concurrency", Integer.class, 0),
+                SpringUtil.getProperty("any-door.admission.stripes", Integer.class, 64),
+                SpringUtil.getProperty("any-door.admission.rate", Double.class, 0D),
+                SpringUtil.getProperty("any-door.admission.method-rate", Double.class, 0D),
+                SpringUtil.getProperty("any-door.admission.burst", Double.class, 0D),
+                SpringUtil.getProperty("any-door.admission.retry-after", Duration.class, Duration.ofSeconds(1)).toMillis(),
+                adaptive ? new AdaptiveLimit(ceiling) : null);
+    }
+
+    public static AnyDoorAdmission getInstance() {
+        AnyDoorAdmission admission = instance;
+        if (admission == null) {
+            synchronized (AnyDoorAdmission.class) {
+                admission = instance;
+                if (admission == null) {
+                    admission = fromProperties();
+                    instance = admission;
+                }
+            }
+        }
+        return admission;
+    }
+
+    /**
+     * 执行结束（异步执行为方法执行结束）时释放，重复释放无影响
+     */
+    public interface Permit {
+
+        Permit NONE = () -> {
+        };
+
+        void release();
+    }
+
+    /**
+     * 申请执行许可，先检查限流再占用并发数
+     *
+     * @throws AnyDoorRejectedException 超过任一限制
+     */
+    public Permit acquire(AnyDoorDto anyDoorDto) {
+        String key = anyDoorDto.getClassName() + "#" + anyDoorDto.getMethodName();
+        if (globalBucket != null) {
+            checkRate(globalBucket, "any-door rate limit exceeded");
+        }
+        if (methodRate > 0) {
+            checkRate(methodBuckets.computeIfAbsent(key, k -> new TokenBucket(methodRate, burst)), "any-door " + key + " rate limit exceeded");
+        }
+
+        int limit = globalLimit();
+        if (limit > 0 && !tryIncrement(limit)) {
+            rejected.incrementAndGet();
+            throw new AnyDoorRejectedException("any-door concurrency limit " + limit + " exceeded"
+                    + (adaptiveLimit != null && limit < adaptiveLimit.ceiling ? " (reduced by load " + adaptiveLimit.describe() + ")" : ""),
+                    adaptiveLimit != null ? Math.max(retryAfterMillis, adaptiveLimit.intervalMillis) : retryAfterMillis);
+        }
+        boolean countInFlight = limit > 0;
+        Semaphore semaphore = null;
+        if (methodSemaphores.length > 0) {
+            semaphore = methodSemaphores[spread(key.hashCode()) & (methodSemaphores.length - 1)];
+            if (!semaphore.tryAcquire()) {
+                if (countInFlight) {
+                    inFlight.decrementAndGet();
+                }
+                rejected.incrementAndGet();
+                throw new AnyDoorRejectedException("any-door " + key + " concurrency limit " + methodMaxConcurrency + " exceeded", retryAfterMillis);
+            }
+        }
+        if (!countInFlight && semaphore == null) {
+            return Permit.NONE;
+        }
+        Semaphore acquired = semaphore;
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                if (acquired != null) {
+                    acquired.release();
+                }
+                if (countInFlight) {
+                    inFlight.decrementAndGet();
+                }
+            }
+        };
+    }
+
+    /**
+     * 当前状态：执行中的调用数、生效的全局并发上限、累计拒绝次数
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("inFlight", inFlight.get());
+        status.put("limit", globalLimit());
+        status.put("rejected", rejected.get());
+        if (adaptiveLimit != null) {
+            status.put("load", adaptiveLimit.describe());
+        }
+        return status;
+    }
+
+    private void checkRate(TokenBucket bucket, String message) {
+        long waitNanos = bucket.tryAcquire();
+        if (waitNanos > 0) {
+            rejected.incrementAndGet();
+            throw new AnyDoorRejectedException(message, Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+        }
+    }
+
+    private int globalLimit() {
+        return adaptiveLimit != null ? adaptiveLimit.get() : maxConcurrency;
+    }
+
+    private boolean tryIncrement(int limit) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * 令牌桶，按时间差补充令牌，不需要后台线程
+     */
+    static class TokenBucket {
+
+        private final double permitsPerNano;
+
+        private final double capacity;
+
+        private double tokens;
+
+        private long lastNanos;
+
+        TokenBucket(double permitsPerSecond, double burst) {
+            this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, burst > 0 ? burst : permitsPerSecond);
+            this.tokens = capacity;
+            this.lastNanos = System.nanoTime();
+        }
+
+        /**
+         * @return 0 表示拿到令牌，否则为下一个令牌还需要等待的纳秒数
+         */
+        synchronized long tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastNanos) * permitsPerNano);
+            lastNanos = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / permitsPerNano);
+        }
+    }
+
+    /**
+     * 按采样间隔检查系统负载和GC耗时占比，过载时上限减半，否则每次加一直到 ceiling（AIMD）
+     * 只在申请许可时顺便采样，没有调用时不产生开销
+     */
+    static class AdaptiveLimit {
+
+        private final int ceiling;
+
+        private final double maxLoad;
+
+        private final double maxGcRatio;
+
+        private final long intervalMillis;
+
+        private final int processors = Runtime.getRuntime().availableProcessors();
+
+        private volatile int limit;
+
+        private volatile double load;
+
+        private volatile double gcRatio;
+
+        private long lastSampleMillis;
+
+        private long lastGcMillis;
+
+        AdaptiveLimit(int ceiling) {
+            this.ceiling = ceiling;
+            this.maxLoad = SpringUtil.getProperty("any-door.admission.adaptive.max-load", Double.class, 1.0D);
+            this.maxGcRatio = SpringUtil.getProperty("any-door.admission.adaptive.max-gc-ratio", Double.class, 0.1D);
+            this.intervalMillis = SpringUtil.getProperty("any-door.admission.adaptive.interval", Duration.class, Duration.ofSeconds(1)).toMillis();
+            this.limit = ceiling;
+            this.lastSampleMillis = System.currentTimeMillis();
+            this.lastGcMillis = gcMillis();
+        }
+
+        int get() {
+            long now = System.currentTimeMillis();
+            if (now - lastSampleMillis >= intervalMillis) {
+                sample(now);
+            }
+            return limit;
+        }
+
+        private synchronized void sample(long now) {
+            long elapsed = now - lastSampleMillis;
+            if (elapsed < intervalMillis) {
+                return;
+            }
+            long gc = gcMillis();
+            gcRatio = (double) (gc - lastGcMillis) / elapsed;
+            lastGcMillis = gc;
+            lastSampleMillis = now;
+            // 不支持的平台返回负数，只看GC
+            double systemLoad = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+            load = systemLoad < 0 ? 0 : systemLoad / processors;
+            if (load > maxLoad || gcRatio > maxGcRatio) {
+                limit = Math.max(1, limit / 2);
+            } else if (limit < ceiling) {
+                limit = limit + 1;
+            }
+        }
+
+        String describe() {
+            return String.format("load %.2f/cpu, gc %.1f%%", load, gcRatio * 100);
+        }
+
+        private static long gcMillis() {
+            long total = 0;
+            for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                total += Math.max(0, gcBean.getCollectionTime());
+            }
+            return total;
+        }
+    }
+}
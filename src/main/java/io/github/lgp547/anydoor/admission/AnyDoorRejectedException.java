@@ -0,0 +1,25 @@
+package io.github.lgp547.anydoor.admission;
+
+/**
+ * 调用被准入控制拒绝，对应 http 429，retryAfterMillis 为建议的重试等待时间
+ */
+public class AnyDoorRejectedException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public AnyDoorRejectedException(String message, long retryAfterMillis) {
+        super(message + ", retry after " + retryAfterMillis + "ms");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * Retry-After 响应头的值，单位秒，向上取整
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfterMillis + 999) / 1000);
+    }
+}
@@ -8,6 +8,7 @@ import java.lang.instrument.Instrumentation;
 
 import io.github.lgp547.anydoor.core.AnyDoorService;
 import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.instrument.InstrumentationHolder;
 import io.github.lgp547.anydoor.util.JsonUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,10 +17,24 @@ public class AnyDoorAttach {
 
     private static final Logger log = LoggerFactory.getLogger(AnyDoorAttach.class);
 
+    /**
+     * -javaagent 启动时只保存 Instrumentation
+     */
+    public static void premain(String agentArgs, Instrumentation inst) {
+        InstrumentationHolder.set(inst);
+    }
+
+    /**
+     * agentArgs 为空时只保存 Instrumentation，供 trace 等功能使用
+     */
     public static void agentmain(String agentArgs, Instrumentation inst) {
         if (log.isDebugEnabled()) {
             log.debug("any_door agentmain requestBody {}", agentArgs);
         }
+        InstrumentationHolder.set(inst);
+        if (agentArgs == null || agentArgs.trim().isEmpty()) {
+            return;
+        }
 
         if (agentArgs != null && agentArgs.startsWith("file://")) {
             try {
@@ -1,11 +1,22 @@
 package io.github.lgp547.anydoor.autoconfig;
 
 import io.github.lgp547.anydoor.controller.AnyDoorController;
+import io.github.lgp547.anydoor.controller.AnyDoorRouter;
+import io.github.lgp547.anydoor.journal.AnyDoorRecorder;
+import io.github.lgp547.anydoor.schedule.AnyDoorScheduler;
+import io.github.lgp547.anydoor.server.AnyDoorHttpServer;
 import io.github.lgp547.anydoor.util.SpringUtil;
+import io.github.lgp547.anydoor.warmup.AnyDoorWarmup;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
 
 /**
  * 报错处理
@@ -24,8 +35,60 @@ public class AnyDoorAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean(AnyDoorController.class)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
     public AnyDoorController anyController() {
         return new AnyDoorController();
     }
 
-}
\ No newline at end of file
+    @Bean
+    @ConditionalOnMissingBean(AnyDoorScheduler.class)
+    public AnyDoorScheduler anyDoorScheduler() {
+        return new AnyDoorScheduler();
+    }
+
+    /**
+     * 容器关闭时写完日志队列中剩余的记录
+     */
+    @Bean
+    public DisposableBean anyDoorRecorderShutdown() {
+        return AnyDoorRecorder::shutdown;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(AnyDoorWarmup.class)
+    @ConditionalOnProperty(prefix = "any-door.warmup", name = "enabled", havingValue = "true")
+    public AnyDoorWarmup anyDoorWarmup() {
+        return new AnyDoorWarmup();
+    }
+
+    /**
+     * 内置http服务，不依赖项目的 web 容器
+     */
+    @Bean
+    @ConditionalOnMissingBean(AnyDoorHttpServer.class)
+    @ConditionalOnProperty(prefix = "any-door.server", name = "enabled", havingValue = "true")
+    public AnyDoorHttpServer anyDoorHttpServer() {
+        return new AnyDoorHttpServer();
+    }
+
+    /**
+     * WebFlux 项目没有 Spring MVC，通过 RouterFunction 提供 /any_door/run
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.web.reactive.function.server.RouterFunction")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class AnyDoorReactiveConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(AnyDoorRouter.class)
+        public AnyDoorRouter anyDoorRouter() {
+            return new AnyDoorRouter();
+        }
+
+        @Bean
+        public RouterFunction<ServerResponse> anyDoorRouterFunction(AnyDoorRouter anyDoorRouter) {
+            return anyDoorRouter.routerFunction();
+        }
+    }
+
+}
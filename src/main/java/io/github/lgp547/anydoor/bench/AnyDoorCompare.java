@@ -0,0 +1,197 @@
+package io.github.lgp547.anydoor.bench;
+
+import io.github.lgp547.anydoor.core.AnyDoorHandlerMethod;
+import io.github.lgp547.anydoor.core.AnyDoorService;
+import io.github.lgp547.anydoor.dto.CompareDto;
+import io.github.lgp547.anydoor.history.BenchHistory;
+import io.github.lgp547.anydoor.history.BenchSeries;
+import io.github.lgp547.anydoor.profile.ResourceUsage;
+import io.github.lgp547.anydoor.support.DeepCopier;
+import io.github.lgp547.anydoor.support.LatencySummary;
+import io.github.lgp547.anydoor.support.Statistics;
+import io.github.lgp547.anydoor.support.StreamArgument;
+import io.github.lgp547.anydoor.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A/B 对比：两个方法使用相同的参数在当前线程交替执行（每轮轮换先后顺序，抵消顺序带来的影响），
+ * 统计耗时分布、分配内存、显著性以及返回值是否相同
+ */
+public class AnyDoorCompare {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorCompare.class);
+
+    private static final double SIGNIFICANCE_LEVEL = 0.05;
+
+    private final AnyDoorService anyDoorService = new AnyDoorService();
+
+    public CompareReport compare(CompareDto compareDto) {
+        compareDto.verify();
+        AnyDoorHandlerMethod handlerMethodA = anyDoorService.resolve(compareDto.getA());
+        AnyDoorHandlerMethod handlerMethodB = anyDoorService.resolve(compareDto.getB());
+        if (!Arrays.equals(handlerMethodA.getMethod().getParameterTypes(), handlerMethodB.getMethod().getParameterTypes())) {
+            throw new IllegalArgumentException("a and b must have the same parameter types");
+        }
+        CompareReport report = compare(handlerMethodA, handlerMethodB, () -> handlerMethodA.getArgs(compareDto.getA()),
+                compareDto.getRounds(), compareDto.getWarmupMillis(), compareDto.getMinEffect());
+        report.getA().setMethod(compareDto.getA().getClassName() + "#" + compareDto.getA().getMethodName());
+        report.getB().setMethod(compareDto.getB().getClassName() + "#" + compareDto.getB().getMethodName());
+        String method = BenchHistory.signature(compareDto.getA().getClassName(), handlerMethodA.getMethod()) + " vs "
+                + BenchHistory.signature(compareDto.getB().getClassName(), handlerMethodB.getMethod());
+        report.setRunId(BenchHistory.record("compare", method, compareDto.getTag(),
+                Arrays.asList(BenchSeries.of("a", report.getA().nanos), BenchSeries.of("b", report.getB().nanos))));
+        log.info("any-door compare {} vs {} meanRatio {} pValue {}", report.getA().getMethod(), report.getB().getMethod(), report.getMeanRatio(), report.getPValue());
+        return report;
+    }
+
+    /**
+     * 在当前线程交替执行 a、b，每轮 a 使用 args 解析出的参数，b 使用它的深拷贝，
+     * 一方修改了入参也不会影响另一方的输入
+     */
+    static CompareReport compare(AnyDoorHandlerMethod handlerMethodA, AnyDoorHandlerMethod handlerMethodB, Supplier<Object[]> args,
+                                 int rounds, long warmupMillis, double minEffect) {
+        long allocationOverhead = AnyDoorSweep.allocationOverhead();
+
+        // 按时间预热，轮数太少时还没有被 JIT 编译，编译发生在计时过程中会让先后两段的耗时不可比
+        long warmupDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+        do {
+            Object[] warmupArgs = args.get();
+            Object[] warmupArgsB = DeepCopier.copyArgs(warmupArgs);
+            try {
+                measure(handlerMethodA, warmupArgs, null, 0, 0);
+                measure(handlerMethodB, warmupArgsB, null, 0, 0);
+            } finally {
+                close(warmupArgs, warmupArgsB);
+            }
+        } while (System.nanoTime() < warmupDeadline);
+
+        Measurement a = new Measurement(rounds);
+        Measurement b = new Measurement(rounds);
+        int mismatches = 0;
+        String[] firstMismatch = null;
+        for (int i = 0; i < rounds; i++) {
+            // 每轮只解析一次参数，拷贝在计时之前完成，a、b 的输入相同但互不共享
+            Object[] roundArgs = args.get();
+            Object[] roundArgsB = DeepCopier.copyArgs(roundArgs);
+            Object resultA;
+            Object resultB;
+            try {
+                if (i % 2 == 0) {
+                    resultA = measure(handlerMethodA, roundArgs, a, i, allocationOverhead);
+                    resultB = measure(handlerMethodB, roundArgsB, b, i, allocationOverhead);
+                } else {
+                    resultB = measure(handlerMethodB, roundArgsB, b, i, allocationOverhead);
+                    resultA = measure(handlerMethodA, roundArgs, a, i, allocationOverhead);
+                }
+            } finally {
+                // 两边都计时结束后再关闭，不计入耗时
+                close(roundArgs, roundArgsB);
+            }
+            String jsonA = JsonUtil.toStrNotExc(resultA);
+            String jsonB = JsonUtil.toStrNotExc(resultB);
+            if (!Objects.equals(jsonA, jsonB)) {
+                mismatches++;
+                if (firstMismatch == null) {
+                    firstMismatch = new String[]{jsonA, jsonB};
+                }
+            }
+        }
+
+        CompareReport report = new CompareReport();
+        report.setA(a.toSide(allocationOverhead));
+        report.setB(b.toSide(allocationOverhead));
+        report.setMeanRatio(round(Statistics.mean(b.nanos) / Math.max(1, Statistics.mean(a.nanos))));
+        report.setP50Ratio(round((double) median(b.nanos) / Math.max(1, median(a.nanos))));
+        double[] interval = Statistics.meanDiffInterval(a.nanos, b.nanos);
+        report.setMeanDiffInterval(new double[]{toMillis(interval[0]), toMillis(interval[1])});
+        double pValue = Statistics.mannWhitneyPValue(a.nanos, b.nanos);
+        report.setPValue(round(pValue));
+        // 样本量大时很小的差异（如 1%）也会统计显著，再要求差异超过 minEffect
+        report.setSignificant(pValue < SIGNIFICANCE_LEVEL && Math.abs(report.getP50Ratio() - 1) >= minEffect);
+        if (report.isSignificant()) {
+            report.setFaster(median(a.nanos) <= median(b.nanos) ? "a" : "b");
+        }
+        report.setResultEqual(mismatches == 0);
+        report.setResultMismatches(mismatches);
+        report.setFirstMismatch(firstMismatch);
+        return report;
+    }
+
+    private static void close(Object[] argsA, Object[] argsB) {
+        StreamArgument.close(argsA);
+        StreamArgument.close(argsB);
+    }
+
+    /**
+     * @param measurement 为空时是预热，不统计
+     * @return 方法返回值，异常时为异常类名
+     */
+    private static Object measure(AnyDoorHandlerMethod handlerMethod, Object[] args, Measurement measurement, int round, long allocationOverhead) {
+        Object result;
+        boolean error = false;
+        long allocatedStart = ResourceUsage.allocatedBytes();
+        long startNanos = System.nanoTime();
+        try {
+            result = handlerMethod.invoke(args);
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null && e.getCause().getCause() != null ? e.getCause().getCause() : e;
+            result = cause.getClass().getName();
+            error = true;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        long allocated = ResourceUsage.allocatedBytes() - allocatedStart - allocationOverhead;
+        if (measurement != null) {
+            measurement.nanos[round] = nanos;
+            measurement.allocated += allocated;
+            if (error && measurement.errors++ == 0) {
+                log.info("any-door compare {} exception {}", handlerMethod.getMethod().getName(), result);
+            }
+        }
+        return result;
+    }
+
+    static long median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return LatencySummary.percentile(sorted, 0.5);
+    }
+
+    /**
+     * 保留到纳秒，对比的方法耗时常常不到一微秒
+     */
+    private static double toMillis(double nanos) {
+        return Math.round(nanos) / 1000000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10000) / 10000.0;
+    }
+
+    private static class Measurement {
+
+        private final long[] nanos;
+
+        private long allocated;
+
+        private int errors;
+
+        Measurement(int rounds) {
+            this.nanos = new long[rounds];
+        }
+
+        CompareReport.Side toSide(long allocationOverhead) {
+            CompareReport.Side side = new CompareReport.Side();
+            side.nanos = nanos;
+            side.setErrors(errors);
+            side.setLatency(LatencySummary.of(nanos));
+            side.setAllocatedBytes(allocationOverhead < 0 ? -1 : Math.max(0, allocated / nanos.length));
+            return side;
+        }
+    }
+}
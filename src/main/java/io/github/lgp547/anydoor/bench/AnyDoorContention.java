@@ -0,0 +1,307 @@
+package io.github.lgp547.anydoor.bench;
+
+import io.github.lgp547.anydoor.core.AnyDoorHandlerMethod;
+import io.github.lgp547.anydoor.core.AnyDoorService;
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.dto.ContentionDto;
+import io.github.lgp547.anydoor.history.BenchHistory;
+import io.github.lgp547.anydoor.history.BenchSeries;
+import io.github.lgp547.anydoor.support.StreamArgument;
+import io.github.lgp547.anydoor.support.StripedHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并发竞争分析：依次以 1、2、4...（2的幂）直到 N 个线程同时（启动屏障）执行同一个方法，期间开启线程竞争监控，
+ * 统计每个线程的阻塞/等待次数和时间，并按间隔采样阻塞在哪个锁上、锁被谁持有，以及吞吐量随线程数的扩展情况
+ */
+public class AnyDoorContention {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorContention.class);
+
+    /**
+     * 锁采样间隔
+     */
+    private static final long SAMPLE_INTERVAL_MILLIS = 10;
+
+    /**
+     * 取栈的深度，用来找到等待发生在业务代码的哪一行
+     */
+    private static final int STACK_DEPTH = 16;
+
+    private final AnyDoorService anyDoorService = new AnyDoorService();
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    public ContentionReport run(ContentionDto contentionDto) {
+        contentionDto.verify();
+        AnyDoorDto anyDoorDto = contentionDto.getAnyDoorDto();
+        AnyDoorHandlerMethod handlerMethod = anyDoorService.resolve(anyDoorDto);
+        // 同一个参数对象会被反复调用，读完的流不能再读
+        if (Arrays.asList(handlerMethod.getMethod().getParameterTypes()).contains(InputStream.class)) {
+            throw new IllegalArgumentException("contention not support InputStream parameter");
+        }
+        // 提前校验参数能否解析，工作线程里失败时不好反馈
+        Object[] warmupArgs = handlerMethod.getArgs(anyDoorDto);
+        try {
+            warmup(handlerMethod, warmupArgs, contentionDto.getDuration() / 2);
+        } finally {
+            StreamArgument.close(warmupArgs);
+        }
+
+        ContentionReport report = new ContentionReport();
+        report.setMethod(anyDoorDto.getClassName() + "#" + anyDoorDto.getMethodName());
+        boolean supported = threadMXBean.isThreadContentionMonitoringSupported();
+        boolean enabledBefore = supported && threadMXBean.isThreadContentionMonitoringEnabled();
+        if (supported) {
+            threadMXBean.setThreadContentionMonitoringEnabled(true);
+        }
+        report.setContentionMonitoring(supported);
+        List<BenchSeries> series = new ArrayList<>();
+        try {
+            for (int threads : levels(contentionDto.getThreads())) {
+                ContentionReport.Level level = runLevel(anyDoorDto, handlerMethod, threads, contentionDto.getDuration());
+                ContentionReport.Level first = report.getLevels().isEmpty() ? level : report.getLevels().get(0);
+                double scaling = first.getThroughput() == 0 ? 0 : level.getThroughput() / first.getThroughput();
+                level.setScaling(round(scaling));
+                level.setEfficiency(round(scaling / threads));
+                report.getLevels().add(level);
+                series.add(BenchSeries.of("threads=" + threads, level.getLatency()));
+                log.info("any-door contention {} threads {} throughput {}/s scaling {}", report.getMethod(), threads, level.getThroughput(), level.getScaling());
+            }
+        } finally {
+            if (supported && !enabledBefore) {
+                threadMXBean.setThreadContentionMonitoringEnabled(false);
+            }
+        }
+        report.setRunId(BenchHistory.record("contention", BenchHistory.signature(anyDoorDto.getClassName(), handlerMethod.getMethod()), contentionDto.getTag(), series));
+        return report;
+    }
+
+    /**
+     * 先单线程执行一段时间，避免JIT编译计入单线程的吞吐量，使扩展倍数偏高
+     */
+    private static void warmup(AnyDoorHandlerMethod handlerMethod, Object[] args, long millis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (System.nanoTime() < deadline) {
+            try {
+                handlerMethod.invoke(args);
+            } catch (Exception e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 线程数按2的幂递增，最后一级为 maxThreads，级数随 maxThreads 对数增长，线程数较多时总耗时不会过长
+     */
+    static List<Integer> levels(int maxThreads) {
+        List<Integer> levels = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads <<= 1) {
+            levels.add(threads);
+        }
+        levels.add(maxThreads);
+        return levels;
+    }
+
+    private ContentionReport.Level runLevel(AnyDoorDto anyDoorDto, AnyDoorHandlerMethod handlerMethod, int threads, long durationMillis) {
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(threads);
+        CountDownLatch release = new CountDownLatch(1);
+        StripedHistogram histogram = new StripedHistogram();
+        Worker[] workers = new Worker[threads];
+        long[] ids = new long[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(anyDoorDto, handlerMethod, histogram, ready, start, finished, release);
+            workers[i].setName("any-door-contention-" + threads + "-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+            ids[i] = workers[i].getId();
+        }
+
+        Map<String, ContentionReport.LockStats> locks = new LinkedHashMap<>();
+        ThreadInfo[] before;
+        long elapsedNanos;
+        try {
+            ready.await();
+            before = threadMXBean.getThreadInfo(ids);
+            long startNanos = System.nanoTime();
+            long deadline = startNanos + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+            start.countDown();
+            while (System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(Math.min(SAMPLE_INTERVAL_MILLIS, Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()))));
+                sampleLocks(ids, locks);
+            }
+            for (Worker worker : workers) {
+                worker.stopped = true;
+            }
+            elapsedNanos = System.nanoTime() - startNanos;
+            if (!finished.await(durationMillis + 30_000, TimeUnit.MILLISECONDS)) {
+                log.warn("any-door contention some threads are still running, stats may be incomplete");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("contention interrupted", e);
+        }
+        // 线程结束后拿不到 ThreadInfo，所以在线程退出前取
+        ThreadInfo[] after = threadMXBean.getThreadInfo(ids);
+        release.countDown();
+
+        ContentionReport.Level level = new ContentionReport.Level();
+        level.setThreads(threads);
+        long calls = 0;
+        long errors = 0;
+        for (int i = 0; i < threads; i++) {
+            calls += workers[i].calls;
+            errors += workers[i].errors;
+            level.getThreadStats().add(threadStats(workers[i], before[i], after[i]));
+        }
+        level.setCalls(calls);
+        level.setErrors(errors);
+        level.setThroughput(round(calls * 1e9 / elapsedNanos));
+        level.setLatency(histogram.summary());
+        locks.values().stream()
+                .sorted(Comparator.comparingLong(ContentionReport.LockStats::getSamples).reversed())
+                .forEach(level.getLocks()::add);
+        return level;
+    }
+
+    private void sampleLocks(long[] ids, Map<String, ContentionReport.LockStats> locks) {
+        for (ThreadInfo info : threadMXBean.getThreadInfo(ids, STACK_DEPTH)) {
+            if (info == null) {
+                continue;
+            }
+            Thread.State state = info.getThreadState();
+            LockInfo lockInfo = info.getLockInfo();
+            if (lockInfo == null || (state != Thread.State.BLOCKED && state != Thread.State.WAITING && state != Thread.State.TIMED_WAITING)) {
+                continue;
+            }
+            String lock = lockInfo.toString();
+            locks.computeIfAbsent(lock + state, k -> new ContentionReport.LockStats(lock, state.name()))
+                    .add(info.getLockOwnerName(), callerFrame(info.getStackTrace()));
+        }
+    }
+
+    /**
+     * 跳过 Object.wait、LockSupport.park 及 j.u.c 锁内部的栈，找到发起等待的调用位置
+     */
+    private static String callerFrame(StackTraceElement[] stackTrace) {
+        for (StackTraceElement element : stackTrace) {
+            String className = element.getClassName();
+            if (className.startsWith("java.util.concurrent.locks.") || className.startsWith("sun.misc.")
+                    || className.startsWith("jdk.internal.") || className.equals("java.lang.Object")) {
+                continue;
+            }
+            return element.toString();
+        }
+        return stackTrace.length > 0 ? stackTrace[0].toString() : null;
+    }
+
+    private static ContentionReport.ThreadStats threadStats(Worker worker, ThreadInfo before, ThreadInfo after) {
+        ContentionReport.ThreadStats stats = new ContentionReport.ThreadStats();
+        stats.setThread(worker.getName());
+        stats.setCalls(worker.calls);
+        if (before == null || after == null) {
+            return stats;
+        }
+        stats.setBlockedCount(after.getBlockedCount() - before.getBlockedCount());
+        stats.setWaitedCount(after.getWaitedCount() - before.getWaitedCount());
+        stats.setBlockedTime(after.getBlockedTime() < 0 ? -1 : after.getBlockedTime() - Math.max(0, before.getBlockedTime()));
+        stats.setWaitedTime(after.getWaitedTime() < 0 ? -1 : after.getWaitedTime() - Math.max(0, before.getWaitedTime()));
+        return stats;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static class Worker extends Thread {
+
+        private final AnyDoorDto anyDoorDto;
+
+        private final AnyDoorHandlerMethod handlerMethod;
+
+        private final StripedHistogram histogram;
+
+        private final CountDownLatch ready;
+
+        private final CountDownLatch start;
+
+        private final CountDownLatch finished;
+
+        private final CountDownLatch release;
+
+        private volatile boolean stopped;
+
+        private long calls;
+
+        private long errors;
+
+        Worker(AnyDoorDto anyDoorDto, AnyDoorHandlerMethod handlerMethod, StripedHistogram histogram,
+               CountDownLatch ready, CountDownLatch start, CountDownLatch finished, CountDownLatch release) {
+            this.anyDoorDto = anyDoorDto;
+            this.handlerMethod = handlerMethod;
+            this.histogram = histogram;
+            this.ready = ready;
+            this.start = start;
+            this.finished = finished;
+            this.release = release;
+        }
+
+        @Override
+        public void run() {
+            // 无论参数解析失败还是抛出 Error，都要 countDown，否则这一级要等到超时
+            Object[] args = null;
+            try {
+                try {
+                    // 每个线程各自解析参数，避免参数对象本身成为共享状态
+                    args = handlerMethod.getArgs(anyDoorDto);
+                } finally {
+                    ready.countDown();
+                }
+                start.await();
+                while (!stopped) {
+                    long startNanos = System.nanoTime();
+                    try {
+                        handlerMethod.invoke(args);
+                    } catch (Exception e) {
+                        if (errors++ == 0) {
+                            log.info("any-door contention {} exception", getName(), e);
+                        }
+                    }
+                    histogram.record(System.nanoTime() - startNanos);
+                    calls++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException | Error e) {
+                errors++;
+                log.warn("any-door contention {} aborted", getName(), e);
+            } finally {
+                StreamArgument.close(args);
+                finished.countDown();
+            }
+            // 等统计线程取完 ThreadInfo 再退出
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
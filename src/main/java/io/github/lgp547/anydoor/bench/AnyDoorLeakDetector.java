@@ -0,0 +1,235 @@
+package io.github.lgp547.anydoor.bench;
+
+import io.github.lgp547.anydoor.core.AnyDoorHandlerMethod;
+import io.github.lgp547.anydoor.core.AnyDoorService;
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.dto.LeakDto;
+import io.github.lgp547.anydoor.support.StreamArgument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 泄漏检测：在当前线程分轮重复执行方法，每轮结束后GC并记录堆使用，按累计调用次数拟合增长趋势，
+ * 方法返回值直接丢弃，GC后仍然增长的部分就是被静态缓存、监听器注册等留下的对象
+ * <p>
+ * 类直方图通过 DiagnosticCommand MBean 的 gcClassHistogram 获取（与 jcmd GC.class_histogram 相同），不需要外部进程
+ */
+public class AnyDoorLeakDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorLeakDetector.class);
+
+    public static final String METRIC_USED_AFTER_GC = "usedAfterGc";
+
+    public static final String METRIC_HEAP_USED = "heapUsed";
+
+    /**
+     * 决定系数低于该值时增长不稳定，更可能是GC噪声
+     */
+    private static final double MIN_R2 = 0.7;
+
+    private static final String DIAGNOSTIC_COMMAND = "com.sun.management:type=DiagnosticCommand";
+
+    /**
+     * 例如 "   1:         12345        1234567  [C" 或 "   2:  10  240  java.lang.String (java.base@11)"
+     */
+    private static final Pattern HISTOGRAM_LINE = Pattern.compile("^\\s*\\d+:\\s+(\\d+)\\s+(\\d+)\\s+(\\S+)");
+
+    private final AnyDoorService anyDoorService = new AnyDoorService();
+
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+
+    public LeakReport detect(LeakDto leakDto) {
+        leakDto.verify();
+        long start = System.currentTimeMillis();
+        AnyDoorDto anyDoorDto = leakDto.getAnyDoorDto();
+        AnyDoorHandlerMethod handlerMethod = anyDoorService.resolve(anyDoorDto);
+        LeakReport report = new LeakReport();
+        report.setMethod(anyDoorDto.getClassName() + "#" + anyDoorDto.getMethodName());
+        int perRound = leakDto.getInvocationsPerRound();
+
+        int errors = 0;
+        for (int i = 0; i < leakDto.getWarmupRounds(); i++) {
+            errors += runRound(handlerMethod, anyDoorDto, perRound);
+        }
+        boolean histogram = Boolean.TRUE.equals(leakDto.getHistogram());
+        Map<String, long[]> firstHistogram = histogram ? classHistogram() : null;
+        long gcCount = gcCount();
+        report.getSamples().add(sample(0));
+        long invocations = 0;
+        for (int round = 0; round < leakDto.getRounds(); round++) {
+            errors += runRound(handlerMethod, anyDoorDto, perRound);
+            invocations += perRound;
+            report.getSamples().add(sample(invocations));
+        }
+        if (gcCount() == gcCount) {
+            log.warn("any-door leak detect: no gc observed, is -XX:+DisableExplicitGC set? heap samples include garbage");
+        }
+        if (firstHistogram != null && !firstHistogram.isEmpty()) {
+            report.setHistogramDiff(diff(firstHistogram, classHistogram(), leakDto.getTop()));
+        }
+
+        report.setInvocations(invocations);
+        report.setErrors(errors);
+        fit(report, leakDto.getMinBytesPerCall());
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("any-door leak detect {} {} bytes/call r2 {} suspected {}", report.getMethod(),
+                report.getLeakBytesPerCall(), report.getR2(), report.isLeakSuspected());
+        return report;
+    }
+
+    /**
+     * 解析参数或执行出错都计为一次错误，不中断检测
+     *
+     * @return 本轮执行出错次数
+     */
+    private static int runRound(AnyDoorHandlerMethod handlerMethod, AnyDoorDto anyDoorDto, int invocations) {
+        int errors = 0;
+        for (int i = 0; i < invocations; i++) {
+            Object[] args = null;
+            try {
+                args = handlerMethod.getArgs(anyDoorDto);
+                handlerMethod.invoke(args);
+            } catch (RuntimeException | Error e) {
+                if (errors++ == 0) {
+                    log.info("any-door leak detect exception", e);
+                }
+            } finally {
+                StreamArgument.close(args);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * 连续GC直到堆使用不再下降（最多5次），让 finalizer、软引用等释放的对象也被回收
+     */
+    private LeakReport.Sample sample(long invocations) {
+        long previous = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            memoryMXBean.gc();
+            long used = memoryMXBean.getHeapMemoryUsage().getUsed();
+            if (used >= previous) {
+                break;
+            }
+            previous = used;
+        }
+        LeakReport.Sample sample = new LeakReport.Sample();
+        sample.setInvocations(invocations);
+        sample.setHeapUsed(memoryMXBean.getHeapMemoryUsage().getUsed());
+        sample.setUsedAfterGc(usedAfterGc());
+        return sample;
+    }
+
+    /**
+     * 各堆内存池最近一次GC后的使用量之和，不受GC之后新分配对象的影响
+     */
+    private static long usedAfterGc() {
+        long total = 0;
+        boolean supported = false;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) {
+                continue;
+            }
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                total += usage.getUsed();
+                supported = true;
+            }
+        }
+        return supported ? total : -1;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gcBean.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * 最小二乘拟合 used = a + b * invocations，b 即每次调用增长的字节数
+     */
+    static void fit(LeakReport report, long minBytesPerCall) {
+        List<LeakReport.Sample> samples = report.getSamples();
+        boolean afterGc = samples.stream().allMatch(sample -> sample.getUsedAfterGc() >= 0);
+        report.setMetric(afterGc ? METRIC_USED_AFTER_GC : METRIC_HEAP_USED);
+        int n = samples.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = samples.get(i).getInvocations();
+            y[i] = afterGc ? samples.get(i).getUsedAfterGc() : samples.get(i).getHeapUsed();
+        }
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < n; i++) {
+            meanX += x[i] / n;
+            meanY += y[i] / n;
+        }
+        double sxx = 0;
+        double sxy = 0;
+        double syy = 0;
+        for (int i = 0; i < n; i++) {
+            sxx += (x[i] - meanX) * (x[i] - meanX);
+            sxy += (x[i] - meanX) * (y[i] - meanY);
+            syy += (y[i] - meanY) * (y[i] - meanY);
+        }
+        double slope = sxx == 0 ? 0 : sxy / sxx;
+        double r2 = sxx == 0 || syy == 0 ? 0 : (sxy * sxy) / (sxx * syy);
+        report.setLeakBytesPerCall(Math.round(slope * 100) / 100.0);
+        report.setR2(Math.round(r2 * 1000) / 1000.0);
+        report.setGrowthBytes((long) (y[n - 1] - y[0]));
+        report.setLeakSuspected(slope >= minBytesPerCall && r2 >= MIN_R2);
+    }
+
+    /**
+     * @return 类名 -> [实例数, 字节数]，不支持时为空
+     */
+    private static Map<String, long[]> classHistogram() {
+        Map<String, long[]> histogram = new HashMap<>();
+        try {
+            Object text = ManagementFactory.getPlatformMBeanServer().invoke(new ObjectName(DIAGNOSTIC_COMMAND), "gcClassHistogram",
+                    new Object[]{new String[0]}, new String[]{String[].class.getName()});
+            for (String line : String.valueOf(text).split("\n")) {
+                Matcher matcher = HISTOGRAM_LINE.matcher(line);
+                if (matcher.find()) {
+                    histogram.put(matcher.group(3), new long[]{Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2))});
+                }
+            }
+        } catch (Exception e) {
+            log.warn("any-door class histogram not available: {}", e.toString());
+        }
+        return histogram;
+    }
+
+    private static List<LeakReport.ClassGrowth> diff(Map<String, long[]> first, Map<String, long[]> last, int top) {
+        List<LeakReport.ClassGrowth> growths = new ArrayList<>();
+        last.forEach((className, counts) -> {
+            long[] before = first.getOrDefault(className, new long[2]);
+            if (counts[1] > before[1]) {
+                LeakReport.ClassGrowth growth = new LeakReport.ClassGrowth();
+                growth.setClassName(className);
+                growth.setInstances(counts[0] - before[0]);
+                growth.setBytes(counts[1] - before[1]);
+                growths.add(growth);
+            }
+        });
+        growths.sort((a, b) -> Long.compare(b.getBytes(), a.getBytes()));
+        return growths.size() > top ? new ArrayList<>(growths.subList(0, top)) : growths;
+    }
+}
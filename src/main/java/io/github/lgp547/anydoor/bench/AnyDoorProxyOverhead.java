@@ -0,0 +1,166 @@
+package io.github.lgp547.anydoor.bench;
+
+import io.github.lgp547.anydoor.core.AnyDoorHandlerMethod;
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.dto.ProxyOverheadDto;
+import io.github.lgp547.anydoor.history.BenchHistory;
+import io.github.lgp547.anydoor.history.BenchSeries;
+import io.github.lgp547.anydoor.support.Statistics;
+import io.github.lgp547.anydoor.util.AopUtil;
+import io.github.lgp547.anydoor.util.ClassUtil;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.aopalliance.aop.Advice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 代理开销：同一个 Spring Bean 的方法经过 AOP 代理（事务、缓存、安全、自定义切面等 advice 链）和直接在目标对象上调用，
+ * 使用同一组参数交替执行（同 /any_door/compare），两者之差即 advice 链每次调用增加的耗时。
+ * 开启 breakdown 时按执行顺序逐个叠加 advisor 创建新的代理分别测量，得到每个 advisor 增加的耗时
+ */
+public class AnyDoorProxyOverhead {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorProxyOverhead.class);
+
+    public ProxyOverheadReport run(ProxyOverheadDto proxyOverheadDto) {
+        proxyOverheadDto.verify();
+        AnyDoorDto anyDoorDto = proxyOverheadDto.getAnyDoorDto();
+        Class<?> clazz = anyDoorDto.getClazz();
+        if (!SpringUtil.containsBean(clazz)) {
+            throw new IllegalArgumentException(clazz.getName() + " is not a spring bean");
+        }
+        Object bean = SpringUtil.getBean(clazz);
+        if (!AopUtil.isAopProxy(bean) || !(bean instanceof Advised)) {
+            throw new IllegalArgumentException(clazz.getName() + " is not an aop proxy");
+        }
+        Class<?> targetClass = AopUtil.getTargetClass(bean);
+        Method method = ClassUtil.getMethod(targetClass, anyDoorDto.getMethodName(), anyDoorDto.getParameterTypes());
+        // 非 public 方法 run 时直接调用目标对象，本来就不经过 advice
+        if (!Modifier.isPublic(method.getModifiers())) {
+            throw new IllegalArgumentException("method " + method.getName() + " is not public, it is invoked on the target directly");
+        }
+        Advised advised = (Advised) bean;
+        AnyDoorHandlerMethod direct = new AnyDoorHandlerMethod(AopUtil.getTargetObject(bean), method);
+        AnyDoorHandlerMethod proxied = new AnyDoorHandlerMethod(bean, proxyMethod(bean, method));
+
+        CompareReport compare = AnyDoorCompare.compare(direct, proxied, () -> direct.getArgs(anyDoorDto),
+                proxyOverheadDto.getRounds(), proxyOverheadDto.getWarmupMillis(), proxyOverheadDto.getMinEffect());
+        verify(compare, proxyOverheadDto.getRounds());
+        compare.getA().setMethod("direct");
+        compare.getB().setMethod("proxied");
+
+        ProxyOverheadReport report = new ProxyOverheadReport();
+        report.setMethod(anyDoorDto.getClassName() + "#" + anyDoorDto.getMethodName());
+        report.setProxyType(AopUtil.isCglibProxy(bean) ? "cglib" : "jdk");
+        report.setCompare(compare);
+        report.setOverheadNanos(overhead(compare));
+        report.setP50OverheadNanos(AnyDoorCompare.median(compare.getB().nanos) - AnyDoorCompare.median(compare.getA().nanos));
+        double[] interval = Statistics.meanDiffInterval(compare.getA().nanos, compare.getB().nanos);
+        report.setOverheadInterval(new long[]{Math.round(interval[0]), Math.round(interval[1])});
+        report.setOverheadAllocatedBytes(compare.getA().getAllocatedBytes() < 0 ? -1
+                : compare.getB().getAllocatedBytes() - compare.getA().getAllocatedBytes());
+
+        List<Advisor> advisors = matchingAdvisors(advised, method, targetClass);
+        long previous = 0;
+        for (int i = 0; i < advisors.size(); i++) {
+            ProxyOverheadReport.AdvisorCost advisorCost = new ProxyOverheadReport.AdvisorCost();
+            advisorCost.setAdvisor(describe(advisors.get(i).getAdvice()));
+            if (Boolean.TRUE.equals(proxyOverheadDto.getBreakdown())) {
+                Object partialProxy = proxy(advised, advisors.subList(0, i + 1));
+                AnyDoorHandlerMethod partial = new AnyDoorHandlerMethod(partialProxy, proxyMethod(partialProxy, method));
+                CompareReport partialCompare = AnyDoorCompare.compare(direct, partial, () -> direct.getArgs(anyDoorDto),
+                        proxyOverheadDto.getRounds(), proxyOverheadDto.getWarmupMillis(), proxyOverheadDto.getMinEffect());
+                verify(partialCompare, proxyOverheadDto.getRounds());
+                long cumulative = overhead(partialCompare);
+                advisorCost.setCumulativeNanos(cumulative);
+                advisorCost.setAddedNanos(cumulative - previous);
+                previous = cumulative;
+            }
+            report.getAdvisors().add(advisorCost);
+        }
+
+        report.setRunId(BenchHistory.record("proxy", BenchHistory.signature(anyDoorDto.getClassName(), method), proxyOverheadDto.getTag(),
+                Arrays.asList(BenchSeries.of("direct", compare.getA().nanos), BenchSeries.of("proxied", compare.getB().nanos))));
+        log.info("any-door proxy overhead {} {}ns per call, advisors {}", report.getMethod(), report.getOverheadNanos(), advisors.size());
+        return report;
+    }
+
+    /**
+     * JDK 动态代理只实现了接口，目标类上的方法不能在代理上调用，改用接口中声明的方法；不在接口中的方法调用时本来就不经过代理
+     */
+    static Method proxyMethod(Object proxy, Method method) {
+        if (method.getDeclaringClass().isInstance(proxy)) {
+            return method;
+        }
+        Method interfaceMethod = ClassUtils.getInterfaceMethodIfPossible(method, proxy.getClass());
+        if (interfaceMethod.getDeclaringClass().isInstance(proxy)) {
+            return interfaceMethod;
+        }
+        throw new IllegalArgumentException("method " + method.getName() + " is not declared on any interface of the jdk proxy "
+                + proxy.getClass().getName());
+    }
+
+    /**
+     * 某一方每轮都出错时耗时是异常路径的，差值没有意义
+     */
+    private static void verify(CompareReport compare, int rounds) {
+        if (compare.getA().getErrors() >= rounds || compare.getB().getErrors() >= rounds) {
+            throw new IllegalArgumentException("every round failed (direct errors " + compare.getA().getErrors()
+                    + ", proxied errors " + compare.getB().getErrors() + "), see the log for the exception");
+        }
+    }
+
+    private static long overhead(CompareReport compare) {
+        return Math.round(Statistics.mean(compare.getB().nanos) - Statistics.mean(compare.getA().nanos));
+    }
+
+    /**
+     * 代理上作用于该方法的 advisor，顺序即 advice 链的执行顺序
+     */
+    private static List<Advisor> matchingAdvisors(Advised advised, Method method, Class<?> targetClass) {
+        List<Advisor> advisors = new ArrayList<>();
+        for (Advisor advisor : advised.getAdvisors()) {
+            if (advisor instanceof PointcutAdvisor) {
+                PointcutAdvisor pointcutAdvisor = (PointcutAdvisor) advisor;
+                if (!pointcutAdvisor.getPointcut().getClassFilter().matches(targetClass)
+                        || !pointcutAdvisor.getPointcut().getMethodMatcher().matches(method, targetClass)) {
+                    continue;
+                }
+            }
+            advisors.add(advisor);
+        }
+        return advisors;
+    }
+
+    /**
+     * 与原代理相同的目标对象和配置，只包含部分 advisor
+     */
+    private static Object proxy(Advised advised, List<Advisor> advisors) {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setTargetSource(advised.getTargetSource());
+        proxyFactory.setInterfaces(advised.getProxiedInterfaces());
+        proxyFactory.setProxyTargetClass(advised.isProxyTargetClass());
+        proxyFactory.setExposeProxy(advised.isExposeProxy());
+        proxyFactory.addAdvisors(advisors);
+        return proxyFactory.getProxy(advised.getTargetClass() != null ? advised.getTargetClass().getClassLoader() : null);
+    }
+
+    /**
+     * AspectJ 切面的 advice 带有切面名和方法，其他 advice（如 TransactionInterceptor）没有覆盖 toString，只取类名
+     */
+    private static String describe(Advice advice) {
+        String description = advice.toString();
+        return description.startsWith(advice.getClass().getName() + "@") ? advice.getClass().getName() : description;
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.lgp547.anydoor.bench;
+
+import io.github.lgp547.anydoor.core.AnyDoorHandlerMethod;
+import io.github.lgp547.anydoor.core.AnyDoorService;
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.dto.GenerateDto;
+import io.github.lgp547.anydoor.dto.SweepDto;
+import io.github.lgp547.anydoor.history.BenchHistory;
+import io.github.lgp547.anydoor.history.BenchSeries;
+import io.github.lgp547.anydoor.profile.ResourceUsage;
+import io.github.lgp547.anydoor.support.LatencySamples;
+import io.github.lgp547.anydoor.support.LatencySummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 输入规模扫描：按每个规模展开参数模板，所有规模预热后在当前线程依次计时执行，统计耗时和分配内存，并拟合增长模型。
+ * 每次执行前重新解析参数（不计时），避免方法修改入参（如原地排序）影响后续执行
+ */
+public class AnyDoorSweep {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorSweep.class);
+
+    private final AnyDoorService anyDoorService = new AnyDoorService();
+
+    @SuppressWarnings("unchecked")
+    public SweepReport sweep(SweepDto sweepDto) {
+        sweepDto.verify();
+        AnyDoorDto anyDoorDto = sweepDto.getAnyDoorDto();
+        AnyDoorHandlerMethod handlerMethod = anyDoorService.resolve(anyDoorDto);
+        Map<String, Object> template = anyDoorDto.getContentMap();
+        long allocationOverhead = allocationOverhead();
+
+        SweepReport report = new SweepReport();
+        report.setMethod(anyDoorDto.getClassName() + "#" + anyDoorDto.getMethodName());
+        List<Integer> sizes = new ArrayList<>(sweepDto.getSizes());
+        sizes.sort(null);
+        List<Map<String, Object>> contentMaps = new ArrayList<>();
+        List<GenerateDto> generates = new ArrayList<>();
+        for (int size : sizes) {
+            contentMaps.add((Map<String, Object>) SweepTemplate.expand(template, size, new Random(sweepDto.getSeed())));
+            generates.add(generate(anyDoorDto.getGenerate(), size));
+        }
+        // 所有规模都预热后再计时，否则前面的规模还在解释执行，后面的已经编译，拟合出来的增长偏低
+        for (int i = 0; i < sizes.size(); i++) {
+            run(handlerMethod, contentMaps.get(i), generates.get(i), sweepDto.getWarmupMillis(), 1, null, 0);
+        }
+        List<BenchSeries> series = new ArrayList<>();
+        for (int i = 0; i < sizes.size(); i++) {
+            int size = sizes.get(i);
+            SweepReport.Point point = new SweepReport.Point();
+            point.setSize(size);
+            long[] nanos = run(handlerMethod, contentMaps.get(i), generates.get(i), sweepDto.getMeasureMillis(), sweepDto.getMinIterations(), point, allocationOverhead);
+            series.add(BenchSeries.of("n=" + size, nanos));
+            report.getPoints().add(point);
+            log.info("any-door sweep {} size {} p50 {}ms", report.getMethod(), size, point.getLatency().getP50());
+        }
+
+        double[] x = new double[sizes.size()];
+        double[] time = new double[sizes.size()];
+        double[] allocation = new double[sizes.size()];
+        for (int i = 0; i < sizes.size(); i++) {
+            SweepReport.Point point = report.getPoints().get(i);
+            x[i] = point.getSize();
+            time[i] = point.getMedianNanos();
+            allocation[i] = point.getAllocatedBytes();
+        }
+        report.setTime(ComplexityFit.fit(x, time));
+        if (allocationOverhead >= 0) {
+            report.setAllocation(ComplexityFit.fit(x, allocation));
+        }
+        report.setRunId(BenchHistory.record("sweep", BenchHistory.signature(anyDoorDto.getClassName(), handlerMethod.getMethod()), sweepDto.getTag(), series));
+        return report;
+    }
+
+    /**
+     * 自动生成的参数中集合的大小跟随规模
+     */
+    private static GenerateDto generate(GenerateDto generateDto, int size) {
+        if (generateDto == null) {
+            return null;
+        }
+        GenerateDto sized = new GenerateDto(generateDto);
+        sized.setSize(size);
+        return sized;
+    }
+
+    /**
+     * @param point 为空时是预热，不统计
+     * @return 每次执行的耗时（纳秒），已排序
+     */
+    private static long[] run(AnyDoorHandlerMethod handlerMethod, Map<String, Object> contentMap, GenerateDto generateDto, long millis, int minIterations,
+                            SweepReport.Point point, long allocationOverhead) {
+        LatencySamples samples = new LatencySamples();
+        long allocated = 0;
+        int errors = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (samples.size() < minIterations || System.nanoTime() < deadline) {
+            Object[] args = handlerMethod.getArgs(contentMap, generateDto);
+            long allocatedStart = ResourceUsage.allocatedBytes();
+            long startNanos = System.nanoTime();
+            try {
+                handlerMethod.invoke(args);
+            } catch (Exception e) {
+                if (errors++ == 0) {
+                    log.info("any-door sweep exception", e);
+                }
+            }
+            samples.add(System.nanoTime() - startNanos);
+            allocated += ResourceUsage.allocatedBytes() - allocatedStart - allocationOverhead;
+        }
+        long[] sorted = samples.toArray();
+        Arrays.sort(sorted);
+        if (point != null) {
+            point.setIterations(samples.size());
+            point.setErrors(errors);
+            point.setMedianNanos(LatencySummary.percentile(sorted, 0.5));
+            point.setLatency(LatencySummary.of(sorted));
+            point.setAllocatedBytes(allocationOverhead < 0 ? -1 : Math.max(0, allocated / samples.size()));
+        }
+        return sorted;
+    }
+
+    /**
+     * 取一次分配字节数本身的分配，不支持统计时为 -1
+     */
+    static long allocationOverhead() {
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long start = ResourceUsage.allocatedBytes();
+            if (start < 0) {
+                return -1;
+            }
+            overhead = Math.min(overhead, ResourceUsage.allocatedBytes() - start);
+        }
+        return overhead;
+    }
+}
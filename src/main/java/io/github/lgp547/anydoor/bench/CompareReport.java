@@ -0,0 +1,209 @@
+package io.github.lgp547.anydoor.bench;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.github.lgp547.anydoor.support.LatencySummary;
+
+/**
+ * A/B 对比结果，时间单位毫秒
+ */
+public class CompareReport {
+
+    /**
+     * 压测历史记录id，用于 /any_door/bench/regression，未开启记录时为空
+     */
+    private String runId;
+
+    private Side a;
+
+    private Side b;
+
+    /**
+     * b 的平均耗时 / a 的平均耗时
+     */
+    private double meanRatio;
+
+    /**
+     * b 的耗时中位数 / a 的耗时中位数
+     */
+    private double p50Ratio;
+
+    /**
+     * b - a 平均耗时差的 95% 置信区间
+     */
+    private double[] meanDiffInterval;
+
+    /**
+     * Mann-Whitney U 检验的双侧 p 值
+     */
+    private double pValue;
+
+    /**
+     * p 值小于 0.05 且耗时中位数相差超过 minEffect 时认为两者耗时有显著差异
+     */
+    private boolean significant;
+
+    /**
+     * 显著更快的一方（a 或 b），没有显著差异时为空
+     */
+    private String faster;
+
+    /**
+     * 所有轮次返回值（json）是否都相同
+     */
+    private boolean resultEqual;
+
+    private int resultMismatches;
+
+    /**
+     * 第一次不同时的返回值
+     */
+    private String[] firstMismatch;
+
+    public String getRunId() {
+        return runId;
+    }
+
+    void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public Side getA() {
+        return a;
+    }
+
+    void setA(Side a) {
+        this.a = a;
+    }
+
+    public Side getB() {
+        return b;
+    }
+
+    void setB(Side b) {
+        this.b = b;
+    }
+
+    public double getMeanRatio() {
+        return meanRatio;
+    }
+
+    void setMeanRatio(double meanRatio) {
+        this.meanRatio = meanRatio;
+    }
+
+    public double getP50Ratio() {
+        return p50Ratio;
+    }
+
+    void setP50Ratio(double p50Ratio) {
+        this.p50Ratio = p50Ratio;
+    }
+
+    public double[] getMeanDiffInterval() {
+        return meanDiffInterval;
+    }
+
+    void setMeanDiffInterval(double[] meanDiffInterval) {
+        this.meanDiffInterval = meanDiffInterval;
+    }
+
+    @JsonProperty("pValue")
+    public double getPValue() {
+        return pValue;
+    }
+
+    void setPValue(double pValue) {
+        this.pValue = pValue;
+    }
+
+    public boolean isSignificant() {
+        return significant;
+    }
+
+    void setSignificant(boolean significant) {
+        this.significant = significant;
+    }
+
+    public String getFaster() {
+        return faster;
+    }
+
+    void setFaster(String faster) {
+        this.faster = faster;
+    }
+
+    public boolean isResultEqual() {
+        return resultEqual;
+    }
+
+    void setResultEqual(boolean resultEqual) {
+        this.resultEqual = resultEqual;
+    }
+
+    public int getResultMismatches() {
+        return resultMismatches;
+    }
+
+    void setResultMismatches(int resultMismatches) {
+        this.resultMismatches = resultMismatches;
+    }
+
+    public String[] getFirstMismatch() {
+        return firstMismatch;
+    }
+
+    void setFirstMismatch(String[] firstMismatch) {
+        this.firstMismatch = firstMismatch;
+    }
+
+    public static class Side {
+
+        private String method;
+
+        private int errors;
+
+        private LatencySummary latency;
+
+        /**
+         * 平均每次调用分配的字节数，不支持时为 -1
+         */
+        private long allocatedBytes;
+
+        /**
+         * 每轮耗时（纳秒），只用于记录压测历史，不返回
+         */
+        long[] nanos;
+
+        public String getMethod() {
+            return method;
+        }
+
+        void setMethod(String method) {
+            this.method = method;
+        }
+
+        public int getErrors() {
+            return errors;
+        }
+
+        void setErrors(int errors) {
+            this.errors = errors;
+        }
+
+        public LatencySummary getLatency() {
+            return latency;
+        }
+
+        void setLatency(LatencySummary latency) {
+            this.latency = latency;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        void setAllocatedBytes(long allocatedBytes) {
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package io.github.lgp547.anydoor.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * 用最小二乘把 耗时 = a + b * f(n) 拟合到各个增长模型，选出误差接近最小误差的最简单模型，
+ * 避免噪声把 O(n) 判成 O(n log n)、把基本不变的值判成高阶模型
+ */
+public class ComplexityFit {
+
+    /**
+     * 误差不超过 最小误差 * 1.1 + 0.05 的模型都认为足够好
+     */
+    private static final double TOLERANCE_RATIO = 1.1;
+
+    private static final double TOLERANCE_NOISE = 0.05;
+
+    private static final String[] MODELS = {"O(1)", "O(log n)", "O(n)", "O(n log n)", "O(n^2)", "O(n^3)"};
+
+    private static final DoubleUnaryOperator[] FUNCTIONS = {
+            n -> 1,
+            Math::log,
+            n -> n,
+            n -> n * Math.log(n),
+            n -> n * n,
+            n -> n * n * n
+    };
+
+    private String model;
+
+    /**
+     * log(耗时) 对 log(n) 的斜率，即经验上的指数，O(n) 约为 1，O(n^2) 约为 2
+     */
+    private double exponent;
+
+    private final List<ModelFit> fits = new ArrayList<>();
+
+    /**
+     * @param sizes 规模
+     * @param times 对应的耗时
+     */
+    public static ComplexityFit fit(double[] sizes, double[] times) {
+        ComplexityFit result = new ComplexityFit();
+        double mean = 0;
+        for (double time : times) {
+            mean += time;
+        }
+        mean /= times.length;
+        double minError = Double.MAX_VALUE;
+        for (int m = 0; m < MODELS.length; m++) {
+            ModelFit fit = fitModel(MODELS[m], FUNCTIONS[m], m == 0, sizes, times, mean);
+            result.fits.add(fit);
+            if (fit.coefficient >= 0) {
+                minError = Math.min(minError, fit.relativeError);
+            }
+        }
+        for (ModelFit fit : result.fits) {
+            if (fit.coefficient >= 0 && fit.relativeError <= minError * TOLERANCE_RATIO + TOLERANCE_NOISE) {
+                result.model = fit.model;
+                break;
+            }
+        }
+        result.exponent = round(logLogSlope(sizes, times));
+        return result;
+    }
+
+    /**
+     * 各规模的耗时可能相差几个数量级，按相对误差加权（权重 1/耗时^2），否则只有最大的几个规模起作用
+     */
+    private static ModelFit fitModel(String model, DoubleUnaryOperator function, boolean constant, double[] sizes, double[] times, double mean) {
+        int count = sizes.length;
+        double sumW = 0;
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumXY = 0;
+        for (int i = 0; i < count; i++) {
+            double w = weight(times[i]);
+            double x = function.applyAsDouble(sizes[i]);
+            sumW += w;
+            sumX += w * x;
+            sumY += w * times[i];
+            sumXX += w * x * x;
+            sumXY += w * x * times[i];
+        }
+        double b = 0;
+        if (!constant) {
+            double denominator = sumW * sumXX - sumX * sumX;
+            b = denominator == 0 ? 0 : (sumW * sumXY - sumX * sumY) / denominator;
+        }
+        double a = (sumY - b * sumX) / sumW;
+        double residual = 0;
+        double relative = 0;
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            double error = times[i] - (a + b * function.applyAsDouble(sizes[i]));
+            residual += error * error;
+            relative += error * error * weight(times[i]);
+            total += (times[i] - mean) * (times[i] - mean);
+        }
+        ModelFit fit = new ModelFit();
+        fit.model = model;
+        fit.coefficient = b;
+        fit.r2 = round(total == 0 ? 1 : 1 - residual / total);
+        fit.relativeError = round(Math.sqrt(relative / count));
+        return fit;
+    }
+
+    private static double weight(double time) {
+        return time > 0 ? 1 / (time * time) : 1;
+    }
+
+    private static double logLogSlope(double[] sizes, double[] times) {
+        int count = 0;
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumXY = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizes[i] <= 0 || times[i] <= 0) {
+                continue;
+            }
+            double x = Math.log(sizes[i]);
+            double y = Math.log(times[i]);
+            count++;
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+        }
+        double denominator = count * sumXX - sumX * sumX;
+        return count < 2 || denominator == 0 ? 0 : (count * sumXY - sumX * sumY) / denominator;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public double getExponent() {
+        return exponent;
+    }
+
+    public List<ModelFit> getFits() {
+        return fits;
+    }
+
+    public static class ModelFit {
+
+        private String model;
+
+        /**
+         * 拟合得到的 b，即每单位 f(n) 的耗时
+         */
+        private double coefficient;
+
+        private double r2;
+
+        /**
+         * 相对误差（误差/耗时）的均方根
+         */
+        private double relativeError;
+
+        public String getModel() {
+            return model;
+        }
+
+        public double getCoefficient() {
+            return coefficient;
+        }
+
+        public double getR2() {
+            return r2;
+        }
+
+        public double getRelativeError() {
+            return relativeError;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package io.github.lgp547.anydoor.bench;
+
+import io.github.lgp547.anydoor.support.LatencySummary;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 并发竞争分析结果，每个线程数一个 Level，时间单位毫秒
+ */
+public class ContentionReport {
+
+    /**
+     * 压测历史记录id，用于 /any_door/bench/regression，未开启记录时为空
+     */
+    private String runId;
+
+    private String method;
+
+    /**
+     * jvm 是否支持统计阻塞/等待时间，不支持时 blockedTime/waitedTime 为 -1
+     */
+    private boolean contentionMonitoring;
+
+    private final List<Level> levels = new ArrayList<>();
+
+    public String getRunId() {
+        return runId;
+    }
+
+    void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    void setMethod(String method) {
+        this.method = method;
+    }
+
+    public boolean isContentionMonitoring() {
+        return contentionMonitoring;
+    }
+
+    void setContentionMonitoring(boolean contentionMonitoring) {
+        this.contentionMonitoring = contentionMonitoring;
+    }
+
+    public List<Level> getLevels() {
+        return levels;
+    }
+
+    public static class Level {
+
+        private int threads;
+
+        private long calls;
+
+        private long errors;
+
+        /**
+         * 每秒调用次数
+         */
+        private double throughput;
+
+        /**
+         * 相对单线程吞吐量的倍数
+         */
+        private double scaling;
+
+        /**
+         * scaling / threads，1 为线性扩展
+         */
+        private double efficiency;
+
+        private LatencySummary latency;
+
+        private final List<ThreadStats> threadStats = new ArrayList<>();
+
+        /**
+         * 采样到的阻塞/等待的锁，按采样次数从多到少
+         */
+        private final List<LockStats> locks = new ArrayList<>();
+
+        public int getThreads() {
+            return threads;
+        }
+
+        void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        void setCalls(long calls) {
+            this.calls = calls;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        void setErrors(long errors) {
+            this.errors = errors;
+        }
+
+        public double getThroughput() {
+            return throughput;
+        }
+
+        void setThroughput(double throughput) {
+            this.throughput = throughput;
+        }
+
+        public double getScaling() {
+            return scaling;
+        }
+
+        void setScaling(double scaling) {
+            this.scaling = scaling;
+        }
+
+        public double getEfficiency() {
+            return efficiency;
+        }
+
+        void setEfficiency(double efficiency) {
+            this.efficiency = efficiency;
+        }
+
+        public LatencySummary getLatency() {
+            return latency;
+        }
+
+        void setLatency(LatencySummary latency) {
+            this.latency = latency;
+        }
+
+        public List<ThreadStats> getThreadStats() {
+            return threadStats;
+        }
+
+        public List<LockStats> getLocks() {
+            return locks;
+        }
+    }
+
+    public static class ThreadStats {
+
+        private String thread;
+
+        private long calls;
+
+        private long blockedCount;
+
+        private long blockedTime;
+
+        private long waitedCount;
+
+        private long waitedTime;
+
+        public String getThread() {
+            return thread;
+        }
+
+        void setThread(String thread) {
+            this.thread = thread;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        void setCalls(long calls) {
+            this.calls = calls;
+        }
+
+        public long getBlockedCount() {
+            return blockedCount;
+        }
+
+        void setBlockedCount(long blockedCount) {
+            this.blockedCount = blockedCount;
+        }
+
+        public long getBlockedTime() {
+            return blockedTime;
+        }
+
+        void setBlockedTime(long blockedTime) {
+            this.blockedTime = blockedTime;
+        }
+
+        public long getWaitedCount() {
+            return waitedCount;
+        }
+
+        void setWaitedCount(long waitedCount) {
+            this.waitedCount = waitedCount;
+        }
+
+        public long getWaitedTime() {
+            return waitedTime;
+        }
+
+        void setWaitedTime(long waitedTime) {
+            this.waitedTime = waitedTime;
+        }
+    }
+
+    public static class LockStats {
+
+        /**
+         * 锁对象，类名@hash，monitor 或 j.u.c 的锁（AQS）
+         */
+        private String lock;
+
+        /**
+         * BLOCKED 为等待 synchronized，WAITING/TIMED_WAITING 为 j.u.c 锁或 Object.wait
+         */
+        private String state;
+
+        private long samples;
+
+        /**
+         * 持有锁的线程 -> 采样次数
+         */
+        private final Map<String, Long> owners = new LinkedHashMap<>();
+
+        /**
+         * 等待发生的位置 -> 采样次数
+         */
+        private final Map<String, Long> frames = new LinkedHashMap<>();
+
+        LockStats(String lock, String state) {
+            this.lock = lock;
+            this.state = state;
+        }
+
+        void add(String owner, String frame) {
+            samples++;
+            if (owner != null) {
+                owners.merge(owner, 1L, Long::sum);
+            }
+            if (frame != null) {
+                frames.merge(frame, 1L, Long::sum);
+            }
+        }
+
+        public String getLock() {
+            return lock;
+        }
+
+        public String getState() {
+            return state;
+        }
+
+        public long getSamples() {
+            return samples;
+        }
+
+        public Map<String, Long> getOwners() {
+            return owners;
+        }
+
+        public Map<String, Long> getFrames() {
+            return frames;
+        }
+    }
+}
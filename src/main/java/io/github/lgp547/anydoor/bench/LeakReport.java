@@ -0,0 +1,203 @@
+package io.github.lgp547.anydoor.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 泄漏检测结果：按每轮GC后的堆使用对累计调用次数做线性拟合，斜率即每次调用留下的字节数
+ */
+public class LeakReport {
+
+    private String method;
+
+    private long invocations;
+
+    private int errors;
+
+    /**
+     * 拟合使用的指标：usedAfterGc（各堆内存池最近一次GC后的使用量）或 heapUsed
+     */
+    private String metric;
+
+    /**
+     * 每次调用增长的字节数（拟合斜率）
+     */
+    private double leakBytesPerCall;
+
+    /**
+     * 拟合的决定系数，越接近1增长越稳定，GC噪声大时偏低
+     */
+    private double r2;
+
+    /**
+     * 最后一轮与第一轮的差值
+     */
+    private long growthBytes;
+
+    private boolean leakSuspected;
+
+    private long elapsedMillis;
+
+    private final List<Sample> samples = new ArrayList<>();
+
+    /**
+     * 第一轮与最后一轮的类直方图对比，按增长字节数从大到小，未开启或不支持时为空
+     */
+    private List<ClassGrowth> histogramDiff;
+
+    public String getMethod() {
+        return method;
+    }
+
+    void setMethod(String method) {
+        this.method = method;
+    }
+
+    public long getInvocations() {
+        return invocations;
+    }
+
+    void setInvocations(long invocations) {
+        this.invocations = invocations;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    void setErrors(int errors) {
+        this.errors = errors;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    void setMetric(String metric) {
+        this.metric = metric;
+    }
+
+    public double getLeakBytesPerCall() {
+        return leakBytesPerCall;
+    }
+
+    void setLeakBytesPerCall(double leakBytesPerCall) {
+        this.leakBytesPerCall = leakBytesPerCall;
+    }
+
+    public double getR2() {
+        return r2;
+    }
+
+    void setR2(double r2) {
+        this.r2 = r2;
+    }
+
+    public long getGrowthBytes() {
+        return growthBytes;
+    }
+
+    void setGrowthBytes(long growthBytes) {
+        this.growthBytes = growthBytes;
+    }
+
+    public boolean isLeakSuspected() {
+        return leakSuspected;
+    }
+
+    void setLeakSuspected(boolean leakSuspected) {
+        this.leakSuspected = leakSuspected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<Sample> getSamples() {
+        return samples;
+    }
+
+    public List<ClassGrowth> getHistogramDiff() {
+        return histogramDiff;
+    }
+
+    void setHistogramDiff(List<ClassGrowth> histogramDiff) {
+        this.histogramDiff = histogramDiff;
+    }
+
+    /**
+     * 一轮结束并GC后的堆使用
+     */
+    public static class Sample {
+
+        private long invocations;
+
+        private long heapUsed;
+
+        /**
+         * 不支持时为 -1
+         */
+        private long usedAfterGc;
+
+        public long getInvocations() {
+            return invocations;
+        }
+
+        public void setInvocations(long invocations) {
+            this.invocations = invocations;
+        }
+
+        public long getHeapUsed() {
+            return heapUsed;
+        }
+
+        public void setHeapUsed(long heapUsed) {
+            this.heapUsed = heapUsed;
+        }
+
+        public long getUsedAfterGc() {
+            return usedAfterGc;
+        }
+
+        public void setUsedAfterGc(long usedAfterGc) {
+            this.usedAfterGc = usedAfterGc;
+        }
+    }
+
+    public static class ClassGrowth {
+
+        private String className;
+
+        private long instances;
+
+        private long bytes;
+
+        public String getClassName() {
+            return className;
+        }
+
+        public void setClassName(String className) {
+            this.className = className;
+        }
+
+        public long getInstances() {
+            return instances;
+        }
+
+        public void setInstances(long instances) {
+            this.instances = instances;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public void setBytes(long bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
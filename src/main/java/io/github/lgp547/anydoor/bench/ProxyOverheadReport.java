@@ -0,0 +1,159 @@
+package io.github.lgp547.anydoor.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 代理开销：经过代理调用与直接调用目标对象的对比，开销单位纳秒
+ */
+public class ProxyOverheadReport {
+
+    /**
+     * 压测历史记录id，用于 /any_door/bench/regression，未开启记录时为空
+     */
+    private String runId;
+
+    private String method;
+
+    /**
+     * jdk 或 cglib
+     */
+    private String proxyType;
+
+    /**
+     * 每次调用代理增加的平均耗时
+     */
+    private long overheadNanos;
+
+    /**
+     * 每次调用代理增加的耗时中位数
+     */
+    private long p50OverheadNanos;
+
+    /**
+     * overheadNanos 的 95% 置信区间
+     */
+    private long[] overheadInterval;
+
+    /**
+     * 每次调用代理增加的分配字节数，不支持时为 -1
+     */
+    private long overheadAllocatedBytes;
+
+    /**
+     * 对比的详细结果，a 为直接调用，b 为经过代理
+     */
+    private CompareReport compare;
+
+    /**
+     * 作用在该方法上的 advisor，按执行顺序
+     */
+    private final List<AdvisorCost> advisors = new ArrayList<>();
+
+    public String getRunId() {
+        return runId;
+    }
+
+    void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getProxyType() {
+        return proxyType;
+    }
+
+    void setProxyType(String proxyType) {
+        this.proxyType = proxyType;
+    }
+
+    public long getOverheadNanos() {
+        return overheadNanos;
+    }
+
+    void setOverheadNanos(long overheadNanos) {
+        this.overheadNanos = overheadNanos;
+    }
+
+    public long getP50OverheadNanos() {
+        return p50OverheadNanos;
+    }
+
+    void setP50OverheadNanos(long p50OverheadNanos) {
+        this.p50OverheadNanos = p50OverheadNanos;
+    }
+
+    public long[] getOverheadInterval() {
+        return overheadInterval;
+    }
+
+    void setOverheadInterval(long[] overheadInterval) {
+        this.overheadInterval = overheadInterval;
+    }
+
+    public long getOverheadAllocatedBytes() {
+        return overheadAllocatedBytes;
+    }
+
+    void setOverheadAllocatedBytes(long overheadAllocatedBytes) {
+        this.overheadAllocatedBytes = overheadAllocatedBytes;
+    }
+
+    public CompareReport getCompare() {
+        return compare;
+    }
+
+    void setCompare(CompareReport compare) {
+        this.compare = compare;
+    }
+
+    public List<AdvisorCost> getAdvisors() {
+        return advisors;
+    }
+
+    public static class AdvisorCost {
+
+        private String advisor;
+
+        /**
+         * 从第一个叠加到该 advisor 时的平均开销，未开启 breakdown 时为空
+         */
+        private Long cumulativeNanos;
+
+        /**
+         * 该 advisor 增加的平均开销（与上一个叠加结果之差），噪声较大，只用于找出最重的 advisor
+         */
+        private Long addedNanos;
+
+        public String getAdvisor() {
+            return advisor;
+        }
+
+        void setAdvisor(String advisor) {
+            this.advisor = advisor;
+        }
+
+        public Long getCumulativeNanos() {
+            return cumulativeNanos;
+        }
+
+        void setCumulativeNanos(Long cumulativeNanos) {
+            this.cumulativeNanos = cumulativeNanos;
+        }
+
+        public Long getAddedNanos() {
+            return addedNanos;
+        }
+
+        void setAddedNanos(Long addedNanos) {
+            this.addedNanos = addedNanos;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.lgp547.anydoor.bench;
+
+import io.github.lgp547.anydoor.support.LatencySummary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 输入规模扫描结果，time 按每个规模的耗时中位数（纳秒）拟合，allocation 按平均分配字节数拟合
+ */
+public class SweepReport {
+
+    /**
+     * 压测历史记录id，用于 /any_door/bench/regression，未开启记录时为空
+     */
+    private String runId;
+
+    private String method;
+
+    private ComplexityFit time;
+
+    private ComplexityFit allocation;
+
+    private final List<Point> points = new ArrayList<>();
+
+    public String getRunId() {
+        return runId;
+    }
+
+    void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    void setMethod(String method) {
+        this.method = method;
+    }
+
+    public ComplexityFit getTime() {
+        return time;
+    }
+
+    void setTime(ComplexityFit time) {
+        this.time = time;
+    }
+
+    public ComplexityFit getAllocation() {
+        return allocation;
+    }
+
+    void setAllocation(ComplexityFit allocation) {
+        this.allocation = allocation;
+    }
+
+    public List<Point> getPoints() {
+        return points;
+    }
+
+    public static class Point {
+
+        private int size;
+
+        private int iterations;
+
+        private int errors;
+
+        /**
+         * 耗时分布（毫秒）
+         */
+        private LatencySummary latency;
+
+        /**
+         * 平均每次调用分配的字节数，不支持时为 -1
+         */
+        private long allocatedBytes;
+
+        /**
+         * 耗时中位数（纳秒），用于拟合，执行很快的方法毫秒精度不够
+         */
+        private long medianNanos;
+
+        public int getSize() {
+            return size;
+        }
+
+        void setSize(int size) {
+            this.size = size;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        void setIterations(int iterations) {
+            this.iterations = iterations;
+        }
+
+        public int getErrors() {
+            return errors;
+        }
+
+        void setErrors(int errors) {
+            this.errors = errors;
+        }
+
+        public LatencySummary getLatency() {
+            return latency;
+        }
+
+        void setLatency(LatencySummary latency) {
+            this.latency = latency;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        void setAllocatedBytes(long allocatedBytes) {
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public long getMedianNanos() {
+            return medianNanos;
+        }
+
+        void setMedianNanos(long medianNanos) {
+            this.medianNanos = medianNanos;
+        }
+    }
+}
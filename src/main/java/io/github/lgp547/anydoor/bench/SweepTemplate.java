@@ -0,0 +1,77 @@
+package io.github.lgp547.anydoor.bench;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 参数模板按规模 n 展开：
+ * <pre>
+ * "${n}"                  规模本身（数字）
+ * "${i}"                  所在 $list 中的下标（数字），在字符串中间时按文本替换，如 "user-${i}"
+ * "${random}"             随机整数
+ * {"$list": 元素模板}      n 个元素的列表
+ * {"$string": "ab"}       重复到 n 个字符的字符串
+ * </pre>
+ */
+public class SweepTemplate {
+
+    private static final String LIST = "$list";
+
+    private static final String STRING = "$string";
+
+    public static Object expand(Object template, int n, Random random) {
+        return expand(template, n, 0, random);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object expand(Object template, int n, int index, Random random) {
+        if (template instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) template;
+            if (map.size() == 1 && map.containsKey(LIST)) {
+                List<Object> list = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    list.add(expand(map.get(LIST), n, i, random));
+                }
+                return list;
+            }
+            if (map.size() == 1 && map.containsKey(STRING)) {
+                String unit = String.valueOf(map.get(STRING));
+                if (unit.isEmpty()) {
+                    throw new IllegalArgumentException("$string must not be empty");
+                }
+                StringBuilder builder = new StringBuilder(n);
+                while (builder.length() < n) {
+                    builder.append(unit);
+                }
+                return builder.substring(0, n);
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            map.forEach((key, value) -> result.put(key, expand(value, n, index, random)));
+            return result;
+        }
+        if (template instanceof List) {
+            List<Object> result = new ArrayList<>();
+            for (Object value : (List<Object>) template) {
+                result.add(expand(value, n, index, random));
+            }
+            return result;
+        }
+        if (template instanceof String) {
+            String value = (String) template;
+            switch (value) {
+                case "${n}":
+                    return n;
+                case "${i}":
+                    return index;
+                case "${random}":
+                    return random.nextInt();
+                default:
+                    return value.contains("${") ? value.replace("${n}", String.valueOf(n)).replace("${i}", String.valueOf(index)) : value;
+            }
+        }
+        return template;
+    }
+}
@@ -1,31 +1,476 @@
 package io.github.lgp547.anydoor.controller;
 
+import io.github.lgp547.anydoor.admission.AnyDoorAdmission;
+import io.github.lgp547.anydoor.admission.AnyDoorRejectedException;
+import io.github.lgp547.anydoor.bench.AnyDoorCompare;
+import io.github.lgp547.anydoor.bench.AnyDoorContention;
+import io.github.lgp547.anydoor.bench.AnyDoorLeakDetector;
+import io.github.lgp547.anydoor.bench.CompareReport;
+import io.github.lgp547.anydoor.bench.AnyDoorSweep;
+import io.github.lgp547.anydoor.bench.AnyDoorProxyOverhead;
+import io.github.lgp547.anydoor.bench.ContentionReport;
+import io.github.lgp547.anydoor.bench.LeakReport;
+import io.github.lgp547.anydoor.bench.ProxyOverheadReport;
+import io.github.lgp547.anydoor.bench.SweepReport;
 import io.github.lgp547.anydoor.core.AnyDoorService;
+import io.github.lgp547.anydoor.core.AnyDoorSyncExecutor;
 import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.dto.CompareDto;
+import io.github.lgp547.anydoor.dto.ContentionDto;
+import io.github.lgp547.anydoor.dto.LeakDto;
+import io.github.lgp547.anydoor.dto.PresetDto;
+import io.github.lgp547.anydoor.dto.ProxyOverheadDto;
+import io.github.lgp547.anydoor.dto.RegressionDto;
+import io.github.lgp547.anydoor.dto.ReplayDto;
+import io.github.lgp547.anydoor.dto.ScheduleDto;
+import io.github.lgp547.anydoor.dto.SweepDto;
+import io.github.lgp547.anydoor.dto.WatchDto;
+import io.github.lgp547.anydoor.history.BenchHistory;
+import io.github.lgp547.anydoor.history.BenchRun;
+import io.github.lgp547.anydoor.history.RegressionReport;
+import io.github.lgp547.anydoor.instrument.AnyDoorWatcher;
+import io.github.lgp547.anydoor.instrument.WatchSession;
+import io.github.lgp547.anydoor.jfr.JfrSupport;
+import io.github.lgp547.anydoor.journal.AnyDoorReplayer;
+import io.github.lgp547.anydoor.journal.ReplayReport;
+import io.github.lgp547.anydoor.memo.AnyDoorMemo;
+import io.github.lgp547.anydoor.preset.AnyDoorPresets;
+import io.github.lgp547.anydoor.preset.ArgumentPreset;
+import io.github.lgp547.anydoor.profile.ResourceStats;
+import io.github.lgp547.anydoor.schedule.AnyDoorScheduler;
+import io.github.lgp547.anydoor.schedule.ScheduleJob;
+import io.github.lgp547.anydoor.support.StreamArgument;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import io.github.lgp547.anydoor.util.WireFormat;
+import io.github.lgp547.anydoor.util.WireUtil;
+import io.github.lgp547.anydoor.warmup.AnyDoorWarmup;
+import io.github.lgp547.anydoor.warmup.WarmupStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 @Controller
 public class AnyDoorController {
 
     private static final Logger log = LoggerFactory.getLogger(AnyDoorController.class);
 
+    @Autowired
+    private AnyDoorScheduler anyDoorScheduler;
+
+    @Autowired(required = false)
+    private AnyDoorWarmup anyDoorWarmup;
+
     /**
+     * 同步执行时方法在 any-door 线程池上执行，不占用容器的请求线程
+     *
      * @return 执行方法结果, 异步的话直接null
      */
     @RequestMapping("/any_door/run")
     @ResponseBody
-    public Object run(@RequestBody AnyDoorDto anyDoorDto) {
+    public DeferredResult<Object> run(@RequestBody AnyDoorDto anyDoorDto) {
         if (log.isDebugEnabled()) {
             log.debug("any_door run requestBody {}", anyDoorDto);
         }
 
-        AnyDoorService anyDoorService = new AnyDoorService();
-        return anyDoorService.run(anyDoorDto);
+        return dispatch(anyDoorDto, Function.identity());
+    }
+
+    /**
+     * multipart 请求，request part 为 AnyDoorDto，其它 part 可以在 content 中通过 {"@part": "名称"} 引用
+     */
+    @RequestMapping(value = "/any_door/run", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseBody
+    public DeferredResult<Object> runMultipart(@RequestPart("request") AnyDoorDto anyDoorDto, @RequestParam MultiValueMap<String, MultipartFile> files) {
+        if (log.isDebugEnabled()) {
+            log.debug("any_door run multipart requestBody {} parts {}", anyDoorDto, files.keySet());
+        }
+
+        Map<String, StreamArgument.Source> parts = new HashMap<>();
+        files.forEach((name, multipartFiles) -> {
+            if (!"request".equals(name) && !multipartFiles.isEmpty()) {
+                parts.put(name, new MultipartSource(multipartFiles.get(0)));
+            }
+        });
+        anyDoorDto.setParts(parts);
+        return dispatch(anyDoorDto, Function.identity());
+    }
+
+    /**
+     * smile/cbor 请求，或 gzip 压缩的请求体，响应格式按 Accept 协商，较大的响应按 Accept-Encoding gzip 压缩
+     */
+    @RequestMapping(value = "/any_door/run", consumes = {WireFormat.SMILE_VALUE, WireFormat.CBOR_VALUE})
+    public DeferredResult<ResponseEntity<byte[]>> runBinary(@RequestHeader HttpHeaders headers, InputStream body) throws IOException {
+        return runWire(headers, body);
+    }
+
+    @RequestMapping(value = "/any_door/run", produces = {WireFormat.SMILE_VALUE, WireFormat.CBOR_VALUE})
+    public DeferredResult<ResponseEntity<byte[]>> runBinaryResult(@RequestHeader HttpHeaders headers, InputStream body) throws IOException {
+        return runWire(headers, body);
+    }
+
+    @RequestMapping(value = "/any_door/run", headers = "Content-Encoding=gzip")
+    public DeferredResult<ResponseEntity<byte[]>> runGzip(@RequestHeader HttpHeaders headers, InputStream body) throws IOException {
+        return runWire(headers, body);
+    }
+
+    private DeferredResult<ResponseEntity<byte[]>> runWire(HttpHeaders headers, InputStream body) throws IOException {
+        AnyDoorDto anyDoorDto = WireUtil.readAnyDoorDto(headers, body);
+        if (log.isDebugEnabled()) {
+            log.debug("any_door run {} requestBody {}", headers.getContentType(), anyDoorDto);
+        }
+
+        return dispatch(anyDoorDto, result -> {
+            Object serializeEvent = JfrSupport.begin(JfrSupport.SERIALIZE, anyDoorDto);
+            try {
+                return WireUtil.write(headers, result);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                JfrSupport.commit(serializeEvent);
+            }
+        });
+    }
+
+    /**
+     * 同步执行提交到 {@link AnyDoorSyncExecutor}，请求线程直接返回，执行结束后再写出响应；异步执行本来就很快返回，直接在请求线程提交
+     * <p>
+     * any-door.async.timeout 同步执行等待结果的最长时间，超时返回503（方法仍会继续执行），默认 30m
+     */
+    private <T> DeferredResult<T> dispatch(AnyDoorDto anyDoorDto, Function<Object, T> response) {
+        long timeout = SpringUtil.getProperty("any-door.async.timeout", Duration.class, Duration.ofMinutes(30)).toMillis();
+        DeferredResult<T> deferredResult = new DeferredResult<>(timeout);
+        if (!Objects.equals(anyDoorDto.getSync(), true)) {
+            try {
+                deferredResult.setResult(response.apply(new AnyDoorService().run(anyDoorDto)));
+            } catch (AnyDoorRejectedException e) {
+                deferredResult.setErrorResult(tooManyRequests(e));
+            }
+            return deferredResult;
+        }
+
+        // 在请求线程申请许可，被拒绝的调用不会进入线程池
+        AnyDoorAdmission.Permit permit;
+        try {
+            permit = AnyDoorService.acquire(anyDoorDto);
+        } catch (AnyDoorRejectedException e) {
+            deferredResult.setErrorResult(tooManyRequests(e));
+            return deferredResult;
+        }
+        deferredResult.onTimeout(() -> deferredResult.setErrorResult(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "any-door run " + anyDoorDto.getMethodName() + " timed out after " + timeout + "ms, it is still running")));
+        try {
+            CompletableFuture.supplyAsync(() -> response.apply(new AnyDoorService().run(anyDoorDto, permit)), AnyDoorSyncExecutor.getInstance())
+                    .whenComplete((result, e) -> {
+                        permit.release();
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (cause != null) {
+                            deferredResult.setErrorResult(cause);
+                        } else {
+                            deferredResult.setResult(result);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            permit.release();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "any-door sync executor is busy", e);
+        }
+        return deferredResult;
+    }
+
+    /**
+     * 被准入控制拒绝，返回429及 Retry-After
+     */
+    private static ResponseEntity<String> tooManyRequests(AnyDoorRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(e.getMessage());
+    }
+
+    /**
+     * 准入控制的当前状态：执行中的调用数、生效的全局并发上限（自适应时会随负载变化）、累计拒绝次数
+     */
+    @RequestMapping("/any_door/admission")
+    @ResponseBody
+    public Map<String, Object> admission() {
+        return AnyDoorAdmission.getInstance().getStatus();
+    }
+
+    /**
+     * 相同调用合并及幂等方法结果缓存的统计：命中、未命中、合并次数及缓存占用
+     */
+    @RequestMapping("/any_door/memo")
+    @ResponseBody
+    public Map<String, Object> memo() {
+        return AnyDoorMemo.stats();
+    }
+
+    @RequestMapping("/any_door/memo/clear")
+    @ResponseBody
+    public Map<String, Object> memoClear() {
+        AnyDoorMemo.clear();
+        return AnyDoorMemo.stats();
+    }
+
+    /**
+     * 注册预置参数，参数只解析一次，之后通过 preset 引用，相同id会覆盖
+     */
+    @RequestMapping("/any_door/preset")
+    @ResponseBody
+    public ArgumentPreset preset(@RequestBody PresetDto presetDto) {
+        if (log.isDebugEnabled()) {
+            log.debug("any_door preset requestBody {}", presetDto);
+        }
+
+        return AnyDoorPresets.register(presetDto);
+    }
+
+    /**
+     * @return 预置参数及估算的内存占用、使用次数，按最近使用排序
+     */
+    @RequestMapping("/any_door/preset/list")
+    @ResponseBody
+    public List<ArgumentPreset> presetList() {
+        return AnyDoorPresets.list();
+    }
+
+    @RequestMapping("/any_door/preset/remove")
+    @ResponseBody
+    public ArgumentPreset presetRemove(@RequestParam("id") String id) {
+        return AnyDoorPresets.remove(id);
+    }
+
+    /**
+     * 回放录制的调用日志
+     */
+    @RequestMapping("/any_door/replay")
+    @ResponseBody
+    public ReplayReport replay(@RequestBody ReplayDto replayDto) {
+        if (log.isDebugEnabled()) {
+            log.debug("any_door replay requestBody {}", replayDto);
+        }
+
+        return new AnyDoorReplayer().replay(replayDto);
+    }
+
+    /**
+     * 多线程同时执行同一个方法，分析锁竞争及吞吐量随线程数的扩展情况
+     */
+    @RequestMapping("/any_door/contention")
+    @ResponseBody
+    public ContentionReport contention(@RequestBody ContentionDto contentionDto) {
+        if (log.isDebugEnabled()) {
+            log.debug("any_door contention requestBody {}", contentionDto);
+        }
+
+        return new AnyDoorContention().run(contentionDto);
+    }
+
+    /**
+     * 按输入规模扫描方法的耗时和分配内存，并拟合增长模型
+     */
+    @RequestMapping("/any_door/sweep")
+    @ResponseBody
+    public SweepReport sweep(@RequestBody SweepDto sweepDto) {
+        if (log.isDebugEnabled()) {
+            log.debug("any_door sweep requestBody {}", sweepDto);
+        }
+
+        return new AnyDoorSweep().sweep(sweepDto);
+    }
+
+    /**
+     * 分轮重复执行方法，按每轮GC后的堆使用拟合每次调用留下的字节数，可选对比类直方图
+     */
+    @RequestMapping("/any_door/leak")
+    @ResponseBody
+    public LeakReport leak(@RequestBody LeakDto leakDto) {
+        if (log.isDebugEnabled()) {
+            log.debug("any_door leak requestBody {}", leakDto);
+        }
+
+        return new AnyDoorLeakDetector().detect(leakDto);
+    }
+
+    /**
+     * 使用同一组参数交替执行两个方法，对比耗时、分配内存和返回值
+     */
+    @RequestMapping("/any_door/compare")
+    @ResponseBody
+    public CompareReport compare(@RequestBody CompareDto compareDto) {
+        if (log.isDebugEnabled()) {
+            log.debug("any_door compare requestBody {}", compareDto);
+        }
+
+        return new AnyDoorCompare().compare(compareDto);
+    }
+
+    /**
+     * 注册定时执行的方法，相同id会覆盖
+     */
+    @RequestMapping("/any_door/schedule")
+    @ResponseBody
+    public ScheduleJob schedule(@RequestBody ScheduleDto scheduleDto) {
+        if (log.isDebugEnabled()) {
+            log.debug("any_door schedule requestBody {}", scheduleDto);
+        }
+
+        return anyDoorScheduler.register(scheduleDto);
+    }
+
+    /**
+     * @return 定时任务及最近一次执行的状态、耗时
+     */
+    @RequestMapping("/any_door/schedule/list")
+    @ResponseBody
+    public List<ScheduleJob> scheduleList() {
+        return anyDoorScheduler.list();
+    }
+
+    @RequestMapping("/any_door/schedule/cancel")
+    @ResponseBody
+    public ScheduleJob scheduleCancel(@RequestParam("id") String id) {
+        return anyDoorScheduler.cancel(id);
+    }
+
+    /**
+     * 对比经过代理和直接调用目标对象的耗时，得到 advice 链的开销
+     */
+    @RequestMapping("/any_door/proxy_overhead")
+    @ResponseBody
+    public ProxyOverheadReport proxyOverhead(@RequestBody ProxyOverheadDto proxyOverheadDto) {
+        if (log.isDebugEnabled()) {
+            log.debug("any_door proxy_overhead requestBody {}", proxyOverheadDto);
+        }
+
+        return new AnyDoorProxyOverhead().run(proxyOverheadDto);
+    }
+
+    /**
+     * 压测历史记录，参数为空时不过滤
+     */
+    @RequestMapping("/any_door/bench/history")
+    @ResponseBody
+    public List<BenchRun> benchHistory(@RequestParam(value = "method", required = false) String method,
+                                       @RequestParam(value = "kind", required = false) String kind,
+                                       @RequestParam(value = "tag", required = false) String tag) {
+        return BenchHistory.list(method, kind, tag);
+    }
+
+    /**
+     * 对比压测记录与基线，判断是否显著变慢
+     */
+    @RequestMapping("/any_door/bench/regression")
+    @ResponseBody
+    public RegressionReport benchRegression(@RequestBody RegressionDto regressionDto) {
+        if (log.isDebugEnabled()) {
+            log.debug("any_door bench regression requestBody {}", regressionDto);
+        }
+
+        return BenchHistory.regression(regressionDto);
+    }
+
+    /**
+     * 观察方法在真实流量下的耗时分布，到达时长或次数后自动结束
+     */
+    @RequestMapping("/any_door/watch")
+    @ResponseBody
+    public WatchSession watch(@RequestBody WatchDto watchDto) {
+        if (log.isDebugEnabled()) {
+            log.debug("any_door watch requestBody {}", watchDto);
+        }
+
+        return AnyDoorWatcher.start(watchDto);
+    }
+
+    /**
+     * @return 观察中及最近结束的观察，包含到目前为止的耗时分布
+     */
+    @RequestMapping("/any_door/watch/list")
+    @ResponseBody
+    public List<WatchSession> watchList() {
+        return AnyDoorWatcher.list();
+    }
+
+    @RequestMapping("/any_door/watch/stop")
+    @ResponseBody
+    public WatchSession watchStop(@RequestParam("id") long id) {
+        return AnyDoorWatcher.stop(id);
+    }
+
+    /**
+     * @return 启动预热进度，未开启预热时为null
+     */
+    @RequestMapping("/any_door/warmup")
+    @ResponseBody
+    public WarmupStatus warmup() {
+        return anyDoorWarmup == null ? null : anyDoorWarmup.getStatus();
+    }
+
+    /**
+     * @return 开启 resource 的调用按 类#方法 累计的资源消耗
+     */
+    @RequestMapping("/any_door/resource")
+    @ResponseBody
+    public Map<String, ResourceStats.MethodStats> resource(@RequestParam(value = "reset", defaultValue = "false") boolean reset) {
+        Map<String, ResourceStats.MethodStats> stats = ResourceStats.getStats();
+        if (reset) {
+            ResourceStats.reset();
+        }
+        return stats;
+    }
+
+    private static class MultipartSource implements StreamArgument.Source {
+
+        private final MultipartFile multipartFile;
+
+        MultipartSource(MultipartFile multipartFile) {
+            this.multipartFile = multipartFile;
+        }
+
+        @Override
+        public String getName() {
+            return StringUtils.hasText(multipartFile.getOriginalFilename()) ? multipartFile.getOriginalFilename() : multipartFile.getName();
+        }
+
+        @Override
+        public InputStream open() throws IOException {
+            return multipartFile.getInputStream();
+        }
+
+        @Override
+        public Path getPath() {
+            return null;
+        }
     }
 
 }
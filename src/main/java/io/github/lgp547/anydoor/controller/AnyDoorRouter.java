@@ -0,0 +1,71 @@
+package io.github.lgp547.anydoor.controller;
+
+import io.github.lgp547.anydoor.admission.AnyDoorAdmission;
+import io.github.lgp547.anydoor.admission.AnyDoorRejectedException;
+import io.github.lgp547.anydoor.core.AnyDoorService;
+import io.github.lgp547.anydoor.core.AnyDoorSyncExecutor;
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * WebFlux 项目的 /any_door/run，请求体通过项目的 codec 解码，解析参数及同步执行在 {@link AnyDoorSyncExecutor} 上，不阻塞 event loop，
+ * 也不占用异步执行及定时任务的线程池
+ */
+public class AnyDoorRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorRouter.class);
+
+    private final Scheduler scheduler = Schedulers.fromExecutor(AnyDoorSyncExecutor.getInstance());
+
+    public RouterFunction<ServerResponse> routerFunction() {
+        return RouterFunctions.route(RequestPredicates.path("/any_door/run"), this::run);
+    }
+
+    /**
+     * @return 执行方法结果, 异步的话为空
+     */
+    Mono<ServerResponse> run(ServerRequest request) {
+        return request.bodyToMono(AnyDoorDto.class)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("any-door request body is required")))
+                .flatMap(anyDoorDto -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("any_door run requestBody {}", anyDoorDto);
+                    }
+                    // 在提交到线程池之前申请许可，被拒绝的调用不会排队
+                    AnyDoorAdmission.Permit permit = AnyDoorService.acquire(anyDoorDto);
+                    boolean sync = Objects.equals(anyDoorDto.getSync(), true);
+                    return Mono.fromCallable(() -> new AnyDoorService().run(anyDoorDto, permit)).subscribeOn(scheduler)
+                            // 异步执行正常提交后，许可在方法执行结束时释放
+                            .doFinally(signal -> {
+                                if (sync || signal != SignalType.ON_COMPLETE) {
+                                    permit.release();
+                                }
+                            });
+                })
+                .flatMap(result -> ServerResponse.ok().bodyValue(result))
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.ok().build()))
+                .onErrorResume(IllegalArgumentException.class, e -> ServerResponse.badRequest()
+                        .contentType(MediaType.TEXT_PLAIN).bodyValue(String.valueOf(e.getMessage())))
+                .onErrorResume(AnyDoorRejectedException.class, e -> ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                        .contentType(MediaType.TEXT_PLAIN).bodyValue(String.valueOf(e.getMessage())))
+                .onErrorResume(RejectedExecutionException.class, e -> ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .contentType(MediaType.TEXT_PLAIN).bodyValue("any-door sync executor is busy"));
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.lgp547.anydoor.core;
+
+import io.github.lgp547.anydoor.profile.ProfileSession;
+import io.github.lgp547.anydoor.util.SpringUtil;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * any-door 异步执行及定时任务使用的线程池，不占用公共 ForkJoinPool
+ * <p>
+ * any-door.executor.core-size      核心线程数，默认 cpu 核数
+ * any-door.executor.max-size       最大线程数，默认 cpu 核数 * 2
+ * any-door.executor.queue-capacity 队列大小，默认 1000
+ */
+public class AnyDoorExecutor implements Executor {
+
+    private static volatile AnyDoorExecutor instance;
+
+    private final ThreadPoolExecutor threadPoolExecutor;
+
+    private AnyDoorExecutor() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int coreSize = SpringUtil.getProperty("any-door.executor.core-size", Integer.class, processors);
+        int maxSize = SpringUtil.getProperty("any-door.executor.max-size", Integer.class, processors * 2);
+        int queueCapacity = SpringUtil.getProperty("any-door.executor.queue-capacity", Integer.class, 1000);
+        AtomicInteger threadNum = new AtomicInteger();
+        this.threadPoolExecutor = new ThreadPoolExecutor(coreSize, Math.max(coreSize, maxSize), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "any-door-executor-" + threadNum.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.threadPoolExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    public static AnyDoorExecutor getInstance() {
+        AnyDoorExecutor executor = instance;
+        if (executor == null) {
+            synchronized (AnyDoorExecutor.class) {
+                executor = instance;
+                if (executor == null) {
+                    executor = new AnyDoorExecutor();
+                    instance = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        threadPoolExecutor.execute(ProfileSession.wrap(command));
+    }
+}
@@ -2,15 +2,24 @@ package io.github.lgp547.anydoor.core;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.dto.GenerateDto;
+import io.github.lgp547.anydoor.preset.AnyDoorPresets;
+import io.github.lgp547.anydoor.support.ArgumentGenerator;
 import io.github.lgp547.anydoor.support.HandlerMethod;
+import io.github.lgp547.anydoor.support.StreamArgument;
 import io.github.lgp547.anydoor.util.BeanUtil;
 import io.github.lgp547.anydoor.util.JsonUtil;
 import io.github.lgp547.anydoor.util.LambdaUtil;
+import io.github.lgp547.anydoor.util.SpringUtil;
 import io.github.lgp547.anydoor.util.SpringWebmvcUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,14 +27,26 @@ import org.slf4j.LoggerFactory;
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ResolvableType;
+import org.springframework.lang.Nullable;
 import org.springframework.util.ObjectUtils;
 
 public class AnyDoorHandlerMethod extends HandlerMethod {
 
     private static final Logger log = LoggerFactory.getLogger(AnyDoorHandlerMethod.class);
 
+    /**
+     * 非Spring Bean缓存实例的租约，执行期间实例不会被空闲回收
+     */
+    @Nullable
+    private final AnyDoorInstanceFactory.Lease lease;
+
     public AnyDoorHandlerMethod(Object bean, Method method) {
+        this(bean, method, null);
+    }
+
+    public AnyDoorHandlerMethod(Object bean, Method method, @Nullable AnyDoorInstanceFactory.Lease lease) {
         super(bean, method);
+        this.lease = lease;
     }
 
     public CompletableFuture<Object> invokeAsync(Map<String, Object> contentMap) {
@@ -35,41 +56,114 @@ public class AnyDoorHandlerMethod extends HandlerMethod {
         return doInvoke(getArgs(contentMap));
     }
 
+    public Object invoke(Object... args) {
+        return doInvoke(args);
+    }
+
     protected CompletableFuture<Object> doInvokeAsync(Object... args) {
-        return CompletableFuture.supplyAsync(() -> doInvoke(args));
+        return CompletableFuture.supplyAsync(() -> doInvoke(args), AnyDoorExecutor.getInstance());
     }
 
     private Object doInvoke(Object[] args) {
+        if (lease != null) {
+            lease.enter();
+        }
         try {
             return getBridgedMethod().invoke(getBean(), args);
         } catch (IllegalAccessException | InvocationTargetException e) {
             throw new RuntimeException(e);
+        } finally {
+            if (lease != null) {
+                lease.exit();
+            }
+        }
+    }
+
+    public Object[] getArgs(AnyDoorDto anyDoorDto) {
+        if (anyDoorDto.getPreset() == null) {
+            return getArgs(anyDoorDto.getContentMap(), anyDoorDto.getGenerate(), anyDoorDto.getParts());
+        }
+        Object[] args = AnyDoorPresets.getArgs(anyDoorDto.getPreset(), getMethod());
+        Map<String, Object> contentMap = anyDoorDto.getContentMap();
+        if (contentMap.isEmpty()) {
+            return args;
+        }
+        Object[] contentArgs = getArgs(contentMap, anyDoorDto.getParts());
+        MethodParameter[] parameters = getMethodParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (contentMap.containsKey(parameters[i].getParameterName()) || contentMap.containsKey("args" + i)) {
+                args[i] = contentArgs[i];
+            }
+        }
+        return args;
+    }
+
+    public Object[] getArgs(Map<String, Object> contentMap, @Nullable GenerateDto generateDto) {
+        return getArgs(contentMap, generateDto, Collections.emptyMap());
+    }
+
+    /**
+     * @param generateDto 不为空时，contentMap 中没有给出的参数自动生成
+     * @param parts       multipart 请求中可以通过 @part 引用的 part
+     */
+    public Object[] getArgs(Map<String, Object> contentMap, @Nullable GenerateDto generateDto, Map<String, StreamArgument.Source> parts) {
+        Object[] args = getArgs(contentMap, parts);
+        if (generateDto == null || args.length == 0) {
+            return args;
+        }
+        MethodParameter[] parameters = getMethodParameters();
+        Object[] generated = ArgumentGenerator.next(getMethod(), parameters, generateDto);
+        for (int i = 0; i < parameters.length; i++) {
+            if (!contentMap.containsKey(parameters[i].getParameterName()) && !contentMap.containsKey("args" + i)) {
+                args[i] = generated[i];
+            }
         }
+        return args;
     }
 
-    protected Object[] getArgs(Map<String, Object> contentMap) {
+    public Object[] getArgs(Map<String, Object> contentMap) {
+        return getArgs(contentMap, Collections.emptyMap());
+    }
+
+    private Object[] getArgs(Map<String, Object> contentMap, Map<String, StreamArgument.Source> parts) {
         MethodParameter[] parameters = getMethodParameters();
         if (ObjectUtils.isEmpty(parameters)) {
             return new Object[0];
         }
 
         Object[] args = new Object[parameters.length];
-        for (int i = 0; i < parameters.length; i++) {
-            MethodParameter parameter = parameters[i];
-            parameter.initParameterNameDiscovery(new DefaultParameterNameDiscoverer());
-            String value;
-            if (contentMap.containsKey(parameter.getParameterName())) {
-                value = Optional.ofNullable(contentMap.get(parameter.getParameterName())).map(JsonUtil::toStrNotExc).orElse(null);
-            } else {
-                // 对于是接口的话，通过顺序来填充参数，不再通过name来映射
-                value = Optional.ofNullable(contentMap.get("args" + i)).map(JsonUtil::toStrNotExc).orElse(null);
-            }
-            if (null == value) {
-                args[i] = null;
-                continue;
-            }
+        try {
+            for (int i = 0; i < parameters.length; i++) {
+                MethodParameter parameter = parameters[i];
+                parameter.initParameterNameDiscovery(new DefaultParameterNameDiscoverer());
+                Object raw;
+                if (contentMap.containsKey(parameter.getParameterName())) {
+                    raw = contentMap.get(parameter.getParameterName());
+                } else {
+                    // 对于是接口的话，通过顺序来填充参数，不再通过name来映射
+                    raw = contentMap.get("args" + i);
+                }
+                StreamArgument.Source source = StreamArgument.resolve(raw, parts);
+                if (source != null) {
+                    args[i] = StreamArgument.read(parameter, source);
+                    continue;
+                }
+                if (raw instanceof JsonNode && (((JsonNode) raw).isContainerNode() || ((JsonNode) raw).isBinary())) {
+                    args[i] = getArgs(parameter, (JsonNode) raw);
+                    continue;
+                }
+                String value = raw instanceof JsonNode ? nodeText((JsonNode) raw) : Optional.ofNullable(raw).map(JsonUtil::toStrNotExc).orElse(null);
+                if (null == value) {
+                    args[i] = null;
+                    continue;
+                }
 
-            args[i] = getArgs(parameter, value);
+                args[i] = getArgs(parameter, value);
+            }
+        } catch (RuntimeException e) {
+            // 已经打开的参数流不会再交给方法
+            StreamArgument.close(args);
+            throw e;
         }
         return args;
     }
@@ -91,7 +185,7 @@ public class AnyDoorHandlerMethod extends HandlerMethod {
         if (obj == null && parameter.getParameterType().isInterface() && (value.contains("->") || value.contains("::"))) {
             obj = runNotExc(() -> LambdaUtil.compileExpression(value, parameter.getNestedGenericParameterType()));
         }
-        if (obj == null) {
+        if (obj == null && SpringUtil.webPresent) {
             obj = runNotExc(() -> SpringWebmvcUtil.readObject(parameter.getNestedGenericParameterType(), contextClass, value));
         }
         if (obj == null) {
@@ -103,6 +197,29 @@ public class AnyDoorHandlerMethod extends HandlerMethod {
         return obj;
     }
 
+    /**
+     * smile/cbor 请求中的对象、数组及二进制参数，直接从节点的 token 流绑定
+     */
+    private Object getArgs(MethodParameter parameter, JsonNode node) {
+        Type type = ResolvableType.forMethodParameter(parameter).getType();
+        Object obj = null;
+        if (SpringUtil.webPresent) {
+            obj = runNotExc(() -> SpringWebmvcUtil.readObject(parameter.getNestedGenericParameterType(), parameter.getContainingClass(), node));
+        }
+        if (obj == null) {
+            obj = runNotExc(() -> JsonUtil.toJavaBean(node, type));
+        }
+        if (obj == null) {
+            obj = runNotExc(() -> BeanUtil.instantiate(parameter.getParameterType()));
+        }
+        return obj;
+    }
+
+    @Nullable
+    private static String nodeText(JsonNode node) {
+        return node.isNull() || node.isMissingNode() ? null : node.asText();
+    }
+
     private static <T> T runNotExc(Supplier<T> supplier) {
         try {
             return supplier.get();
@@ -0,0 +1,271 @@
+package io.github.lgp547.anydoor.core;
+
+import io.github.lgp547.anydoor.util.BeanUtil;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 非Spring Bean的实例获取，按类选择 {@link InstanceStrategy}
+ * <p>
+ * 缓存的实例记录正在执行的调用数，空闲时间从最后一次调用结束开始算，执行中的实例不会被回收；
+ * 空闲回收由后台线程定时检查，创建和销毁实例都不在 map 的锁内执行。调用前后只做原子计数，不加锁，不影响并发压测的结果
+ * <p>
+ * any-door.instance.strategy                    默认策略，默认 perCall
+ * any-door.instance.class-strategy.[类全链路名]   指定类的策略
+ * any-door.instance.idle-timeout                缓存实例的空闲回收时间，默认 30m
+ */
+public class AnyDoorInstanceFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorInstanceFactory.class);
+
+    private static final Map<Class<?>, CachedInstance> cache = new ConcurrentHashMap<>();
+
+    private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private static volatile ScheduledExecutorService evictor;
+
+    /**
+     * 一次调用使用的实例，执行方法前后调用 enter/exit
+     */
+    public interface Lease {
+
+        Object getInstance();
+
+        void enter();
+
+        void exit();
+    }
+
+    /**
+     * @param strategy 请求指定的策略，为null时使用配置
+     */
+    public static Lease getInstance(Class<?> clazz, @Nullable InstanceStrategy strategy) {
+        if (strategy == null) {
+            strategy = getConfigStrategy(clazz);
+        }
+        if (!strategy.isCached()) {
+            return new PerCallInstance(BeanUtil.instantiate(clazz));
+        }
+
+        InstanceStrategy finalStrategy = strategy;
+        CachedInstance current = cache.computeIfPresent(clazz, (key, old) -> {
+            // 在 map 的锁内刷新访问时间，与回收的检查互斥，拿到的实例不会马上被回收
+            if (old.strategy == finalStrategy) {
+                old.lastAccessTime = System.currentTimeMillis();
+            }
+            return old;
+        });
+        if (current != null && current.strategy == strategy) {
+            return current;
+        }
+
+        CachedInstance created = new CachedInstance(create(clazz, strategy), strategy);
+        CachedInstance[] replaced = new CachedInstance[1];
+        CachedInstance winner = cache.compute(clazz, (key, old) -> {
+            if (old != null && old.strategy == finalStrategy) {
+                old.lastAccessTime = System.currentTimeMillis();
+                return old;
+            }
+            replaced[0] = old;
+            return created;
+        });
+        if (replaced[0] != null) {
+            replaced[0].retire();
+        }
+        if (winner != created) {
+            // 并发创建时只保留先放进去的
+            destroy(created);
+        }
+        startEvictor();
+        return winner;
+    }
+
+    public static void evict(Class<?> clazz) {
+        CachedInstance cachedInstance = cache.remove(clazz);
+        if (cachedInstance != null) {
+            cachedInstance.retire();
+        }
+    }
+
+    private static Object create(Class<?> clazz, InstanceStrategy strategy) {
+        if (strategy == InstanceStrategy.AUTOWIRED) {
+            try {
+                return SpringUtil.getAutowireCapableBeanFactory().createBean(clazz);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("autowired createBean exception " + clazz, e);
+            }
+        }
+        return BeanUtil.instantiate(clazz);
+    }
+
+    private static void startEvictor() {
+        if (evictor != null) {
+            return;
+        }
+        synchronized (AnyDoorInstanceFactory.class) {
+            if (evictor != null) {
+                return;
+            }
+            long idleTimeout = getIdleTimeout();
+            long period = Math.max(1000, Math.min(idleTimeout / 2, TimeUnit.MINUTES.toMillis(1)));
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "any-door-instance-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(AnyDoorInstanceFactory::evictIdle, period, period, TimeUnit.MILLISECONDS);
+            evictor = executor;
+        }
+    }
+
+    static void evictIdle() {
+        evictIdle(System.currentTimeMillis(), getIdleTimeout());
+    }
+
+    static void evictIdle(long now, long idleTimeout) {
+        try {
+            List<CachedInstance> evicted = new ArrayList<>();
+            for (Class<?> clazz : cache.keySet()) {
+                cache.computeIfPresent(clazz, (key, cachedInstance) -> {
+                    if (cachedInstance.isIdle(now, idleTimeout)) {
+                        evicted.add(cachedInstance);
+                        return null;
+                    }
+                    return cachedInstance;
+                });
+            }
+            // 已经从 map 移除，销毁放在锁外
+            evicted.forEach(CachedInstance::retire);
+        } catch (RuntimeException e) {
+            log.warn("any-door evict idle instance exception", e);
+        }
+    }
+
+    private static long getIdleTimeout() {
+        return SpringUtil.getProperty("any-door.instance.idle-timeout", Duration.class, DEFAULT_IDLE_TIMEOUT).toMillis();
+    }
+
+    private static void destroy(CachedInstance cachedInstance) {
+        Object instance = cachedInstance.instance;
+        try {
+            if (cachedInstance.strategy == InstanceStrategy.AUTOWIRED) {
+                AutowireCapableBeanFactory beanFactory = SpringUtil.getAutowireCapableBeanFactory();
+                beanFactory.destroyBean(instance);
+            } else if (instance instanceof AutoCloseable) {
+                ((AutoCloseable) instance).close();
+            }
+        } catch (Exception e) {
+            log.warn("any-door destroy cached instance {} exception", instance.getClass().getName(), e);
+        }
+    }
+
+    private static InstanceStrategy getConfigStrategy(Class<?> clazz) {
+        Map<String, String> classStrategy = SpringUtil.getProperty("any-door.instance.class-strategy",
+                Bindable.mapOf(String.class, String.class), Collections.emptyMap());
+        InstanceStrategy strategy = InstanceStrategy.of(classStrategy.get(clazz.getName()));
+        if (strategy == null) {
+            strategy = InstanceStrategy.of(SpringUtil.getProperty("any-door.instance.strategy", String.class, null));
+        }
+        return strategy == null ? InstanceStrategy.PER_CALL : strategy;
+    }
+
+    private static class PerCallInstance implements Lease {
+
+        private final Object instance;
+
+        PerCallInstance(Object instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public Object getInstance() {
+            return instance;
+        }
+
+        @Override
+        public void enter() {
+        }
+
+        @Override
+        public void exit() {
+        }
+    }
+
+    private static class CachedInstance implements Lease {
+
+        private final Object instance;
+
+        private final InstanceStrategy strategy;
+
+        private volatile long lastAccessTime = System.currentTimeMillis();
+
+        private final AtomicInteger inUse = new AtomicInteger();
+
+        private volatile boolean retired;
+
+        private final AtomicBoolean destroyed = new AtomicBoolean();
+
+        CachedInstance(Object instance, InstanceStrategy strategy) {
+            this.instance = instance;
+            this.strategy = strategy;
+        }
+
+        @Override
+        public Object getInstance() {
+            return instance;
+        }
+
+        @Override
+        public void enter() {
+            inUse.incrementAndGet();
+            lastAccessTime = System.currentTimeMillis();
+        }
+
+        /**
+         * 先减计数再读 retired，retire 先写 retired 再读计数，两边至少有一方看到对方，最后一个结束的调用或 retire 负责销毁
+         */
+        @Override
+        public void exit() {
+            lastAccessTime = System.currentTimeMillis();
+            if (inUse.decrementAndGet() == 0 && retired) {
+                destroyOnce();
+            }
+        }
+
+        boolean isIdle(long now, long idleTimeout) {
+            return inUse.get() == 0 && now - lastAccessTime > idleTimeout;
+        }
+
+        /**
+         * 已经不在缓存中：没有执行中的调用时马上销毁，否则等最后一个调用结束
+         */
+        void retire() {
+            retired = true;
+            if (inUse.get() == 0) {
+                destroyOnce();
+            }
+        }
+
+        private void destroyOnce() {
+            if (destroyed.compareAndSet(false, true)) {
+                destroy(this);
+            }
+        }
+    }
+}
@@ -1,8 +1,19 @@
 package io.github.lgp547.anydoor.core;
 
+import io.github.lgp547.anydoor.admission.AnyDoorAdmission;
+import io.github.lgp547.anydoor.admission.AnyDoorRejectedException;
 import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.dto.AnyDoorResult;
+import io.github.lgp547.anydoor.instrument.AnyDoorTracer;
+import io.github.lgp547.anydoor.jfr.JfrSupport;
+import io.github.lgp547.anydoor.journal.AnyDoorRecorder;
+import io.github.lgp547.anydoor.memo.AnyDoorMemo;
+import io.github.lgp547.anydoor.profile.ProfileSession;
+import io.github.lgp547.anydoor.profile.ResourceStats;
+import io.github.lgp547.anydoor.profile.ResourceUsage;
+import io.github.lgp547.anydoor.support.ObjectSizes;
+import io.github.lgp547.anydoor.support.StreamArgument;
 import io.github.lgp547.anydoor.util.AopUtil;
-import io.github.lgp547.anydoor.util.BeanUtil;
 import io.github.lgp547.anydoor.util.ClassUtil;
 import io.github.lgp547.anydoor.util.JsonUtil;
 import io.github.lgp547.anydoor.util.SpringUtil;
@@ -11,8 +22,8 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -22,11 +33,19 @@ public class AnyDoorService {
     private static final Logger log = LoggerFactory.getLogger(AnyDoorService.class);
 
     /**
-     * 只允许 illegalArgumentException 抛出
+     * 只允许 illegalArgumentException 及准入控制拒绝的 AnyDoorRejectedException 抛出
      */
     public Object run(AnyDoorDto anyDoorDto) {
+        return run(anyDoorDto, acquire(anyDoorDto));
+    }
+
+    /**
+     * 使用调用方已经申请的许可执行，调用方在排队（提交到线程池）之前申请，被拒绝的调用不会占用队列；
+     * 许可在这里释放（同步执行返回前，异步执行结束后），重复释放没有影响
+     */
+    public Object run(AnyDoorDto anyDoorDto, AnyDoorAdmission.Permit permit) {
         try {
-            return doRun(anyDoorDto);
+            return doRun(anyDoorDto, permit);
         } catch (IllegalArgumentException illegalArgumentException) {
             log.error("run illegalArgumentException ", illegalArgumentException);
             throw illegalArgumentException;
@@ -36,20 +55,143 @@ public class AnyDoorService {
         }
     }
 
+    /**
+     * 申请准入许可
+     *
+     * @throws AnyDoorRejectedException 超过准入控制的任一限制
+     */
+    public static AnyDoorAdmission.Permit acquire(AnyDoorDto anyDoorDto) {
+        try {
+            return AnyDoorAdmission.getInstance().acquire(anyDoorDto);
+        } catch (AnyDoorRejectedException rejectedException) {
+            log.warn("run rejected: {}", rejectedException.getMessage());
+            throw rejectedException;
+        }
+    }
+
     public Object doRun(AnyDoorDto anyDoorDto) throws InterruptedException, ExecutionException {
-        anyDoorDto.verify();
+        return doRun(anyDoorDto, AnyDoorAdmission.Permit.NONE);
+    }
+
+    /**
+     * @param permit 准入许可，同步执行在返回前释放，异步执行在方法执行结束后释放
+     */
+    private Object doRun(AnyDoorDto anyDoorDto, AnyDoorAdmission.Permit permit) throws InterruptedException, ExecutionException {
+        Object recording;
+        try {
+            anyDoorDto.verify();
+            recording = Boolean.TRUE.equals(anyDoorDto.getJfr()) ? JfrSupport.startRecording(anyDoorDto) : null;
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+        AnyDoorResult anyDoorResult = new AnyDoorResult();
+        boolean async = false;
+        try {
+            long startNanos = System.nanoTime();
+            Object resolveEvent = JfrSupport.begin(JfrSupport.RESOLVE, anyDoorDto);
+            AnyDoorHandlerMethod handlerMethod = resolve(anyDoorDto);
+            JfrSupport.commit(resolveEvent);
+            Object decodeEvent = JfrSupport.begin(JfrSupport.DECODE, anyDoorDto);
+            Object[] args = handlerMethod.getArgs(anyDoorDto);
+            JfrSupport.commit(decodeEvent);
+            long decodeNanos = System.nanoTime() - startNanos;
+
+            Method method = handlerMethod.getMethod();
+            if (Objects.equals(anyDoorDto.getSync(), true)) {
+                long invokeStartNanos = System.nanoTime();
+                Object result = null;
+                Throwable throwable = null;
+                try {
+                    result = AnyDoorMemo.execute(anyDoorDto, method, () -> invoke(anyDoorDto, handlerMethod, args, anyDoorResult));
+                } catch (RuntimeException | Error e) {
+                    throwable = e;
+                    throw e;
+                } finally {
+                    AnyDoorRecorder.record(anyDoorDto, args, result, throwable, decodeNanos, System.nanoTime() - invokeStartNanos);
+                    StreamArgument.close(args);
+                }
+                // 在计时及记录之后测量，遍历对象图不计入耗时和分配
+                measure(anyDoorDto, result, anyDoorResult);
+                if (anyDoorDto.isWrapResult()) {
+                    anyDoorResult.setResult(result);
+                    return anyDoorResult;
+                }
+                return result;
+            } else {
+                long invokeStartNanos = System.nanoTime();
+                CompletableFuture<Object> future = CompletableFuture.supplyAsync(() -> invoke(anyDoorDto, handlerMethod, args, anyDoorResult),
+                        AnyDoorExecutor.getInstance());
+                async = true;
+                future.whenComplete((result, e) -> {
+                    permit.release();
+                    AnyDoorRecorder.record(anyDoorDto, args, result, e, decodeNanos, System.nanoTime() - invokeStartNanos);
+                    StreamArgument.close(args);
+                    if (e == null) {
+                        measure(anyDoorDto, result, anyDoorResult);
+                    }
+                    String callMethodStr = "/any_door/run " + method.getName();
+                    if (e != null) {
+                        log.info(callMethodStr + " exception: ", e);
+                    } else {
+                        log.info(callMethodStr + " return: {}", serialize(anyDoorDto, result));
+                    }
+                    if (anyDoorResult.getResource() != null) {
+                        log.info(callMethodStr + " resource: {}", anyDoorResult.getResource());
+                    }
+                    if (anyDoorResult.getTrace() != null) {
+                        log.info(callMethodStr + " trace: {}", JsonUtil.toStrNotExc(anyDoorResult.getTrace()));
+                    }
+                    if (anyDoorResult.getMeasure() != null) {
+                        log.info(callMethodStr + " measure: {}", JsonUtil.toStrNotExc(anyDoorResult.getMeasure()));
+                    }
+                    if (anyDoorResult.getProfile() != null) {
+                        log.info(callMethodStr + " profile collapsed stack:\n{}", anyDoorResult.getProfile().getCollapsed());
+                    }
+                    if (recording != null) {
+                        log.info(callMethodStr + " jfr file: {}", JfrSupport.stopRecording(recording, anyDoorDto));
+                    }
+                });
+                return null;
+            }
+        } finally {
+            if (!async) {
+                permit.release();
+            }
+            // 异步执行的录制在执行结束后停止
+            if (recording != null && !async) {
+                anyDoorResult.setJfrFile(JfrSupport.stopRecording(recording, anyDoorDto));
+            }
+        }
+    }
+
+    /**
+     * 序列化返回结果，产生 serialize 阶段的JFR事件
+     */
+    public static String serialize(AnyDoorDto anyDoorDto, Object value) {
+        Object serializeEvent = JfrSupport.begin(JfrSupport.SERIALIZE, anyDoorDto);
+        try {
+            return JsonUtil.toStrNotExc(value);
+        } finally {
+            JfrSupport.commit(serializeEvent);
+        }
+    }
 
+    /**
+     * 找到要执行的对象及方法
+     */
+    public AnyDoorHandlerMethod resolve(AnyDoorDto anyDoorDto) {
         Class<?> clazz = anyDoorDto.getClazz();
         String methodName = anyDoorDto.getMethodName();
-        Map<String, Object> contentMap = anyDoorDto.getContentMap();
         List<String> parameterTypes = anyDoorDto.getParameterTypes();
 
         boolean containsBean = SpringUtil.containsBean(clazz);
         Object bean;
         Method method;
         if (!containsBean) {
-            bean = BeanUtil.instantiate(clazz);
+            AnyDoorInstanceFactory.Lease lease = AnyDoorInstanceFactory.getInstance(clazz, InstanceStrategy.of(anyDoorDto.getInstanceStrategy()));
             method = ClassUtil.getMethod(clazz, methodName, parameterTypes);
+            return new AnyDoorHandlerMethod(lease.getInstance(), method, lease);
         } else {
             bean = SpringUtil.getBean(clazz);
             method = ClassUtil.getMethod(AopUtil.getTargetClass(bean), methodName, parameterTypes);
@@ -57,22 +199,53 @@ public class AnyDoorService {
                 bean = AopUtil.getTargetObject(bean);
             }
         }
+        return new AnyDoorHandlerMethod(bean, method);
+    }
 
+    /**
+     * 在当前线程执行方法，按dto开启的选项进行统计，统计结果放到 anyDoorResult
+     */
+    private Object invoke(AnyDoorDto anyDoorDto, AnyDoorHandlerMethod handlerMethod, Object[] args, AnyDoorResult anyDoorResult) {
+        AnyDoorTracer tracer = Boolean.TRUE.equals(anyDoorDto.getTrace()) ? AnyDoorTracer.start(handlerMethod.getMethod()) : null;
+        ResourceUsage.Meter meter = Boolean.TRUE.equals(anyDoorDto.getResource()) ? ResourceUsage.start() : null;
+        // 采样放在最里层，栈中不包含统计本身
+        ProfileSession profileSession = null;
+        if (Boolean.TRUE.equals(anyDoorDto.getProfile())) {
+            long interval = anyDoorDto.getProfileInterval() != null ? anyDoorDto.getProfileInterval()
+                    : SpringUtil.getProperty("any-door.profile.interval", Duration.class, Duration.ofMillis(10)).toMillis();
+            profileSession = ProfileSession.start(interval);
+        }
+        Object invokeEvent = JfrSupport.begin(JfrSupport.INVOKE, anyDoorDto);
+        Object result;
+        try {
+            result = handlerMethod.invoke(args);
+        } finally {
+            JfrSupport.commit(invokeEvent);
+            if (profileSession != null) {
+                anyDoorResult.setProfile(profileSession.stop());
+            }
+            if (meter != null) {
+                ResourceUsage usage = meter.stop();
+                anyDoorResult.setResource(usage);
+                ResourceStats.add(anyDoorDto.getClassName() + "#" + anyDoorDto.getMethodName(), usage);
+            }
+            if (tracer != null) {
+                anyDoorResult.setTrace(tracer.stop());
+            }
+        }
+        return result;
+    }
 
-        AnyDoorHandlerMethod handlerMethod = new AnyDoorHandlerMethod(bean, method);
-        if (Objects.equals(anyDoorDto.getSync(), true)) {
-            return handlerMethod.invokeSync(contentMap);
-        } else {
-            CompletableFuture<Object> future = handlerMethod.invokeAsync(contentMap);
-            future.whenComplete((result, e) -> {
-                String callMethodStr = "/any_door/run " + method.getName();
-                if (e != null) {
-                    log.info(callMethodStr + " exception: ", e);
-                } else {
-                    log.info(callMethodStr + " return: {}", JsonUtil.toStrNotExc(result));
-                }
-            });
-            return null;
+    /**
+     * any-door.measure.max-nodes 最多遍历的对象数，默认 1000000
+     * any-door.measure.top       按类型合计后返回的类型数，默认 20
+     */
+    private static void measure(AnyDoorDto anyDoorDto, Object result, AnyDoorResult anyDoorResult) {
+        if (!Boolean.TRUE.equals(anyDoorDto.getMeasure())) {
+            return;
         }
+        int maxNodes = SpringUtil.getProperty("any-door.measure.max-nodes", Integer.class, 1_000_000);
+        int top = SpringUtil.getProperty("any-door.measure.top", Integer.class, 20);
+        anyDoorResult.setMeasure(ObjectSizes.measure(result, maxNodes, top));
     }
 }
@@ -0,0 +1,53 @@
+package io.github.lgp547.anydoor.core;
+
+import io.github.lgp547.anydoor.profile.ProfileSession;
+import io.github.lgp547.anydoor.util.SpringUtil;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 同步执行使用的线程池，与异步执行及定时任务的 {@link AnyDoorExecutor} 分开，几个慢的同步调用不会让其它调用排队
+ * <p>
+ * 不排队，每个同步调用占用一个线程（与原来占用请求线程相同），达到最大线程数时拒绝
+ * <p>
+ * any-door.sync-executor.max-size  最大线程数，默认 200
+ */
+public class AnyDoorSyncExecutor implements Executor {
+
+    private static volatile AnyDoorSyncExecutor instance;
+
+    private final ThreadPoolExecutor threadPoolExecutor;
+
+    private AnyDoorSyncExecutor() {
+        int maxSize = Math.max(1, SpringUtil.getProperty("any-door.sync-executor.max-size", Integer.class, 200));
+        AtomicInteger threadNum = new AtomicInteger();
+        this.threadPoolExecutor = new ThreadPoolExecutor(0, maxSize, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "any-door-sync-" + threadNum.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static AnyDoorSyncExecutor getInstance() {
+        AnyDoorSyncExecutor executor = instance;
+        if (executor == null) {
+            synchronized (AnyDoorSyncExecutor.class) {
+                executor = instance;
+                if (executor == null) {
+                    executor = new AnyDoorSyncExecutor();
+                    instance = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        threadPoolExecutor.execute(ProfileSession.wrap(command));
+    }
+}
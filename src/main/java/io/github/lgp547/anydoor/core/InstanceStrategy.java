@@ -0,0 +1,46 @@
+package io.github.lgp547.anydoor.core;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * 非Spring Bean的实例创建策略
+ * perCall   每次调用都通过无参构造创建（默认）
+ * singleton 无参构造创建一次后缓存，空闲超时后回收
+ * autowired 通过 AutowireCapableBeanFactory.createBean 创建（支持构造器注入），缓存同 singleton
+ */
+public enum InstanceStrategy {
+
+    PER_CALL("perCall"),
+
+    SINGLETON("singleton"),
+
+    AUTOWIRED("autowired"),
+    ;
+
+    private final String value;
+
+    InstanceStrategy(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public boolean isCached() {
+        return this != PER_CALL;
+    }
+
+    @Nullable
+    public static InstanceStrategy of(@Nullable String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        for (InstanceStrategy strategy : values()) {
+            if (strategy.value.equalsIgnoreCase(value) || strategy.name().equalsIgnoreCase(value)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("unknown instanceStrategy " + value + ", support perCall/singleton/autowired");
+    }
+}
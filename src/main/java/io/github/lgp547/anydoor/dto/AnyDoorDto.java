@@ -1,10 +1,16 @@
 package io.github.lgp547.anydoor.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.lgp547.anydoor.support.StreamArgument;
 import io.github.lgp547.anydoor.util.ClassUtil;
 import io.github.lgp547.anydoor.util.JsonUtil;
 import org.springframework.lang.NonNull;
 import org.springframework.util.Assert;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -14,6 +20,13 @@ import java.util.Map;
  * content        入参，要求是json类型，允许为null
  * parameterTypes 参数类型 （若是方法名是唯一的，这个parameterTypes是可选填）
  * isSync         是否同步（默认异步）
+ * instanceStrategy 非Spring Bean的实例策略 perCall/singleton/autowired（默认取配置）
+ * resource       是否统计执行线程的cpu时间、分配内存及gc，同步执行时随结果返回
+ * profile        是否采样执行期间的线程栈，同步执行时以 collapsed stack 随结果返回
+ * profileInterval 采样间隔（毫秒），默认取配置 any-door.profile.interval
+ * jfr            是否只针对本次调用开启JFR录制，同步执行时返回录制文件路径
+ * preset         预置参数的id，参数取注册时已经解析好的对象，content 中给出的参数覆盖预置的参数
+ * content 中参数的值可以是 {"@file": "路径"} 或 {"@part": "名称"}，见 {@link StreamArgument}
  */
 public class AnyDoorDto {
 
@@ -29,10 +42,37 @@ public class AnyDoorDto {
 
     private Boolean isSync;
 
+    private String instanceStrategy;
+
+    private Boolean resource;
+
+    private Boolean profile;
+
+    private Long profileInterval;
+
+    private Boolean jfr;
+
+    private Boolean trace;
+
+    private Boolean measure;
+
+    private Boolean coalesce;
+
+    private GenerateDto generate;
+
+    private String preset;
+
+    /**
+     * multipart 请求中可以通过 {"@part": "名称"} 引用的 part
+     */
+    @JsonIgnore
+    private Map<String, StreamArgument.Source> parts = Collections.emptyMap();
+
     public String getClassName() {
         return className;
     }
 
+    @JsonIgnore
     public Class<?> getClazz() {
         return ClassUtil.forName(className);
     }
@@ -53,7 +93,17 @@ public class AnyDoorDto {
         return content;
     }
 
+    @JsonIgnore
     public Map<String, Object> getContentMap() {
+        if (content == null) {
+            return new HashMap<>();
+        }
+        if (content instanceof ObjectNode) {
+            // smile/cbor 请求的参数保留为节点，绑定时直接读取 token
+            Map<String, Object> contentMap = new LinkedHashMap<>();
+            ((ObjectNode) content).fields().forEachRemaining(entry -> contentMap.put(entry.getKey(), entry.getValue()));
+            return contentMap;
+        }
         return JsonUtil.toMap(JsonUtil.toStrNotExc(content));
     }
 
@@ -77,6 +127,104 @@ public class AnyDoorDto {
         isSync = sync;
     }
 
+    public String getInstanceStrategy() {
+        return instanceStrategy;
+    }
+
+    public void setInstanceStrategy(String instanceStrategy) {
+        this.instanceStrategy = instanceStrategy;
+    }
+
+    public Boolean getResource() {
+        return resource;
+    }
+
+    public void setResource(Boolean resource) {
+        this.resource = resource;
+    }
+
+    public Boolean getProfile() {
+        return profile;
+    }
+
+    public void setProfile(Boolean profile) {
+        this.profile = profile;
+    }
+
+    public Long getProfileInterval() {
+        return profileInterval;
+    }
+
+    public void setProfileInterval(Long profileInterval) {
+        this.profileInterval = profileInterval;
+    }
+
+    public Boolean getJfr() {
+        return jfr;
+    }
+
+    public void setJfr(Boolean jfr) {
+        this.jfr = jfr;
+    }
+
+    public Boolean getTrace() {
+        return trace;
+    }
+
+    public void setTrace(Boolean trace) {
+        this.trace = trace;
+    }
+
+    public Boolean getMeasure() {
+        return measure;
+    }
+
+    public void setMeasure(Boolean measure) {
+        this.measure = measure;
+    }
+
+    public Boolean getCoalesce() {
+        return coalesce;
+    }
+
+    public void setCoalesce(Boolean coalesce) {
+        this.coalesce = coalesce;
+    }
+
+    public GenerateDto getGenerate() {
+        return generate;
+    }
+
+    public void setGenerate(GenerateDto generate) {
+        this.generate = generate;
+    }
+
+    public String getPreset() {
+        return preset;
+    }
+
+    public void setPreset(String preset) {
+        this.preset = preset;
+    }
+
+    @JsonIgnore
+    public Map<String, StreamArgument.Source> getParts() {
+        return parts;
+    }
+
+    public void setParts(Map<String, StreamArgument.Source> parts) {
+        this.parts = parts;
+    }
+
+    /**
+     * 是否需要以 {@link AnyDoorResult} 包装返回
+     */
+    @JsonIgnore
+    public boolean isWrapResult() {
+        return Boolean.TRUE.equals(resource) || Boolean.TRUE.equals(profile) || Boolean.TRUE.equals(jfr)
+                || Boolean.TRUE.equals(trace) || Boolean.TRUE.equals(measure);
+    }
+
     @Override
     public String toString() {
         return "AnyDoorDto{" +
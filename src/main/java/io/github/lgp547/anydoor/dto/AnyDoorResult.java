@@ -0,0 +1,83 @@
+package io.github.lgp547.anydoor.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.github.lgp547.anydoor.instrument.CallTreeNode;
+import io.github.lgp547.anydoor.profile.ProfileResult;
+import io.github.lgp547.anydoor.profile.ResourceUsage;
+import io.github.lgp547.anydoor.support.RetainedSize;
+
+/**
+ * 开启了统计类选项（如 resource）时同步执行的返回值，result 为方法返回值，其余字段只有开启对应选项时才有
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnyDoorResult {
+
+    private Object result;
+
+    private ResourceUsage resource;
+
+    private ProfileResult profile;
+
+    /**
+     * 本次调用的JFR录制文件
+     */
+    private String jfrFile;
+
+    /**
+     * 调用树
+     */
+    private CallTreeNode trace;
+
+    /**
+     * 返回值占用的内存
+     */
+    private RetainedSize measure;
+
+    public Object getResult() {
+        return result;
+    }
+
+    public void setResult(Object result) {
+        this.result = result;
+    }
+
+    public ResourceUsage getResource() {
+        return resource;
+    }
+
+    public void setResource(ResourceUsage resource) {
+        this.resource = resource;
+    }
+
+    public ProfileResult getProfile() {
+        return profile;
+    }
+
+    public void setProfile(ProfileResult profile) {
+        this.profile = profile;
+    }
+
+    public String getJfrFile() {
+        return jfrFile;
+    }
+
+    public void setJfrFile(String jfrFile) {
+        this.jfrFile = jfrFile;
+    }
+
+    public CallTreeNode getTrace() {
+        return trace;
+    }
+
+    public void setTrace(CallTreeNode trace) {
+        this.trace = trace;
+    }
+
+    public RetainedSize getMeasure() {
+        return measure;
+    }
+
+    public void setMeasure(RetainedSize measure) {
+        this.measure = measure;
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.lgp547.anydoor.dto;
+
+/**
+ * a / b         要对比的两个方法，参数同 /any_door/run，两者使用按 a 解析出的同一组参数
+ * rounds        对比轮数，每轮 a、b 各执行一次，默认 1000
+ * warmupMillis  预热时长（毫秒），默认 1000，至少一轮
+ * minEffect     耗时中位数相差小于该比例时，即使统计上显著也认为没有差异，默认 0.05
+ * tag           记录到压测历史的标签，用于之后对比（见 /any_door/bench/regression）
+ */
+public class CompareDto {
+
+    private AnyDoorDto a;
+
+    private AnyDoorDto b;
+
+    private Integer rounds = 1000;
+
+    private Long warmupMillis = 1000L;
+
+    private Double minEffect = 0.05;
+
+    private String tag;
+
+    public AnyDoorDto getA() {
+        return a;
+    }
+
+    public void setA(AnyDoorDto a) {
+        this.a = a;
+    }
+
+    public AnyDoorDto getB() {
+        return b;
+    }
+
+    public void setB(AnyDoorDto b) {
+        this.b = b;
+    }
+
+    public Integer getRounds() {
+        return rounds;
+    }
+
+    public void setRounds(Integer rounds) {
+        this.rounds = rounds;
+    }
+
+    public Long getWarmupMillis() {
+        return warmupMillis;
+    }
+
+    public void setWarmupMillis(Long warmupMillis) {
+        this.warmupMillis = warmupMillis;
+    }
+
+    public Double getMinEffect() {
+        return minEffect;
+    }
+
+    public void setMinEffect(Double minEffect) {
+        this.minEffect = minEffect;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public void verify() {
+        if (a == null || b == null) {
+            throw new IllegalArgumentException("a and b are required");
+        }
+        a.verify();
+        b.verify();
+        if (rounds == null || rounds < 2 || warmupMillis == null || warmupMillis < 0) {
+            throw new IllegalArgumentException("rounds must be at least 2 and warmupMillis must not be negative");
+        }
+        if (minEffect == null || minEffect < 0) {
+            throw new IllegalArgumentException("minEffect must not be negative");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompareDto{" +
+                "a=" + a +
+                ", b=" + b +
+                ", rounds=" + rounds +
+                ", warmupMillis=" + warmupMillis +
+                ", minEffect=" + minEffect +
+                ", tag='" + tag + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.lgp547.anydoor.dto;
+
+/**
+ * anyDoorDto 要执行的方法，参数同 /any_door/run
+ * threads    最大并发线程数，依次以 1、2、4...threads 个线程执行
+ * duration   每个线程数下的执行时长（毫秒），默认 1000
+ * tag        记录到压测历史的标签，用于之后对比（见 /any_door/bench/regression）
+ */
+public class ContentionDto {
+
+    private AnyDoorDto anyDoorDto;
+
+    private Integer threads;
+
+    private Long duration = 1000L;
+
+    private String tag;
+
+    public AnyDoorDto getAnyDoorDto() {
+        return anyDoorDto;
+    }
+
+    public void setAnyDoorDto(AnyDoorDto anyDoorDto) {
+        this.anyDoorDto = anyDoorDto;
+    }
+
+    public Integer getThreads() {
+        return threads;
+    }
+
+    public void setThreads(Integer threads) {
+        this.threads = threads;
+    }
+
+    public Long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Long duration) {
+        this.duration = duration;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public void verify() {
+        if (anyDoorDto == null) {
+            throw new IllegalArgumentException("anyDoorDto is required");
+        }
+        anyDoorDto.verify();
+        if (threads == null || threads <= 0 || threads > 256) {
+            throw new IllegalArgumentException("threads must be in [1, 256]");
+        }
+        if (duration == null || duration <= 0) {
+            throw new IllegalArgumentException("duration must be positive");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ContentionDto{" +
+                "anyDoorDto=" + anyDoorDto +
+                ", threads=" + threads +
+                ", duration=" + duration +
+                ", tag='" + tag + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.lgp547.anydoor.dto;
+
+/**
+ * 自动生成参数的提示，content 中没有给出的参数按类型生成
+ * size         集合、Map、数组的元素个数，默认 10
+ * stringLength 字符串长度，默认 8
+ * depth        对象/集合嵌套的最大层数，超过后对象为null、集合为空，默认 3
+ * seed         随机种子，相同种子生成相同的参数，默认 0
+ * pool         预先生成并轮流使用的参数组数，默认 16
+ */
+public class GenerateDto {
+
+    private Integer size = 10;
+
+    private Integer stringLength = 8;
+
+    private Integer depth = 3;
+
+    private Long seed = 0L;
+
+    private Integer pool = 16;
+
+    public GenerateDto() {
+    }
+
+    public GenerateDto(GenerateDto other) {
+        this.size = other.size;
+        this.stringLength = other.stringLength;
+        this.depth = other.depth;
+        this.seed = other.seed;
+        this.pool = other.pool;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    public Integer getStringLength() {
+        return stringLength;
+    }
+
+    public void setStringLength(Integer stringLength) {
+        this.stringLength = stringLength;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public Integer getPool() {
+        return pool;
+    }
+
+    public void setPool(Integer pool) {
+        this.pool = pool;
+    }
+
+    public void verify() {
+        if (size == null || size < 0 || stringLength == null || stringLength < 0 || depth == null || depth < 0
+                || seed == null || pool == null || pool <= 0) {
+            throw new IllegalArgumentException("generate size/stringLength/depth/seed/pool is invalid");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GenerateDto{" +
+                "size=" + size +
+                ", stringLength=" + stringLength +
+                ", depth=" + depth +
+                ", seed=" + seed +
+                ", pool=" + pool +
+                '}';
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.lgp547.anydoor.dto;
+
+/**
+ * anyDoorDto          要执行的方法
+ * rounds              轮数，每轮结束后GC并记录堆使用，默认 10
+ * invocationsPerRound 每轮执行次数，默认 100
+ * warmupRounds        开始记录前先执行的轮数，让懒加载的缓存、类加载等一次性占用先稳定下来，默认 1
+ * minBytesPerCall     每次调用增长超过该字节数且趋势稳定时判定为疑似泄漏，默认 8
+ * histogram           是否对比第一轮和最后一轮的类直方图，默认 false（每次需要一次 full gc 并遍历整个堆）
+ * top                 类直方图对比返回增长最多的类型数，默认 20
+ */
+public class LeakDto {
+
+    private AnyDoorDto anyDoorDto;
+
+    private Integer rounds = 10;
+
+    private Integer invocationsPerRound = 100;
+
+    private Integer warmupRounds = 1;
+
+    private Long minBytesPerCall = 8L;
+
+    private Boolean histogram = false;
+
+    private Integer top = 20;
+
+    public AnyDoorDto getAnyDoorDto() {
+        return anyDoorDto;
+    }
+
+    public void setAnyDoorDto(AnyDoorDto anyDoorDto) {
+        this.anyDoorDto = anyDoorDto;
+    }
+
+    public Integer getRounds() {
+        return rounds;
+    }
+
+    public void setRounds(Integer rounds) {
+        this.rounds = rounds;
+    }
+
+    public Integer getInvocationsPerRound() {
+        return invocationsPerRound;
+    }
+
+    public void setInvocationsPerRound(Integer invocationsPerRound) {
+        this.invocationsPerRound = invocationsPerRound;
+    }
+
+    public Integer getWarmupRounds() {
+        return warmupRounds;
+    }
+
+    public void setWarmupRounds(Integer warmupRounds) {
+        this.warmupRounds = warmupRounds;
+    }
+
+    public Long getMinBytesPerCall() {
+        return minBytesPerCall;
+    }
+
+    public void setMinBytesPerCall(Long minBytesPerCall) {
+        this.minBytesPerCall = minBytesPerCall;
+    }
+
+    public Boolean getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(Boolean histogram) {
+        this.histogram = histogram;
+    }
+
+    public Integer getTop() {
+        return top;
+    }
+
+    public void setTop(Integer top) {
+        this.top = top;
+    }
+
+    public void verify() {
+        if (anyDoorDto == null) {
+            throw new IllegalArgumentException("anyDoorDto is required");
+        }
+        anyDoorDto.verify();
+        if (rounds == null || rounds < 3) {
+            throw new IllegalArgumentException("at least three rounds are required");
+        }
+        if (invocationsPerRound == null || invocationsPerRound <= 0 || warmupRounds == null || warmupRounds < 0
+                || minBytesPerCall == null || minBytesPerCall < 0 || top == null || top <= 0) {
+            throw new IllegalArgumentException("invocationsPerRound/warmupRounds/minBytesPerCall/top is invalid");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LeakDto{" +
+                "anyDoorDto=" + anyDoorDto +
+                ", rounds=" + rounds +
+                ", invocationsPerRound=" + invocationsPerRound +
+                ", warmupRounds=" + warmupRounds +
+                ", minBytesPerCall=" + minBytesPerCall +
+                ", histogram=" + histogram +
+                ", top=" + top +
+                '}';
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.lgp547.anydoor.dto;
+
+import org.springframework.util.Assert;
+
+/**
+ * id         预置参数的id，相同id会覆盖
+ * anyDoorDto 方法及参数，参数的写法同 /any_door/run（包括 @file）
+ * shared     调用时是否直接使用同一组参数对象（默认false，每次调用得到一份深拷贝），方法修改入参会影响之后的调用
+ */
+public class PresetDto {
+
+    private String id;
+
+    private AnyDoorDto anyDoorDto;
+
+    private Boolean shared = false;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public AnyDoorDto getAnyDoorDto() {
+        return anyDoorDto;
+    }
+
+    public void setAnyDoorDto(AnyDoorDto anyDoorDto) {
+        this.anyDoorDto = anyDoorDto;
+    }
+
+    public Boolean getShared() {
+        return shared;
+    }
+
+    public void setShared(Boolean shared) {
+        this.shared = shared;
+    }
+
+    public void verify() {
+        Assert.hasText(id, "id is required");
+        Assert.notNull(anyDoorDto, "anyDoorDto is required");
+        anyDoorDto.verify();
+    }
+
+    @Override
+    public String toString() {
+        return "PresetDto{" +
+                "id='" + id + '\'' +
+                ", anyDoorDto=" + anyDoorDto +
+                ", shared=" + shared +
+                '}';
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.lgp547.anydoor.dto;
+
+/**
+ * anyDoorDto    要执行的方法，参数同 /any_door/run，需要是被 AOP 代理的 Spring Bean 的 public 方法
+ * rounds        对比轮数，每轮经过代理和直接调用目标对象各执行一次，默认 1000
+ * warmupMillis  预热时长（毫秒），默认 1000
+ * minEffect     耗时中位数相差小于该比例时认为代理没有带来开销，默认 0.05
+ * breakdown     是否逐个叠加 advisor 分别测量每个 advisor 增加的耗时，每个 advisor 各执行一遍 rounds，默认 false
+ * tag           记录到压测历史的标签，用于之后对比（见 /any_door/bench/regression）
+ */
+public class ProxyOverheadDto {
+
+    private AnyDoorDto anyDoorDto;
+
+    private Integer rounds = 1000;
+
+    private Long warmupMillis = 1000L;
+
+    private Double minEffect = 0.05;
+
+    private Boolean breakdown = false;
+
+    private String tag;
+
+    public AnyDoorDto getAnyDoorDto() {
+        return anyDoorDto;
+    }
+
+    public void setAnyDoorDto(AnyDoorDto anyDoorDto) {
+        this.anyDoorDto = anyDoorDto;
+    }
+
+    public Integer getRounds() {
+        return rounds;
+    }
+
+    public void setRounds(Integer rounds) {
+        this.rounds = rounds;
+    }
+
+    public Long getWarmupMillis() {
+        return warmupMillis;
+    }
+
+    public void setWarmupMillis(Long warmupMillis) {
+        this.warmupMillis = warmupMillis;
+    }
+
+    public Double getMinEffect() {
+        return minEffect;
+    }
+
+    public void setMinEffect(Double minEffect) {
+        this.minEffect = minEffect;
+    }
+
+    public Boolean getBreakdown() {
+        return breakdown;
+    }
+
+    public void setBreakdown(Boolean breakdown) {
+        this.breakdown = breakdown;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public void verify() {
+        if (anyDoorDto == null) {
+            throw new IllegalArgumentException("anyDoorDto is required");
+        }
+        anyDoorDto.verify();
+        if (rounds == null || rounds < 2 || warmupMillis == null || warmupMillis < 0) {
+            throw new IllegalArgumentException("rounds must be at least 2 and warmupMillis must not be negative");
+        }
+        if (minEffect == null || minEffect < 0) {
+            throw new IllegalArgumentException("minEffect must not be negative");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ProxyOverheadDto{" +
+                "anyDoorDto=" + anyDoorDto +
+                ", rounds=" + rounds +
+                ", warmupMillis=" + warmupMillis +
+                ", minEffect=" + minEffect +
+                ", breakdown=" + breakdown +
+                ", tag='" + tag + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.lgp547.anydoor.dto;
+
+/**
+ * runId        要检查的压测记录，为空时取 method、kind、tag 匹配的最近一次
+ * method       方法签名，类名#方法名(参数类型)，同压测结果中的 method
+ * kind         sweep、compare、contention、proxy
+ * tag          压测时指定的标签
+ * baselineId   基线记录，为空时取同一方法同一类型在 run 之前最近的一次（可用 baselineTag 限定标签）
+ * baselineTag  基线的标签
+ * minEffect    平均耗时增加的置信下界小于基线的该比例时不认为变慢，默认 0.05
+ */
+public class RegressionDto {
+
+    private String runId;
+
+    private String method;
+
+    private String kind;
+
+    private String tag;
+
+    private String baselineId;
+
+    private String baselineTag;
+
+    private Double minEffect = 0.05;
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public String getBaselineId() {
+        return baselineId;
+    }
+
+    public void setBaselineId(String baselineId) {
+        this.baselineId = baselineId;
+    }
+
+    public String getBaselineTag() {
+        return baselineTag;
+    }
+
+    public void setBaselineTag(String baselineTag) {
+        this.baselineTag = baselineTag;
+    }
+
+    public Double getMinEffect() {
+        return minEffect;
+    }
+
+    public void setMinEffect(Double minEffect) {
+        this.minEffect = minEffect;
+    }
+
+    public void verify() {
+        if (runId == null && method == null && tag == null) {
+            throw new IllegalArgumentException("runId, method or tag is required");
+        }
+        if (minEffect == null || minEffect < 0) {
+            throw new IllegalArgumentException("minEffect must not be negative");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RegressionDto{" +
+                "runId='" + runId + '\'' +
+                ", method='" + method + '\'' +
+                ", kind='" + kind + '\'' +
+                ", tag='" + tag + '\'' +
+                ", baselineId='" + baselineId + '\'' +
+                ", baselineTag='" + baselineTag + '\'' +
+                ", minEffect=" + minEffect +
+                '}';
+    }
+}
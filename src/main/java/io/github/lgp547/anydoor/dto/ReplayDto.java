@@ -0,0 +1,56 @@
+package io.github.lgp547.anydoor.dto;
+
+/**
+ * path   日志目录或分段文件，为空时使用 any-door.journal.dir
+ * pacing 回放节奏：original 按原始调用间隔，fast 尽可能快（默认）
+ * limit  最多回放条数，为空不限制
+ */
+public class ReplayDto {
+
+    public static final String PACING_ORIGINAL = "original";
+
+    public static final String PACING_FAST = "fast";
+
+    private String path;
+
+    private String pacing = PACING_FAST;
+
+    private Integer limit;
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getPacing() {
+        return pacing;
+    }
+
+    public void setPacing(String pacing) {
+        this.pacing = pacing;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public boolean isOriginalPacing() {
+        return PACING_ORIGINAL.equalsIgnoreCase(pacing);
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayDto{" +
+                "path='" + path + '\'' +
+                ", pacing='" + pacing + '\'' +
+                ", limit=" + limit +
+                '}';
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.lgp547.anydoor.dto;
+
+/**
+ * id           任务id，为空时为 类名#方法名，相同id会覆盖之前的任务
+ * anyDoorDto   要执行的方法，总是同步执行
+ * fixedRate    固定频率（毫秒）
+ * fixedDelay   上次执行结束后的间隔（毫秒）
+ * cron         cron表达式（秒 分 时 日 月 周）
+ * initialDelay 首次执行的延迟（毫秒），cron 不生效
+ * fixedRate/fixedDelay/cron 三选一
+ */
+public class ScheduleDto {
+
+    private String id;
+
+    private AnyDoorDto anyDoorDto;
+
+    private Long fixedRate;
+
+    private Long fixedDelay;
+
+    private String cron;
+
+    private Long initialDelay;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public AnyDoorDto getAnyDoorDto() {
+        return anyDoorDto;
+    }
+
+    public void setAnyDoorDto(AnyDoorDto anyDoorDto) {
+        this.anyDoorDto = anyDoorDto;
+    }
+
+    public Long getFixedRate() {
+        return fixedRate;
+    }
+
+    public void setFixedRate(Long fixedRate) {
+        this.fixedRate = fixedRate;
+    }
+
+    public Long getFixedDelay() {
+        return fixedDelay;
+    }
+
+    public void setFixedDelay(Long fixedDelay) {
+        this.fixedDelay = fixedDelay;
+    }
+
+    public String getCron() {
+        return cron;
+    }
+
+    public void setCron(String cron) {
+        this.cron = cron;
+    }
+
+    public Long getInitialDelay() {
+        return initialDelay;
+    }
+
+    public void setInitialDelay(Long initialDelay) {
+        this.initialDelay = initialDelay;
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduleDto{" +
+                "id='" + id + '\'' +
+                ", anyDoorDto=" + anyDoorDto +
+                ", fixedRate=" + fixedRate +
+                ", fixedDelay=" + fixedDelay +
+                ", cron='" + cron + '\'' +
+                ", initialDelay=" + initialDelay +
+                '}';
+    }
+
+    public void verify() {
+        if (anyDoorDto == null) {
+            throw new IllegalArgumentException("anyDoorDto is required");
+        }
+        anyDoorDto.verify();
+        int triggerCount = (fixedRate != null ? 1 : 0) + (fixedDelay != null ? 1 : 0) + (cron != null ? 1 : 0);
+        if (triggerCount != 1) {
+            throw new IllegalArgumentException("one of fixedRate/fixedDelay/cron is required");
+        }
+        if ((fixedRate != null && fixedRate <= 0) || (fixedDelay != null && fixedDelay <= 0)) {
+            throw new IllegalArgumentException("fixedRate/fixedDelay must be positive");
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.lgp547.anydoor.dto;
+
+import java.util.List;
+
+/**
+ * anyDoorDto    要执行的方法，content 为参数模板，可以使用规模变量（见 README 输入规模扫描）
+ * sizes         要测试的规模，从小到大
+ * warmupMillis  每个规模正式计时前的预热时长（毫秒），默认 200
+ * measureMillis 每个规模的计时时长（毫秒），默认 500，至少执行 minIterations 次
+ * minIterations 每个规模至少执行的次数，默认 5
+ * seed          模板中 ${random} 的随机种子，默认 0
+ * tag           记录到压测历史的标签，用于之后对比（见 /any_door/bench/regression）
+ */
+public class SweepDto {
+
+    private AnyDoorDto anyDoorDto;
+
+    private List<Integer> sizes;
+
+    private Long warmupMillis = 200L;
+
+    private Long measureMillis = 500L;
+
+    private Integer minIterations = 5;
+
+    private Long seed = 0L;
+
+    private String tag;
+
+    public AnyDoorDto getAnyDoorDto() {
+        return anyDoorDto;
+    }
+
+    public void setAnyDoorDto(AnyDoorDto anyDoorDto) {
+        this.anyDoorDto = anyDoorDto;
+    }
+
+    public List<Integer> getSizes() {
+        return sizes;
+    }
+
+    public void setSizes(List<Integer> sizes) {
+        this.sizes = sizes;
+    }
+
+    public Long getWarmupMillis() {
+        return warmupMillis;
+    }
+
+    public void setWarmupMillis(Long warmupMillis) {
+        this.warmupMillis = warmupMillis;
+    }
+
+    public Long getMeasureMillis() {
+        return measureMillis;
+    }
+
+    public void setMeasureMillis(Long measureMillis) {
+        this.measureMillis = measureMillis;
+    }
+
+    public Integer getMinIterations() {
+        return minIterations;
+    }
+
+    public void setMinIterations(Integer minIterations) {
+        this.minIterations = minIterations;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public void verify() {
+        if (anyDoorDto == null) {
+            throw new IllegalArgumentException("anyDoorDto is required");
+        }
+        anyDoorDto.verify();
+        if (sizes == null || sizes.size() < 2) {
+            throw new IllegalArgumentException("at least two sizes are required");
+        }
+        for (Integer size : sizes) {
+            if (size == null || size <= 0) {
+                throw new IllegalArgumentException("sizes must be positive");
+            }
+        }
+        if (warmupMillis == null || warmupMillis < 0 || measureMillis == null || measureMillis <= 0
+                || minIterations == null || minIterations <= 0) {
+            throw new IllegalArgumentException("warmupMillis/measureMillis/minIterations is invalid");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SweepDto{" +
+                "anyDoorDto=" + anyDoorDto +
+                ", sizes=" + sizes +
+                ", warmupMillis=" + warmupMillis +
+                ", measureMillis=" + measureMillis +
+                ", minIterations=" + minIterations +
+                ", seed=" + seed +
+                ", tag='" + tag + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.lgp547.anydoor.dto;
+
+import java.util.List;
+
+/**
+ * className      要观察的类的全链路名
+ * methodName     要观察的方法名
+ * parameterTypes 参数类型，方法名唯一时允许为空
+ * duration       观察时长（毫秒），默认 any-door.watch.duration
+ * count          记录多少次调用后提前结束，为空不限制
+ */
+public class WatchDto {
+
+    private String className;
+
+    private String methodName;
+
+    private List<String> parameterTypes;
+
+    private Long duration;
+
+    private Long count;
+
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public void setMethodName(String methodName) {
+        this.methodName = methodName;
+    }
+
+    public List<String> getParameterTypes() {
+        return parameterTypes;
+    }
+
+    public void setParameterTypes(List<String> parameterTypes) {
+        this.parameterTypes = parameterTypes;
+    }
+
+    public Long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Long duration) {
+        this.duration = duration;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public void verify() {
+        if (className == null || className.isEmpty() || methodName == null || methodName.isEmpty()) {
+            throw new IllegalArgumentException("className and methodName are required");
+        }
+        if ((duration != null && duration <= 0) || (count != null && count <= 0)) {
+            throw new IllegalArgumentException("duration/count must be positive");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WatchDto{" +
+                "className='" + className + '\'' +
+                ", methodName='" + methodName + '\'' +
+                ", parameterTypes=" + parameterTypes +
+                ", duration=" + duration +
+                ", count=" + count +
+                '}';
+    }
+}
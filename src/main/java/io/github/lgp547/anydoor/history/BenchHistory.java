@@ -0,0 +1,288 @@
+package io.github.lgp547.anydoor.history;
+
+import io.github.lgp547.anydoor.dto.RegressionDto;
+import io.github.lgp547.anydoor.support.Statistics;
+import io.github.lgp547.anydoor.util.BuildProperties;
+import io.github.lgp547.anydoor.util.JsonUtil;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 压测记录，每次 sweep/compare/contention/proxy 追加一行 json 到本地文件，只追加不修改
+ * <p>
+ * 查询时只解析上次读取之后追加的部分，已解析的记录缓存在内存中；文件变短或换了目录时重新读取
+ * <p>
+ * any-door.bench.history.enabled  是否开启，默认 true
+ * any-door.bench.history.dir      目录，默认 ${java.io.tmpdir}/any-door-bench
+ */
+public class BenchHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(BenchHistory.class);
+
+    private static final String FILE_NAME = "history.jsonl";
+
+    /**
+     * p99 对比要求的最少样本数，样本更少时 p99 就是最慢的一两次调用
+     */
+    private static final long MIN_TAIL_COUNT = 100;
+
+    /**
+     * p99 波动比平均值大，变化至少达到该比例（与 minEffect 取较大者）才判断
+     */
+    private static final double MIN_TAIL_EFFECT = 0.1;
+
+    private static final List<BenchRun> cachedRuns = new ArrayList<>();
+
+    @Nullable
+    private static Path cachedFile;
+
+    /**
+     * 已解析到的文件位置，总是在一行的末尾
+     */
+    private static long cachedOffset;
+
+    public static boolean isEnabled() {
+        return SpringUtil.getProperty("any-door.bench.history.enabled", Boolean.class, true);
+    }
+
+    public static Path getFile() {
+        String defaultDir = Paths.get(System.getProperty("java.io.tmpdir"), "any-door-bench").toString();
+        return Paths.get(SpringUtil.getProperty("any-door.bench.history.dir", String.class, defaultDir), FILE_NAME);
+    }
+
+    /**
+     * 类名#方法名(参数类型)，同名重载方法分开记录
+     */
+    public static String signature(String className, Method method) {
+        String parameterTypes = Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName).collect(Collectors.joining(","));
+        return className + "#" + method.getName() + "(" + parameterTypes + ")";
+    }
+
+    /**
+     * 写入失败只打日志，不影响压测结果
+     *
+     * @return 记录id，未开启或写入失败时为null
+     */
+    @Nullable
+    public static String record(String kind, String method, @Nullable String tag, List<BenchSeries> series) {
+        if (!isEnabled()) {
+            return null;
+        }
+        BenchRun run = new BenchRun();
+        run.setId(UUID.randomUUID().toString().replace("-", "").substring(0, 12));
+        run.setTimestamp(System.currentTimeMillis());
+        run.setKind(kind);
+        run.setMethod(method);
+        run.setVersion(BuildProperties.getInstance().getVersion());
+        run.setJvm(System.getProperty("java.version") + " " + System.getProperty("java.vm.name"));
+        run.setTag(tag);
+        run.setSeries(series);
+        try {
+            String line = JsonUtil.objectMapper.writeValueAsString(run) + "\n";
+            Path file = getFile();
+            synchronized (BenchHistory.class) {
+                Files.createDirectories(file.getParent());
+                Files.write(file, line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            return run.getId();
+        } catch (Exception e) {
+            log.warn("any-door bench history write exception", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return 按写入顺序，条件为空时不过滤
+     */
+    public static List<BenchRun> list(@Nullable String method, @Nullable String kind, @Nullable String tag) {
+        return load().stream()
+                .filter(run -> matches(method, run.getMethod()) && matches(kind, run.getKind()) && matches(tag, run.getTag()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 解析上次读取之后追加的完整行，返回全部记录的副本
+     */
+    private static synchronized List<BenchRun> load() {
+        Path file = getFile();
+        try {
+            long size = Files.exists(file) ? Files.size(file) : 0;
+            if (!file.equals(cachedFile) || size < cachedOffset) {
+                cachedRuns.clear();
+                cachedFile = file;
+                cachedOffset = 0;
+            }
+            if (size > cachedOffset) {
+                byte[] bytes = new byte[(int) (size - cachedOffset)];
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                    while (buffer.hasRemaining()) {
+                        if (channel.read(buffer, cachedOffset + buffer.position()) < 0) {
+                            break;
+                        }
+                    }
+                }
+                // 最后一行可能正在写入，留到下次读取
+                int end = bytes.length;
+                while (end > 0 && bytes[end - 1] != '\n') {
+                    end--;
+                }
+                for (String line : new String(bytes, 0, end, StandardCharsets.UTF_8).split("\n")) {
+                    parse(line);
+                }
+                cachedOffset += end;
+            }
+        } catch (Exception e) {
+            throw new IllegalArgumentException("read " + file + " exception", e);
+        }
+        return new ArrayList<>(cachedRuns);
+    }
+
+    private static void parse(String line) {
+        if (line.trim().isEmpty()) {
+            return;
+        }
+        try {
+            cachedRuns.add(JsonUtil.objectMapper.readValue(line, BenchRun.class));
+        } catch (Exception e) {
+            // 进程在写入过程中退出时留下的不完整行
+            log.debug("any-door bench history skip line {}", line, e);
+        }
+    }
+
+    /**
+     * 对比一次记录与基线，同名的每组耗时按 Welch 95% 置信区间判断是否变慢
+     */
+    public static RegressionReport regression(RegressionDto regressionDto) {
+        regressionDto.verify();
+        BenchRun run;
+        if (regressionDto.getRunId() != null) {
+            run = get(regressionDto.getRunId());
+        } else {
+            run = last(list(regressionDto.getMethod(), regressionDto.getKind(), regressionDto.getTag()), null);
+            if (run == null) {
+                throw new IllegalArgumentException("no bench run found for method " + regressionDto.getMethod() + " tag " + regressionDto.getTag());
+            }
+        }
+        BenchRun baseline;
+        if (regressionDto.getBaselineId() != null) {
+            baseline = get(regressionDto.getBaselineId());
+        } else {
+            // 默认取同一方法同一类型在该记录之前的最近一次
+            List<BenchRun> candidates = list(run.getMethod(), run.getKind(), regressionDto.getBaselineTag()).stream()
+                    .filter(candidate -> candidate.getTimestamp() <= run.getTimestamp())
+                    .collect(Collectors.toList());
+            baseline = last(candidates, run.getId());
+            if (baseline == null) {
+                throw new IllegalArgumentException("no baseline found before bench run " + run.getId());
+            }
+        }
+
+        RegressionReport report = compare(run, baseline, regressionDto.getMinEffect());
+        log.info("any-door bench regression {} vs baseline {} regression {}", run.getId(), baseline.getId(), report.isRegression());
+        return report;
+    }
+
+    /**
+     * 同名的每组耗时按 Welch 95% 置信区间对比，置信区间整体在 0 之上且下界超过基线的 minEffect 比例才认为变慢；
+     * p99 另外按比例对比，平均值被大量正常调用稀释时也能发现尾部变慢
+     */
+    static RegressionReport compare(BenchRun run, BenchRun baseline, double minEffect) {
+        RegressionReport report = new RegressionReport();
+        report.setRun(run);
+        report.setBaseline(baseline);
+        for (BenchSeries current : run.getSeries()) {
+            BenchSeries base = baseline.getSeries().stream().filter(series -> Objects.equals(series.getName(), current.getName())).findFirst().orElse(null);
+            if (base == null) {
+                continue;
+            }
+            RegressionReport.Item item = new RegressionReport.Item();
+            item.setName(current.getName());
+            item.setBaselineMean(toMillis(base.getMean()));
+            item.setMean(toMillis(current.getMean()));
+            item.setRatio(round(current.getMean() / Math.max(1, base.getMean())));
+            double[] interval = Statistics.meanDiffInterval(base.getMean(), base.getStdDev(), base.getCount(),
+                    current.getMean(), current.getStdDev(), current.getCount());
+            item.setMeanDiffInterval(new double[]{toMillis(interval[0]), toMillis(interval[1])});
+            double minDiff = base.getMean() * minEffect;
+            // 置信区间整体在 0 之上且下界超过 minEffect 才认为变慢，样本量大时很小的差异也会统计显著
+            if (interval[0] > 0 && interval[0] >= minDiff) {
+                item.setVerdict(RegressionReport.Verdict.REGRESSION);
+            } else if (interval[1] < 0 && -interval[1] >= minDiff) {
+                item.setVerdict(RegressionReport.Verdict.IMPROVEMENT);
+            } else {
+                item.setVerdict(RegressionReport.Verdict.UNCHANGED);
+            }
+            compareTail(item, base, current, minEffect);
+            report.getItems().add(item);
+        }
+        report.setRegression(report.getItems().stream().anyMatch(item -> item.getVerdict() == RegressionReport.Verdict.REGRESSION
+                || item.getTailVerdict() == RegressionReport.Verdict.REGRESSION));
+        return report;
+    }
+
+    private static void compareTail(RegressionReport.Item item, BenchSeries base, BenchSeries current, double minEffect) {
+        item.setBaselineP99(toMillis(base.getP99()));
+        item.setP99(toMillis(current.getP99()));
+        if (base.getP99() <= 0 || current.getP99() <= 0 || base.getCount() < MIN_TAIL_COUNT || current.getCount() < MIN_TAIL_COUNT) {
+            return;
+        }
+        double ratio = (double) current.getP99() / base.getP99();
+        item.setP99Ratio(round(ratio));
+        double tailEffect = Math.max(minEffect, MIN_TAIL_EFFECT);
+        if (ratio >= 1 + tailEffect) {
+            item.setTailVerdict(RegressionReport.Verdict.REGRESSION);
+        } else if (ratio <= 1 - tailEffect) {
+            item.setTailVerdict(RegressionReport.Verdict.IMPROVEMENT);
+        } else {
+            item.setTailVerdict(RegressionReport.Verdict.UNCHANGED);
+        }
+    }
+
+    public static BenchRun get(String id) {
+        return list(null, null, null).stream().filter(run -> id.equals(run.getId())).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("bench run not found: " + id));
+    }
+
+    @Nullable
+    private static BenchRun last(List<BenchRun> runs, @Nullable String excludeId) {
+        for (int i = runs.size() - 1; i >= 0; i--) {
+            if (!runs.get(i).getId().equals(excludeId)) {
+                return runs.get(i);
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(@Nullable String expected, @Nullable String actual) {
+        return expected == null || expected.isEmpty() || expected.equals(actual);
+    }
+
+    /**
+     * 保留到纳秒
+     */
+    private static double toMillis(double nanos) {
+        return Math.round(nanos) / 1000000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10000) / 10000.0;
+    }
+}
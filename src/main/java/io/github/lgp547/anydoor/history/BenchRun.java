@@ -0,0 +1,99 @@
+package io.github.lgp547.anydoor.history;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一次压测（sweep/compare/contention）的记录
+ */
+public class BenchRun {
+
+    private String id;
+
+    private long timestamp;
+
+    /**
+     * sweep、compare、contention、proxy
+     */
+    private String kind;
+
+    /**
+     * 方法签名，类名#方法名(参数类型)，compare 为 a vs b
+     */
+    private String method;
+
+    /**
+     * any-door 版本
+     */
+    private String version;
+
+    private String jvm;
+
+    private String tag;
+
+    private List<BenchSeries> series = new ArrayList<>();
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getJvm() {
+        return jvm;
+    }
+
+    public void setJvm(String jvm) {
+        this.jvm = jvm;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public List<BenchSeries> getSeries() {
+        return series;
+    }
+
+    public void setSeries(List<BenchSeries> series) {
+        this.series = series;
+    }
+}
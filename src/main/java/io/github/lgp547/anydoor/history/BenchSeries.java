@@ -0,0 +1,108 @@
+package io.github.lgp547.anydoor.history;
+
+import io.github.lgp547.anydoor.support.LatencySummary;
+import io.github.lgp547.anydoor.support.Statistics;
+
+import java.util.Arrays;
+
+/**
+ * 一次压测中的一组耗时（如 sweep 的一个规模、compare 的一方），保存汇总统计用于之后对比，单位纳秒
+ */
+public class BenchSeries {
+
+    private String name;
+
+    /**
+     * 参与统计的样本数
+     */
+    private long count;
+
+    private double mean;
+
+    private double stdDev;
+
+    private long p50;
+
+    /**
+     * 尾部耗时单独对比，GC、锁等待等变化常常只体现在最慢的一部分调用上，旧的记录中为 0
+     */
+    private long p99;
+
+    /**
+     * 平均值和标准差使用全部样本，不去掉慢的调用，与只有汇总的 contention 可以同样对比
+     */
+    public static BenchSeries of(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        BenchSeries series = new BenchSeries();
+        series.name = name;
+        series.count = sorted.length;
+        series.mean = Statistics.mean(sorted);
+        series.stdDev = Math.sqrt(Statistics.variance(sorted, series.mean));
+        series.p50 = sorted.length == 0 ? 0 : LatencySummary.percentile(sorted, 0.5);
+        series.p99 = sorted.length == 0 ? 0 : LatencySummary.percentile(sorted, 0.99);
+        return series;
+    }
+
+    /**
+     * 只有毫秒的汇总时（如直方图统计的 contention），精度为微秒
+     */
+    public static BenchSeries of(String name, LatencySummary summary) {
+        BenchSeries series = new BenchSeries();
+        series.name = name;
+        series.count = summary.getCount();
+        series.mean = summary.getMean() * 1000000;
+        series.stdDev = summary.getStdDev() * 1000000;
+        series.p50 = Math.round(summary.getP50() * 1000000);
+        series.p99 = Math.round(summary.getP99() * 1000000);
+        return series;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public void setMean(double mean) {
+        this.mean = mean;
+    }
+
+    public double getStdDev() {
+        return stdDev;
+    }
+
+    public void setStdDev(double stdDev) {
+        this.stdDev = stdDev;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public void setP50(long p50) {
+        this.p50 = p50;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public void setP99(long p99) {
+        this.p99 = p99;
+    }
+}
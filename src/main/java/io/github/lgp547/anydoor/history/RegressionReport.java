@@ -0,0 +1,174 @@
+package io.github.lgp547.anydoor.history;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压测记录与基线的对比结果，按同名的每组耗时（如 sweep 的每个规模）分别判断
+ */
+public class RegressionReport {
+
+    private BenchRun run;
+
+    private BenchRun baseline;
+
+    /**
+     * 任意一组的平均耗时或尾部耗时变慢
+     */
+    private boolean regression;
+
+    private final List<Item> items = new ArrayList<>();
+
+    public BenchRun getRun() {
+        return run;
+    }
+
+    void setRun(BenchRun run) {
+        this.run = run;
+    }
+
+    public BenchRun getBaseline() {
+        return baseline;
+    }
+
+    void setBaseline(BenchRun baseline) {
+        this.baseline = baseline;
+    }
+
+    public boolean isRegression() {
+        return regression;
+    }
+
+    void setRegression(boolean regression) {
+        this.regression = regression;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public enum Verdict {
+        REGRESSION, IMPROVEMENT, UNCHANGED
+    }
+
+    public static class Item {
+
+        private String name;
+
+        /**
+         * 平均耗时（毫秒）
+         */
+        private double baselineMean;
+
+        private double mean;
+
+        /**
+         * mean / baselineMean
+         */
+        private double ratio;
+
+        /**
+         * 平均耗时之差（本次 - 基线）的 95% 置信区间（毫秒）
+         */
+        private double[] meanDiffInterval;
+
+        private Verdict verdict;
+
+        /**
+         * p99 耗时（毫秒），旧的记录中没有时为 0
+         */
+        private double baselineP99;
+
+        private double p99;
+
+        /**
+         * p99 / baselineP99
+         */
+        private double p99Ratio;
+
+        /**
+         * 按 p99 单独判断，平均值不变时尾部也可能变慢；样本不足或没有 p99 时为空
+         */
+        private Verdict tailVerdict;
+
+        public String getName() {
+            return name;
+        }
+
+        void setName(String name) {
+            this.name = name;
+        }
+
+        public double getBaselineMean() {
+            return baselineMean;
+        }
+
+        void setBaselineMean(double baselineMean) {
+            this.baselineMean = baselineMean;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        void setMean(double mean) {
+            this.mean = mean;
+        }
+
+        public double getRatio() {
+            return ratio;
+        }
+
+        void setRatio(double ratio) {
+            this.ratio = ratio;
+        }
+
+        public double[] getMeanDiffInterval() {
+            return meanDiffInterval;
+        }
+
+        void setMeanDiffInterval(double[] meanDiffInterval) {
+            this.meanDiffInterval = meanDiffInterval;
+        }
+
+        public Verdict getVerdict() {
+            return verdict;
+        }
+
+        void setVerdict(Verdict verdict) {
+            this.verdict = verdict;
+        }
+
+        public double getBaselineP99() {
+            return baselineP99;
+        }
+
+        void setBaselineP99(double baselineP99) {
+            this.baselineP99 = baselineP99;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        void setP99(double p99) {
+            this.p99 = p99;
+        }
+
+        public double getP99Ratio() {
+            return p99Ratio;
+        }
+
+        void setP99Ratio(double p99Ratio) {
+            this.p99Ratio = p99Ratio;
+        }
+
+        public Verdict getTailVerdict() {
+            return tailVerdict;
+        }
+
+        void setTailVerdict(Verdict tailVerdict) {
+            this.tailVerdict = tailVerdict;
+        }
+    }
+}
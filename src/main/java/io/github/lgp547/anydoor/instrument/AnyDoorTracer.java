@@ -0,0 +1,93 @@
+package io.github.lgp547.anydoor.instrument;
+
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.asm.Type;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.util.ClassUtils;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单次调用的调用树追踪：调用前对目标方法可达的类插入探针并 retransform，调用后移除探针并再次 retransform 恢复原字节码。
+ * 同一时间只允许一个追踪
+ */
+public class AnyDoorTracer {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorTracer.class);
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private final Instrumentation instrumentation;
+
+    private final MethodProbeTransformer transformer;
+
+    private final Class<?>[] classes;
+
+    private AnyDoorTracer(Instrumentation instrumentation, MethodProbeTransformer transformer, Class<?>[] classes) {
+        this.instrumentation = instrumentation;
+        this.transformer = transformer;
+        this.classes = classes;
+    }
+
+    /**
+     * 追踪范围为 any-door.trace.packages 下的类，默认是目标类所在的包
+     */
+    public static AnyDoorTracer start(Method method) {
+        Instrumentation instrumentation = InstrumentationHolder.get();
+        if (!LOCK.tryLock()) {
+            throw new IllegalArgumentException("another trace is running");
+        }
+        try {
+            Class<?> targetClass = ClassUtils.getUserClass(method.getDeclaringClass());
+            String packageName = ClassUtils.getPackageName(targetClass);
+            List<String> packages = SpringUtil.getProperty("any-door.trace.packages", Bindable.listOf(String.class),
+                    Collections.singletonList(packageName.isEmpty() ? targetClass.getName() : packageName + "."));
+            int maxMethods = SpringUtil.getProperty("any-door.trace.max-methods", Integer.class, 500);
+            CallGraphScanner scanner = new CallGraphScanner(instrumentation, packages, maxMethods, targetClass.getClassLoader()).scan(method);
+
+            Map<String, Map<String, Integer>> targets = new HashMap<>();
+            scanner.getMethods().forEach((clazz, methods) -> targets.put(Type.getInternalName(clazz), methods));
+            MethodProbeTransformer transformer = new MethodProbeTransformer(TraceProbe.class, targets);
+            Class<?>[] classes = scanner.getMethods().keySet().toArray(new Class<?>[0]);
+            TraceProbe.start(Thread.currentThread(), scanner.getNames().toArray(new String[0]));
+            AnyDoorTracer tracer = new AnyDoorTracer(instrumentation, transformer, classes);
+            instrumentation.addTransformer(transformer, true);
+            tracer.retransform();
+            log.info("any-door trace {} methods in {} classes", scanner.getNames().size(), classes.length);
+            return tracer;
+        } catch (RuntimeException | Error e) {
+            TraceProbe.stop();
+            LOCK.unlock();
+            throw e;
+        }
+    }
+
+    public CallTreeNode stop() {
+        try {
+            instrumentation.removeTransformer(transformer);
+            retransform();
+            return TraceProbe.stop();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private void retransform() {
+        if (classes.length == 0) {
+            return;
+        }
+        try {
+            instrumentation.retransformClasses(classes);
+        } catch (Throwable e) {
+            log.warn("any-door trace retransform fail", e);
+        }
+    }
+}
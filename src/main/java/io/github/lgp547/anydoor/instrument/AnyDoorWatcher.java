@@ -0,0 +1,140 @@
+package io.github.lgp547.anydoor.instrument;
+
+import io.github.lgp547.anydoor.dto.WatchDto;
+import io.github.lgp547.anydoor.util.AopUtil;
+import io.github.lgp547.anydoor.util.ClassUtil;
+import io.github.lgp547.anydoor.util.JsonUtil;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.asm.Type;
+import org.springframework.util.ClassUtils;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 观察线上真实调用的耗时分布：对方法插入计时探针，到达时长或次数后移除探针并保留结果
+ */
+public class AnyDoorWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorWatcher.class);
+
+    /**
+     * 保留的已结束观察数
+     */
+    private static final int KEEP_FINISHED = 20;
+
+    private static final AtomicLong ID = new AtomicLong();
+
+    private static final Map<Long, WatchSession> SESSIONS = new ConcurrentSkipListMap<>();
+
+    public static WatchSession start(WatchDto watchDto) {
+        watchDto.verify();
+        Class<?> clazz = ClassUtil.forName(watchDto.getClassName());
+        if (SpringUtil.containsBean(clazz)) {
+            clazz = AopUtil.getTargetClass(SpringUtil.getBean(clazz));
+        }
+        Method method = ClassUtil.getMethod(clazz, watchDto.getMethodName(), watchDto.getParameterTypes());
+        long duration = watchDto.getDuration() != null ? watchDto.getDuration()
+                : SpringUtil.getProperty("any-door.watch.duration", Duration.class, Duration.ofMinutes(1)).toMillis();
+        return start(method, duration, watchDto.getCount() == null ? 0 : watchDto.getCount());
+    }
+
+    /**
+     * @param limit 记录多少次后结束，0 不限制
+     */
+    public static WatchSession start(Method method, long durationMillis, long limit) {
+        Instrumentation instrumentation = InstrumentationHolder.get();
+        Class<?> targetClass = ClassUtils.getUserClass(method.getDeclaringClass());
+        if (!instrumentation.isModifiableClass(targetClass)) {
+            throw new IllegalArgumentException("class can not be modified: " + targetClass.getName());
+        }
+        WatchSession session = new WatchSession(ID.incrementAndGet(), targetClass.getName() + "#" + method.getName(), durationMillis, limit);
+        int slot = WatchProbe.register(session);
+        if (slot < 0) {
+            throw new IllegalArgumentException("too many watches, max " + WatchProbe.MAX_WATCHES);
+        }
+        session.setSlot(slot);
+        MethodProbeTransformer transformer = new MethodProbeTransformer(WatchProbe.class, Collections.singletonMap(
+                Type.getInternalName(targetClass), Collections.singletonMap(method.getName() + Type.getMethodDescriptor(method), slot)));
+        instrumentation.addTransformer(transformer, true);
+        try {
+            instrumentation.retransformClasses(targetClass);
+        } catch (Throwable e) {
+            // 转换失败时类没有被修改，可以直接释放槽位
+            instrumentation.removeTransformer(transformer);
+            WatchProbe.unregister(slot, session);
+            throw new IllegalArgumentException("retransform fail: " + targetClass.getName(), e);
+        }
+        SESSIONS.put(session.getId(), session);
+        Thread thread = new Thread(() -> {
+            try {
+                session.getDone().await(durationMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            session.stopRecording();
+            instrumentation.removeTransformer(transformer);
+            try {
+                instrumentation.retransformClasses(targetClass);
+                // 恢复前被观察的方法仍会调用该槽位，恢复成功后才释放
+                WatchProbe.unregister(slot, session);
+            } catch (Throwable e) {
+                log.warn("any-door watch restore {} fail, slot {} stays reserved", targetClass.getName(), slot, e);
+            }
+            session.finish();
+            log.info("any-door watch {} finished, latency(ms): {}", session.getMethod(), JsonUtil.toStrNotExc(session.getLatency()));
+            removeFinished();
+        }, "any-door-watch-" + session.getId());
+        thread.setDaemon(true);
+        thread.start();
+        log.info("any-door watch {} start, duration {}ms, count {}", session.getMethod(), durationMillis, limit);
+        return session;
+    }
+
+    /**
+     * 提前结束观察
+     */
+    public static WatchSession stop(long id) {
+        WatchSession session = SESSIONS.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("watch not found: " + id);
+        }
+        session.getDone().countDown();
+        return session;
+    }
+
+    public static WatchSession get(long id) {
+        return SESSIONS.get(id);
+    }
+
+    public static List<WatchSession> list() {
+        return new ArrayList<>(SESSIONS.values());
+    }
+
+    private static void removeFinished() {
+        int finished = 0;
+        for (WatchSession session : SESSIONS.values()) {
+            if (WatchSession.STATE_FINISHED.equals(session.getState())) {
+                finished++;
+            }
+        }
+        Iterator<WatchSession> iterator = SESSIONS.values().iterator();
+        while (finished > KEEP_FINISHED && iterator.hasNext()) {
+            if (WatchSession.STATE_FINISHED.equals(iterator.next().getState())) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+}
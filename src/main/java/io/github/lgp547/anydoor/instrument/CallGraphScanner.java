@@ -0,0 +1,228 @@
+package io.github.lgp547.anydoor.instrument;
+
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.Handle;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.asm.Type;
+
+import java.io.InputStream;
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 从目标方法出发，按字节码中的方法调用（含 lambda 的实现方法）广度遍历可达方法，只保留指定包前缀下的类。
+ * 虚方法/接口调用会加入已加载的、在包前缀下的子类实现；代理类（类名包含 $$）不处理
+ */
+public class CallGraphScanner {
+
+    private final Instrumentation instrumentation;
+
+    private final List<String> packages = new ArrayList<>();
+
+    private final int maxMethods;
+
+    private final ClassLoader loader;
+
+    private final Map<String, ClassInfo> classInfos = new HashMap<>();
+
+    /**
+     * 子类实现的候选：已加载的类，以及扫描过程中遇到的类（如调用前还没加载过的实现类）
+     */
+    private Set<Class<?>> candidates;
+
+    /**
+     * 扫描结果：类 -> 方法名+描述符 -> 探针id
+     */
+    private final Map<Class<?>, Map<String, Integer>> methods = new LinkedHashMap<>();
+
+    /**
+     * 探针id -> 类名#方法名
+     */
+    private final List<String> names = new ArrayList<>();
+
+    public CallGraphScanner(Instrumentation instrumentation, List<String> packages, int maxMethods, ClassLoader loader) {
+        this.instrumentation = instrumentation;
+        for (String pkg : packages) {
+            this.packages.add(pkg.replace('.', '/'));
+        }
+        this.maxMethods = maxMethods;
+        this.loader = loader;
+    }
+
+    public CallGraphScanner scan(Method method) {
+        Deque<String[]> queue = new ArrayDeque<>();
+        Set<String> visited = new HashSet<>();
+        queue.add(new String[]{Type.getInternalName(method.getDeclaringClass()), method.getName(), Type.getMethodDescriptor(method)});
+        while (!queue.isEmpty() && names.size() < maxMethods) {
+            String[] ref = queue.poll();
+            if (!visited.add(ref[0] + '.' + ref[1] + ref[2]) || !inPackages(ref[0])) {
+                continue;
+            }
+            for (String owner : implementations(ref[0], ref[1] + ref[2])) {
+                ClassInfo info = classInfo(owner);
+                List<String[]> calls = info.methods.get(ref[1] + ref[2]);
+                if (calls == null || !visited.add(owner + '#' + ref[1] + ref[2])) {
+                    continue;
+                }
+                if (!info.probeable.contains(ref[1] + ref[2])) {
+                    queue.addAll(calls);
+                    continue;
+                }
+                methods.computeIfAbsent(info.clazz, k -> new LinkedHashMap<>()).put(ref[1] + ref[2], names.size());
+                names.add(info.clazz.getSimpleName() + "#" + ref[1]);
+                queue.addAll(calls);
+                if (names.size() >= maxMethods) {
+                    break;
+                }
+            }
+        }
+        return this;
+    }
+
+    public Map<Class<?>, Map<String, Integer>> getMethods() {
+        return methods;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * 声明了该方法的类：调用的类及其父类中最近的声明，加上已加载的子类中的重写
+     */
+    private List<String> implementations(String owner, String method) {
+        List<String> owners = new ArrayList<>();
+        Class<?> ownerClass = loadClass(owner);
+        if (ownerClass == null) {
+            return owners;
+        }
+        for (Class<?> c = ownerClass; c != null && inPackages(Type.getInternalName(c)); c = c.getSuperclass()) {
+            if (classInfo(Type.getInternalName(c)).methods.containsKey(method)) {
+                owners.add(Type.getInternalName(c));
+                break;
+            }
+        }
+        if (ownerClass.isInterface() || !Modifier.isFinal(ownerClass.getModifiers())) {
+            for (Class<?> c : new ArrayList<>(candidates())) {
+                if (c != ownerClass && ownerClass.isAssignableFrom(c) && classInfo(Type.getInternalName(c)).methods.containsKey(method)) {
+                    owners.add(Type.getInternalName(c));
+                }
+            }
+        }
+        return owners;
+    }
+
+    private Set<Class<?>> candidates() {
+        if (candidates == null) {
+            candidates = new LinkedHashSet<>();
+            for (Class<?> c : instrumentation.getAllLoadedClasses()) {
+                addCandidate(c);
+            }
+        }
+        return candidates;
+    }
+
+    private void addCandidate(Class<?> c) {
+        if (!c.isArray() && !c.isInterface() && !c.isSynthetic() && inPackages(Type.getInternalName(c))
+                && instrumentation.isModifiableClass(c)) {
+            candidates.add(c);
+        }
+    }
+
+    private boolean inPackages(String internalName) {
+        if (internalName.contains("$$")) {
+            return false;
+        }
+        for (String pkg : packages) {
+            if (internalName.startsWith(pkg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Class<?> loadClass(String internalName) {
+        try {
+            Class<?> c = Class.forName(internalName.replace('/', '.'), false, loader);
+            if (candidates != null) {
+                addCandidate(c);
+            }
+            return c;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private ClassInfo classInfo(String internalName) {
+        return classInfos.computeIfAbsent(internalName, this::readClass);
+    }
+
+    private ClassInfo readClass(String internalName) {
+        ClassInfo info = new ClassInfo();
+        info.clazz = loadClass(internalName);
+        if (info.clazz == null || !instrumentation.isModifiableClass(info.clazz)) {
+            return info;
+        }
+        ClassLoader classLoader = info.clazz.getClassLoader() != null ? info.clazz.getClassLoader() : ClassLoader.getSystemClassLoader();
+        try (InputStream in = classLoader.getResourceAsStream(internalName + ".class")) {
+            if (in == null) {
+                return info;
+            }
+            new ClassReader(in).accept(new ClassVisitor(SpringAsmInfo.ASM_VERSION) {
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                    List<String[]> calls = new ArrayList<>();
+                    info.methods.put(name + descriptor, calls);
+                    if (!name.startsWith("<") && (access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE | Opcodes.ACC_BRIDGE)) == 0) {
+                        info.probeable.add(name + descriptor);
+                    }
+                    return new MethodVisitor(SpringAsmInfo.ASM_VERSION) {
+                        @Override
+                        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+                            calls.add(new String[]{owner, name, descriptor});
+                        }
+
+                        @Override
+                        public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
+                            for (Object arg : bootstrapMethodArguments) {
+                                if (arg instanceof Handle) {
+                                    Handle handle = (Handle) arg;
+                                    calls.add(new String[]{handle.getOwner(), handle.getName(), handle.getDesc()});
+                                }
+                            }
+                        }
+                    };
+                }
+            }, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+        } catch (Exception e) {
+            // 读取不到字节码的类不追踪
+        }
+        return info;
+    }
+
+    private static class ClassInfo {
+
+        private Class<?> clazz;
+
+        /**
+         * 方法名+描述符 -> 方法内的调用
+         */
+        private final Map<String, List<String[]>> methods = new HashMap<>();
+
+        private final Set<String> probeable = new LinkedHashSet<>();
+    }
+}
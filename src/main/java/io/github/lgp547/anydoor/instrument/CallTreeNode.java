@@ -0,0 +1,91 @@
+package io.github.lgp547.anydoor.instrument;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 调用树节点，同一父节点下相同方法的多次调用合并为一个节点，时间单位毫秒
+ */
+public class CallTreeNode {
+
+    @JsonIgnore
+    private final int id;
+
+    @JsonIgnore
+    private final CallTreeNode parent;
+
+    private final String method;
+
+    private long count;
+
+    @JsonIgnore
+    private long totalNanos;
+
+    private final List<CallTreeNode> children = new ArrayList<>();
+
+    CallTreeNode(int id, String method, CallTreeNode parent) {
+        this.id = id;
+        this.method = method;
+        this.parent = parent;
+    }
+
+    CallTreeNode child(int id, String method) {
+        for (CallTreeNode child : children) {
+            if (child.id == id) {
+                return child;
+            }
+        }
+        CallTreeNode child = new CallTreeNode(id, method, this);
+        children.add(child);
+        return child;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    CallTreeNode getParent() {
+        return parent;
+    }
+
+    void addCount() {
+        count++;
+    }
+
+    void addNanos(long nanos) {
+        totalNanos += nanos;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotal() {
+        return toMillis(totalNanos);
+    }
+
+    /**
+     * 自身耗时，即总耗时减去子调用耗时
+     */
+    public double getSelf() {
+        long childNanos = 0;
+        for (CallTreeNode child : children) {
+            childNanos += child.totalNanos;
+        }
+        return toMillis(Math.max(0, totalNanos - childNanos));
+    }
+
+    public List<CallTreeNode> getChildren() {
+        return children;
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.lgp547.anydoor.instrument;
+
+import java.lang.instrument.Instrumentation;
+
+/**
+ * 保存 agent 拿到的 Instrumentation，通过 attach（agentmain）或 -javaagent（premain）加载 any-door 后可用
+ */
+public class InstrumentationHolder {
+
+    private static volatile Instrumentation instrumentation;
+
+    public static void set(Instrumentation instrumentation) {
+        if (instrumentation != null) {
+            InstrumentationHolder.instrumentation = instrumentation;
+        }
+    }
+
+    public static boolean isAvailable() {
+        return instrumentation != null;
+    }
+
+    /**
+     * 只需要 getObjectSize 等不涉及类转换的能力时使用
+     *
+     * @return 没有加载 agent 时为 null
+     */
+    public static Instrumentation getIfAvailable() {
+        return instrumentation;
+    }
+
+    public static Instrumentation get() {
+        Instrumentation inst = instrumentation;
+        if (inst == null) {
+            throw new IllegalArgumentException("instrumentation not available, attach any-door agent first (agentmain or -javaagent)");
+        }
+        if (!inst.isRetransformClassesSupported()) {
+            throw new IllegalArgumentException("retransform classes not supported, check Can-Retransform-Classes in agent manifest");
+        }
+        return inst;
+    }
+}
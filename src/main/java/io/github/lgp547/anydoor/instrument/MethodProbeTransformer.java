@@ -0,0 +1,192 @@
+package io.github.lgp547.anydoor.instrument;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.asm.Type;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 在指定方法的入口及所有出口（包括异常）插入探针：
+ * <pre>
+ * long start = Probe.enter(id);
+ * try { 原方法 } finally { Probe.exit(id, start); }
+ * </pre>
+ * Probe 为任意有 {@code static long enter(int)} 和 {@code static void exit(int, long)} 的类，
+ * 构造方法、静态初始化、抽象及 native 方法不处理。移除 transformer 后再次 retransform 即恢复原字节码
+ */
+public class MethodProbeTransformer implements ClassFileTransformer {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodProbeTransformer.class);
+
+    private final Class<?> probeClass;
+
+    private final String probeOwner;
+
+    /**
+     * 类的内部名（a/b/C） -> 方法名+描述符 -> 探针id
+     */
+    private final Map<String, Map<String, Integer>> targets;
+
+    public MethodProbeTransformer(Class<?> probeClass, Map<String, Map<String, Integer>> targets) {
+        this.probeClass = probeClass;
+        this.probeOwner = Type.getInternalName(probeClass);
+        this.targets = targets;
+    }
+
+    @Override
+    public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
+                            ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+        Map<String, Integer> methods = className == null ? null : targets.get(className);
+        if (methods == null || !isProbeVisible(loader)) {
+            return null;
+        }
+        try {
+            ClassReader classReader = new ClassReader(classfileBuffer);
+            Map<String, Integer> maxLocals = readMaxLocals(classReader);
+            ClassWriter classWriter = new LoaderClassWriter(classReader, loader);
+            classReader.accept(new ClassVisitor(SpringAsmInfo.ASM_VERSION, classWriter) {
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                    MethodVisitor methodVisitor = super.visitMethod(access, name, descriptor, signature, exceptions);
+                    Integer id = methods.get(name + descriptor);
+                    if (id == null || name.startsWith("<") || (access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) != 0) {
+                        return methodVisitor;
+                    }
+                    return new ProbeMethodVisitor(methodVisitor, id, maxLocals.getOrDefault(name + descriptor, 0));
+                }
+            }, ClassReader.EXPAND_FRAMES);
+            return classWriter.toByteArray();
+        } catch (Throwable e) {
+            log.warn("any-door probe transform {} fail, skip", className, e);
+            return null;
+        }
+    }
+
+    /**
+     * 探针类必须能被目标类的类加载器加载到同一个类，否则插入的调用会 NoClassDefFoundError
+     */
+    private boolean isProbeVisible(ClassLoader loader) {
+        try {
+            return Class.forName(probeClass.getName(), false, loader) == probeClass;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private static Map<String, Integer> readMaxLocals(ClassReader classReader) {
+        Map<String, Integer> maxLocals = new HashMap<>();
+        classReader.accept(new ClassVisitor(SpringAsmInfo.ASM_VERSION) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                return new MethodVisitor(SpringAsmInfo.ASM_VERSION) {
+                    @Override
+                    public void visitMaxs(int maxStack, int maxLocal) {
+                        maxLocals.put(name + descriptor, maxLocal);
+                    }
+                };
+            }
+        }, ClassReader.SKIP_FRAMES);
+        return maxLocals;
+    }
+
+    private class ProbeMethodVisitor extends MethodVisitor {
+
+        private final int id;
+
+        /**
+         * 存放 enter 返回值的局部变量，放在原方法所有局部变量之后，不会冲突
+         */
+        private final int startLocal;
+
+        private final Label tryStart = new Label();
+
+        ProbeMethodVisitor(MethodVisitor methodVisitor, int id, int maxLocals) {
+            super(SpringAsmInfo.ASM_VERSION, methodVisitor);
+            this.id = id;
+            this.startLocal = maxLocals;
+        }
+
+        @Override
+        public void visitCode() {
+            super.visitCode();
+            super.visitLdcInsn(id);
+            super.visitMethodInsn(Opcodes.INVOKESTATIC, probeOwner, "enter", "(I)J", false);
+            super.visitVarInsn(Opcodes.LSTORE, startLocal);
+            super.visitLabel(tryStart);
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            if (opcode >= Opcodes.IRETURN && opcode <= Opcodes.RETURN) {
+                exitProbe();
+            }
+            super.visitInsn(opcode);
+        }
+
+        @Override
+        public void visitMaxs(int maxStack, int maxLocals) {
+            // 异常出口：放在最后，原方法自己的 catch 优先匹配
+            Label tryEnd = new Label();
+            Label handler = new Label();
+            super.visitLabel(tryEnd);
+            super.visitTryCatchBlock(tryStart, tryEnd, handler, null);
+            super.visitLabel(handler);
+            exitProbe();
+            super.visitInsn(Opcodes.ATHROW);
+            super.visitMaxs(maxStack + 4, Math.max(maxLocals, startLocal + 2));
+        }
+
+        private void exitProbe() {
+            super.visitLdcInsn(id);
+            super.visitVarInsn(Opcodes.LLOAD, startLocal);
+            super.visitMethodInsn(Opcodes.INVOKESTATIC, probeOwner, "exit", "(IJ)V", false);
+        }
+    }
+
+    /**
+     * COMPUTE_FRAMES 需要计算公共父类，使用目标类的类加载器，加载不到时退化为 Object
+     */
+    private static class LoaderClassWriter extends ClassWriter {
+
+        private final ClassLoader loader;
+
+        LoaderClassWriter(ClassReader classReader, ClassLoader loader) {
+            super(classReader, ClassWriter.COMPUTE_FRAMES);
+            this.loader = loader;
+        }
+
+        @Override
+        protected String getCommonSuperClass(String type1, String type2) {
+            try {
+                Class<?> class1 = Class.forName(type1.replace('/', '.'), false, loader);
+                Class<?> class2 = Class.forName(type2.replace('/', '.'), false, loader);
+                if (class1.isAssignableFrom(class2)) {
+                    return type1;
+                }
+                if (class2.isAssignableFrom(class1)) {
+                    return type2;
+                }
+                if (class1.isInterface() || class2.isInterface()) {
+                    return "java/lang/Object";
+                }
+                do {
+                    class1 = class1.getSuperclass();
+                } while (!class1.isAssignableFrom(class2));
+                return Type.getInternalName(class1);
+            } catch (Throwable e) {
+                return "java/lang/Object";
+            }
+        }
+    }
+}
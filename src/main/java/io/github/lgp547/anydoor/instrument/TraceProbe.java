@@ -0,0 +1,64 @@
+package io.github.lgp547.anydoor.instrument;
+
+/**
+ * 插入到被追踪方法中的探针，只在发起追踪的线程上记录，其他线程调用时只有一次 volatile 读
+ */
+public class TraceProbe {
+
+    /**
+     * enter 返回相对该时间的纳秒数，总是大于0，0 专门表示没有记录；System.nanoTime() 本身可能是0或负数，不能直接作为标记
+     */
+    private static final long ORIGIN = System.nanoTime() - 1;
+
+    private static volatile Thread tracingThread;
+
+    private static String[] names;
+
+    private static CallTreeNode root;
+
+    private static CallTreeNode current;
+
+    static void start(Thread thread, String[] methodNames) {
+        names = methodNames;
+        root = new CallTreeNode(-1, "root", null);
+        current = root;
+        tracingThread = thread;
+    }
+
+    static CallTreeNode stop() {
+        tracingThread = null;
+        CallTreeNode result = root;
+        root = null;
+        current = null;
+        if (result == null) {
+            return null;
+        }
+        return result.getChildren().size() == 1 ? result.getChildren().get(0) : result;
+    }
+
+    public static long enter(int id) {
+        if (Thread.currentThread() != tracingThread) {
+            return 0;
+        }
+        current = current.child(id, names[id]);
+        current.addCount();
+        return System.nanoTime() - ORIGIN;
+    }
+
+    public static void exit(int id, long start) {
+        if (start == 0 || Thread.currentThread() != tracingThread) {
+            return;
+        }
+        long nanos = System.nanoTime() - ORIGIN - start;
+        // 节点不在当前路径上（如异常跳出了多层）时，向上找到对应的节点
+        CallTreeNode node = current;
+        while (node != null && node.getId() != id) {
+            node = node.getParent();
+        }
+        if (node == null || node == root) {
+            return;
+        }
+        node.addNanos(nanos);
+        current = node.getParent();
+    }
+}
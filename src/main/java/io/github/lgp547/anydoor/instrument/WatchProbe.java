@@ -0,0 +1,59 @@
+package io.github.lgp547.anydoor.instrument;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 插入到被观察方法中的探针，按槽位找到对应的观察，槽位为空（观察已结束）时只有一次 volatile 读
+ * <p>
+ * 槽位在原字节码恢复后才释放；恢复前已经进入、恢复后才返回的旧调用，开始时间早于复用该槽位的新观察的注册时间，不会计入新观察
+ */
+public class WatchProbe {
+
+    static final int MAX_WATCHES = 64;
+
+    /**
+     * enter 返回相对该时间的纳秒数，总是大于0，0 表示没有记录
+     */
+    private static final long ORIGIN = System.nanoTime() - 1;
+
+    private static final AtomicReferenceArray<WatchSession> SESSIONS = new AtomicReferenceArray<>(MAX_WATCHES);
+
+    public static long enter(int slot) {
+        WatchSession session = SESSIONS.get(slot);
+        return session != null && session.isRecording() ? System.nanoTime() - ORIGIN : 0;
+    }
+
+    public static void exit(int slot, long start) {
+        if (start == 0) {
+            return;
+        }
+        WatchSession session = SESSIONS.get(slot);
+        if (session != null && start >= session.getRegisterNanos()) {
+            session.record(System.nanoTime() - ORIGIN - start);
+        }
+    }
+
+    /**
+     * @return 分配到的槽位，没有空闲槽位时为 -1
+     */
+    static int register(WatchSession session) {
+        for (int i = 0; i < MAX_WATCHES; i++) {
+            if (SESSIONS.get(i) != null) {
+                continue;
+            }
+            // 在确认槽位为空之后取时间，之前使用该槽位的调用开始时间都早于它
+            session.setRegisterNanos(System.nanoTime() - ORIGIN);
+            if (SESSIONS.compareAndSet(i, null, session)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 只能在被观察方法的原字节码恢复后调用
+     */
+    static void unregister(int slot, WatchSession session) {
+        SESSIONS.compareAndSet(slot, session, null);
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.lgp547.anydoor.instrument;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.github.lgp547.anydoor.support.LatencySummary;
+import io.github.lgp547.anydoor.support.StripedHistogram;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一次方法观察，记录期间每次调用的耗时
+ */
+public class WatchSession {
+
+    public static final String STATE_RUNNING = "running";
+
+    public static final String STATE_FINISHED = "finished";
+
+    private final long id;
+
+    private final String method;
+
+    private final long durationMillis;
+
+    private final long limit;
+
+    private final long startTime = System.currentTimeMillis();
+
+    private volatile long endTime;
+
+    private volatile String state = STATE_RUNNING;
+
+    @JsonIgnore
+    private final StripedHistogram histogram = new StripedHistogram();
+
+    /**
+     * 只有设置了 count 时才计数，避免不限次数时所有线程竞争同一个计数器
+     */
+    @JsonIgnore
+    private final AtomicLong recorded = new AtomicLong();
+
+    @JsonIgnore
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    @JsonIgnore
+    private volatile int slot = -1;
+
+    @JsonIgnore
+    private volatile long registerNanos;
+
+    /**
+     * 达到次数或观察结束后不再记录，槽位仍然保留到原字节码恢复
+     */
+    @JsonIgnore
+    private volatile boolean recording = true;
+
+    WatchSession(long id, String method, long durationMillis, long limit) {
+        this.id = id;
+        this.method = method;
+        this.durationMillis = durationMillis;
+        this.limit = limit;
+    }
+
+    void record(long nanos) {
+        if (!recording) {
+            return;
+        }
+        histogram.record(nanos);
+        if (limit > 0 && recorded.incrementAndGet() == limit) {
+            recording = false;
+            done.countDown();
+        }
+    }
+
+    boolean isRecording() {
+        return recording;
+    }
+
+    void stopRecording() {
+        recording = false;
+    }
+
+    void setRegisterNanos(long registerNanos) {
+        this.registerNanos = registerNanos;
+    }
+
+    long getRegisterNanos() {
+        return registerNanos;
+    }
+
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    CountDownLatch getDone() {
+        return done;
+    }
+
+    void finish() {
+        endTime = System.currentTimeMillis();
+        state = STATE_FINISHED;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    /**
+     * @return 到目前为止的耗时分布（毫秒），观察中也可以查看
+     */
+    public LatencySummary getLatency() {
+        return histogram.summary();
+    }
+}
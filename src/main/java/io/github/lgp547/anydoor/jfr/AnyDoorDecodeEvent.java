@@ -0,0 +1,11 @@
+package io.github.lgp547.anydoor.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.github.lgp547.anydoor.Decode")
+@Label("Any-door Decode")
+@Description("解析入参")
+class AnyDoorDecodeEvent extends AnyDoorPhaseEvent {
+}
@@ -0,0 +1,11 @@
+package io.github.lgp547.anydoor.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.github.lgp547.anydoor.Invoke")
+@Label("Any-door Invoke")
+@Description("执行方法")
+class AnyDoorInvokeEvent extends AnyDoorPhaseEvent {
+}
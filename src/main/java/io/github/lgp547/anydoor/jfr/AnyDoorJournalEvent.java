@@ -0,0 +1,11 @@
+package io.github.lgp547.anydoor.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.github.lgp547.anydoor.Journal")
+@Label("Any-door Journal")
+@Description("记录调用日志时序列化入参和结果")
+class AnyDoorJournalEvent extends AnyDoorPhaseEvent {
+}
@@ -0,0 +1,20 @@
+package io.github.lgp547.anydoor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * any-door 各阶段的JFR事件，只有运行时存在 jdk.jfr 时才会加载
+ */
+@Category("Any-door")
+@StackTrace(false)
+abstract class AnyDoorPhaseEvent extends Event {
+
+    @Label("Class Name")
+    String className;
+
+    @Label("Method Name")
+    String methodName;
+}
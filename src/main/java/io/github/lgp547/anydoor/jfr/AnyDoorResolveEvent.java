@@ -0,0 +1,11 @@
+package io.github.lgp547.anydoor.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.github.lgp547.anydoor.Resolve")
+@Label("Any-door Resolve")
+@Description("解析要执行的对象及方法")
+class AnyDoorResolveEvent extends AnyDoorPhaseEvent {
+}
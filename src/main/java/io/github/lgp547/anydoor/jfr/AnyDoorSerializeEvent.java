@@ -0,0 +1,11 @@
+package io.github.lgp547.anydoor.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.github.lgp547.anydoor.Serialize")
+@Label("Any-door Serialize")
+@Description("序列化返回结果")
+class AnyDoorSerializeEvent extends AnyDoorPhaseEvent {
+}
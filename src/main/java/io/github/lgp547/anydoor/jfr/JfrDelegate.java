@@ -0,0 +1,63 @@
+package io.github.lgp547.anydoor.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * 直接引用 jdk.jfr 的代码都在这里，由 {@link JfrSupport} 在确认 jdk.jfr 存在后才调用
+ */
+class JfrDelegate {
+
+    static AnyDoorPhaseEvent begin(String phase, String className, String methodName) {
+        AnyDoorPhaseEvent event;
+        switch (phase) {
+            case JfrSupport.RESOLVE:
+                event = new AnyDoorResolveEvent();
+                break;
+            case JfrSupport.DECODE:
+                event = new AnyDoorDecodeEvent();
+                break;
+            case JfrSupport.INVOKE:
+                event = new AnyDoorInvokeEvent();
+                break;
+            case JfrSupport.JOURNAL:
+                event = new AnyDoorJournalEvent();
+                break;
+            default:
+                event = new AnyDoorSerializeEvent();
+                break;
+        }
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.className = className;
+        event.methodName = methodName;
+        event.begin();
+        return event;
+    }
+
+    static void commit(Object event) {
+        ((AnyDoorPhaseEvent) event).commit();
+    }
+
+    static Recording startRecording(String settings, String name) throws IOException, ParseException {
+        Recording recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName(name);
+        recording.start();
+        return recording;
+    }
+
+    static void stopRecording(Object recording, Path path) throws IOException {
+        Recording jfrRecording = (Recording) recording;
+        try {
+            jfrRecording.stop();
+            jfrRecording.dump(path);
+        } finally {
+            jfrRecording.close();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.lgp547.anydoor.jfr;
+
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * JFR支持，项目编译目标是jdk8，运行时没有 jdk.jfr（低于 8u262）时所有方法都是空操作
+ * <p>
+ * 每次调用都会提交 resolve/decode/invoke/serialize 阶段事件，开启调用日志时还有 journal 事件（事件名 io.github.lgp547.anydoor.*），没有录制时开销可忽略
+ * any-door.jfr.settings 单次调用录制使用的配置，默认 profile
+ * any-door.jfr.dir      录制文件目录，默认 ${java.io.tmpdir}
+ */
+public class JfrSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrSupport.class);
+
+    public static final String RESOLVE = "resolve";
+
+    public static final String DECODE = "decode";
+
+    public static final String INVOKE = "invoke";
+
+    public static final String SERIALIZE = "serialize";
+
+    /**
+     * 记录调用日志时的序列化，与返回结果的序列化分开
+     */
+    public static final String JOURNAL = "journal";
+
+    private static final boolean available = isJfrPresent();
+
+    public static boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * @return 阶段事件，没有开启对应事件时为null
+     */
+    @Nullable
+    public static Object begin(String phase, AnyDoorDto anyDoorDto) {
+        if (!available) {
+            return null;
+        }
+        try {
+            return JfrDelegate.begin(phase, anyDoorDto.getClassName(), anyDoorDto.getMethodName());
+        } catch (Throwable e) {
+            log.debug("any-door jfr event begin exception", e);
+            return null;
+        }
+    }
+
+    public static void commit(@Nullable Object event) {
+        if (event != null) {
+            JfrDelegate.commit(event);
+        }
+    }
+
+    /**
+     * 开始只针对一次调用的录制
+     */
+    public static Object startRecording(AnyDoorDto anyDoorDto) {
+        if (!available) {
+            throw new IllegalArgumentException("jfr is not available in this jvm");
+        }
+        String settings = SpringUtil.getProperty("any-door.jfr.settings", String.class, "profile");
+        try {
+            return JfrDelegate.startRecording(settings, "any-door " + anyDoorDto.getClassName() + "#" + anyDoorDto.getMethodName());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("start jfr recording exception, settings " + settings, e);
+        }
+    }
+
+    /**
+     * @return 录制文件路径，失败时为null
+     */
+    @Nullable
+    public static String stopRecording(Object recording, AnyDoorDto anyDoorDto) {
+        try {
+            Path dir = Paths.get(SpringUtil.getProperty("any-door.jfr.dir", String.class, System.getProperty("java.io.tmpdir")));
+            Files.createDirectories(dir);
+            Path path = dir.resolve(String.format("any-door-%s-%s-%d.jfr", anyDoorDto.getClazz().getSimpleName(),
+                    anyDoorDto.getMethodName(), System.currentTimeMillis()));
+            JfrDelegate.stopRecording(recording, path);
+            return path.toAbsolutePath().toString();
+        } catch (Exception e) {
+            log.error("any-door stop jfr recording exception", e);
+            return null;
+        }
+    }
+
+    private static boolean isJfrPresent() {
+        try {
+            Class.forName("jdk.jfr.Event", false, JfrSupport.class.getClassLoader());
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+}
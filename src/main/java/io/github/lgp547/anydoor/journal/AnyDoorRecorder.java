@@ -0,0 +1,123 @@
+package io.github.lgp547.anydoor.journal;
+
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.jfr.JfrSupport;
+import io.github.lgp547.anydoor.support.StreamArgument;
+import io.github.lgp547.anydoor.util.JsonUtil;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录每次调用到本地日志，用于之后回放
+ * <p>
+ * any-door.journal.enabled         是否开启，默认 false
+ * any-door.journal.dir             日志目录，默认 ${java.io.tmpdir}/any-door-journal
+ * any-door.journal.segment-size    单个分段大小，默认 64MB
+ * any-door.journal.max-segments    保留的分段数，默认 10，小于等于0不删除
+ * any-door.journal.batch-size      每批写入条数，默认 256
+ * any-door.journal.queue-capacity  待写入队列大小，满了直接丢弃，默认 10000
+ */
+public class AnyDoorRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorRecorder.class);
+
+    private static volatile JournalWriter writer;
+
+    private static volatile Boolean enabled;
+
+    /**
+     * 第一次调用时读取配置，之后不再变化
+     */
+    public static boolean isEnabled() {
+        Boolean journalEnabled = enabled;
+        if (journalEnabled == null) {
+            journalEnabled = SpringUtil.getProperty("any-door.journal.enabled", Boolean.class, false);
+            enabled = journalEnabled;
+        }
+        return journalEnabled;
+    }
+
+    public static Path getDir() {
+        String defaultDir = Paths.get(System.getProperty("java.io.tmpdir"), "any-door-journal").toString();
+        return Paths.get(SpringUtil.getProperty("any-door.journal.dir", String.class, defaultDir));
+    }
+
+    public static void record(AnyDoorDto anyDoorDto, Object[] args, @Nullable Object result, @Nullable Throwable throwable,
+                              long decodeNanos, long invokeNanos) {
+        if (!isEnabled()) {
+            return;
+        }
+        Object journalEvent = JfrSupport.begin(JfrSupport.JOURNAL, anyDoorDto);
+        try {
+            JournalRecord record = new JournalRecord();
+            record.setTimestamp(System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(decodeNanos + invokeNanos));
+            record.setThread(Thread.currentThread().getName());
+            record.setAnyDoorDto(anyDoorDto);
+            // 通过文件、multipart 传入的参数不记录内容，@file 回放时重新读取文件
+            if (!StreamArgument.hasReference(anyDoorDto.getContent())) {
+                record.setArgs(JsonUtil.toStrNotExc(args));
+            }
+            if (throwable != null) {
+                record.setException(throwable.toString());
+            } else {
+                record.setResultDigest(digest(result));
+            }
+            record.setDecodeNanos(decodeNanos);
+            record.setInvokeNanos(invokeNanos);
+            getWriter().offer(record);
+        } catch (Exception e) {
+            log.warn("any-door record exception", e);
+        } finally {
+            JfrSupport.commit(journalEvent);
+        }
+    }
+
+    public static String digest(@Nullable Object result) {
+        return digest(JsonUtil.toStrNotExc(result));
+    }
+
+    private static String digest(@Nullable String json) {
+        return DigestUtils.md5DigestAsHex(String.valueOf(json).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 写完队列中剩余的记录并关闭当前分段，容器关闭时调用
+     */
+    public static void shutdown() {
+        synchronized (AnyDoorRecorder.class) {
+            JournalWriter journalWriter = writer;
+            if (journalWriter != null) {
+                journalWriter.close();
+                writer = null;
+            }
+        }
+    }
+
+    private static JournalWriter getWriter() throws Exception {
+        JournalWriter journalWriter = writer;
+        if (journalWriter == null) {
+            synchronized (AnyDoorRecorder.class) {
+                journalWriter = writer;
+                if (journalWriter == null) {
+                    journalWriter = new JournalWriter(getDir(),
+                            SpringUtil.getProperty("any-door.journal.segment-size", DataSize.class, DataSize.ofMegabytes(64)).toBytes(),
+                            SpringUtil.getProperty("any-door.journal.max-segments", Integer.class, 10),
+                            SpringUtil.getProperty("any-door.journal.batch-size", Integer.class, 256),
+                            SpringUtil.getProperty("any-door.journal.queue-capacity", Integer.class, 10000));
+                    journalWriter.start();
+                    writer = journalWriter;
+                }
+            }
+        }
+        return journalWriter;
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.lgp547.anydoor.journal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.lgp547.anydoor.core.AnyDoorHandlerMethod;
+import io.github.lgp547.anydoor.core.AnyDoorService;
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.dto.ReplayDto;
+import io.github.lgp547.anydoor.support.StreamArgument;
+import io.github.lgp547.anydoor.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 读取日志并在当前线程按顺序同步重新执行，回放的调用不会再次被记录
+ */
+public class AnyDoorReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorReplayer.class);
+
+    private final AnyDoorService anyDoorService = new AnyDoorService();
+
+    public ReplayReport replay(ReplayDto replayDto) {
+        Path path = StringUtils.hasText(replayDto.getPath()) ? Paths.get(replayDto.getPath()) : AnyDoorRecorder.getDir();
+        int limit = replayDto.getLimit() == null ? Integer.MAX_VALUE : replayDto.getLimit();
+        boolean originalPacing = replayDto.isOriginalPacing();
+
+        ReplayReport report = new ReplayReport();
+        report.setPacing(originalPacing ? ReplayDto.PACING_ORIGINAL : ReplayDto.PACING_FAST);
+        long replayStart = System.currentTimeMillis();
+        AtomicLong firstTimestamp = new AtomicLong(-1);
+        AtomicInteger count = new AtomicInteger();
+        try {
+            JournalReader.read(path, record -> {
+                if (count.getAndIncrement() >= limit) {
+                    throw new LimitReachedException();
+                }
+                if (originalPacing) {
+                    firstTimestamp.compareAndSet(-1, record.getTimestamp());
+                    pace(replayStart + record.getTimestamp() - firstTimestamp.get());
+                }
+                replayOne(record, report);
+            });
+        } catch (LimitReachedException ignored) {
+            // 达到回放条数
+        }
+        report.setElapsedMillis(System.currentTimeMillis() - replayStart);
+        return report;
+    }
+
+    private void replayOne(JournalRecord record, ReplayReport report) {
+        AnyDoorDto anyDoorDto = record.getAnyDoorDto();
+        String key = anyDoorDto.getClassName() + "#" + anyDoorDto.getMethodName();
+        long startNanos = System.nanoTime();
+        boolean success = true;
+        Object result = null;
+        try {
+            AnyDoorHandlerMethod handlerMethod = anyDoorService.resolve(anyDoorDto);
+            Object[] args = getArgs(handlerMethod, record);
+            try {
+                result = handlerMethod.invoke(args);
+            } finally {
+                StreamArgument.close(args);
+            }
+        } catch (Exception e) {
+            success = false;
+            log.debug("any-door replay {} exception", key, e);
+        }
+        long replayNanos = System.nanoTime() - startNanos;
+        boolean digestEquals = success && Objects.equals(record.getResultDigest(), AnyDoorRecorder.digest(result));
+        report.add(key, record, replayNanos, success, digestEquals);
+    }
+
+    /**
+     * 优先使用记录的解析后的入参，与当时执行的参数一致（preset、generate 生成的参数重新解析会不同）；
+     * 没有记录入参时（通过文件传入的参数）从请求内容重新解析
+     */
+    private static Object[] getArgs(AnyDoorHandlerMethod handlerMethod, JournalRecord record) throws IOException {
+        if (record.getArgs() == null) {
+            return handlerMethod.getArgs(record.getAnyDoorDto());
+        }
+        JsonNode args = JsonUtil.objectMapper.readTree(record.getArgs());
+        Map<String, Object> contentMap = new HashMap<>();
+        for (int i = 0; i < args.size(); i++) {
+            contentMap.put("args" + i, args.get(i));
+        }
+        return handlerMethod.getArgs(contentMap);
+    }
+
+    private static void pace(long targetMillis) {
+        long sleepMillis = targetMillis - System.currentTimeMillis();
+        if (sleepMillis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(sleepMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("replay interrupted", e);
+        }
+    }
+
+    private static class LimitReachedException extends RuntimeException {
+
+        LimitReachedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.lgp547.anydoor.journal;
+
+import io.github.lgp547.anydoor.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 按分段顺序逐行读取日志，不会一次性加载整个日志
+ */
+public class JournalReader {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalReader.class);
+
+    private static final String SEGMENT_PREFIX = "any-door-";
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    /**
+     * @param path 日志目录（读取全部分段）或单个分段文件
+     */
+    public static void read(Path path, Consumer<JournalRecord> consumer) {
+        List<Path> segments = Files.isDirectory(path) ? listSegments(path) : Collections.singletonList(path);
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("journal not found " + path);
+        }
+        for (Path segment : segments) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        consumer.accept(JsonUtil.objectMapper.readValue(line, JournalRecord.class));
+                    } catch (IOException e) {
+                        // 进程退出时最后一行可能没写完整
+                        log.warn("skip broken journal line in {}", segment);
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalArgumentException("read journal exception " + segment, e);
+            }
+        }
+    }
+
+    public static List<Path> listSegments(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.filter(JournalReader::isSegment)
+                    .sorted(Comparator.comparingInt(JournalReader::segmentSeq))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("list journal exception " + dir, e);
+        }
+    }
+
+    static String segmentName(int seq) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX);
+    }
+
+    static int segmentSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)
+                && name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()).matches("\\d+");
+    }
+}
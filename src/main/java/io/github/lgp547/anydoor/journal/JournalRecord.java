@@ -0,0 +1,102 @@
+package io.github.lgp547.anydoor.journal;
+
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+
+/**
+ * 日志中的一次调用记录，每条记录占一行json
+ */
+public class JournalRecord {
+
+    /**
+     * 调用开始时间戳（毫秒）
+     */
+    private long timestamp;
+
+    private String thread;
+
+    private AnyDoorDto anyDoorDto;
+
+    /**
+     * 解析后的入参json数组
+     */
+    private String args;
+
+    /**
+     * 返回结果json的md5，异常时为null
+     */
+    private String resultDigest;
+
+    private String exception;
+
+    private long decodeNanos;
+
+    private long invokeNanos;
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    public void setThread(String thread) {
+        this.thread = thread;
+    }
+
+    public AnyDoorDto getAnyDoorDto() {
+        return anyDoorDto;
+    }
+
+    public void setAnyDoorDto(AnyDoorDto anyDoorDto) {
+        this.anyDoorDto = anyDoorDto;
+    }
+
+    public String getArgs() {
+        return args;
+    }
+
+    public void setArgs(String args) {
+        this.args = args;
+    }
+
+    public String getResultDigest() {
+        return resultDigest;
+    }
+
+    public void setResultDigest(String resultDigest) {
+        this.resultDigest = resultDigest;
+    }
+
+    public String getException() {
+        return exception;
+    }
+
+    public void setException(String exception) {
+        this.exception = exception;
+    }
+
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    public void setDecodeNanos(long decodeNanos) {
+        this.decodeNanos = decodeNanos;
+    }
+
+    public long getInvokeNanos() {
+        return invokeNanos;
+    }
+
+    public void setInvokeNanos(long invokeNanos) {
+        this.invokeNanos = invokeNanos;
+    }
+
+    public long totalNanos() {
+        return decodeNanos + invokeNanos;
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.lgp547.anydoor.journal;
+
+import io.github.lgp547.anydoor.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 追加写入的分段日志
+ * 调用方只入队，由单独的线程批量写入；单个分段超过大小后切换到下一个分段，只保留最近的 maxSegments 个
+ * 分段文件名：any-door-000001.journal
+ */
+public class JournalWriter implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalWriter.class);
+
+    private final Path dir;
+
+    private final long segmentSize;
+
+    private final int maxSegments;
+
+    private final int batchSize;
+
+    private final BlockingQueue<JournalRecord> queue;
+
+    private final AtomicLong dropCount = new AtomicLong();
+
+    private BufferedWriter writer;
+
+    private Thread thread;
+
+    private volatile boolean closed;
+
+    private long currentSize;
+
+    private int currentSeq;
+
+    public JournalWriter(Path dir, long segmentSize, int maxSegments, int batchSize, int queueCapacity) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public void start() throws IOException {
+        Files.createDirectories(dir);
+        currentSeq = JournalReader.listSegments(dir).stream().mapToInt(JournalReader::segmentSeq).max().orElse(0);
+        openNextSegment();
+        thread = new Thread(this, "any-door-journal");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("any-door journal start, dir {}", dir);
+    }
+
+    /**
+     * 队列满时丢弃，不阻塞调用方
+     */
+    public boolean offer(JournalRecord record) {
+        if (queue.offer(record)) {
+            return true;
+        }
+        if (dropCount.incrementAndGet() % 1000 == 1) {
+            log.warn("any-door journal queue full, drop count {}", dropCount.get());
+        }
+        return false;
+    }
+
+    public long getDropCount() {
+        return dropCount.get();
+    }
+
+    /**
+     * 停止写入线程，把队列中剩余的记录写完后关闭分段，之后 offer 的记录不再写入
+     */
+    public void close() {
+        // 不中断写入线程，中断会关闭正在写的文件通道
+        closed = true;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            log.warn("any-door journal writer not stopped in time, queued records are dropped");
+            return;
+        }
+        List<JournalRecord> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        try {
+            if (!rest.isEmpty()) {
+                write(rest);
+            }
+            writer.close();
+        } catch (IOException e) {
+            log.error("any-door journal close exception", e);
+        }
+        log.info("any-door journal closed, dir {}", dir);
+    }
+
+    @Override
+    public void run() {
+        List<JournalRecord> batch = new ArrayList<>(batchSize);
+        while (!closed && !Thread.currentThread().isInterrupted()) {
+            try {
+                JournalRecord first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("any-door journal write exception", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<JournalRecord> batch) throws IOException {
+        for (JournalRecord record : batch) {
+            String line = JsonUtil.objectMapper.writeValueAsString(record) + "\n";
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            if (currentSize > 0 && currentSize + bytes.length > segmentSize) {
+                writer.close();
+                openNextSegment();
+            }
+            writer.write(line);
+            currentSize += bytes.length;
+        }
+        writer.flush();
+    }
+
+    private void openNextSegment() throws IOException {
+        currentSeq++;
+        Path segment = dir.resolve(JournalReader.segmentName(currentSeq));
+        writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(segment,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+        currentSize = Files.size(segment);
+
+        List<Path> segments = JournalReader.listSegments(dir);
+        for (int i = 0; maxSegments > 0 && i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+}
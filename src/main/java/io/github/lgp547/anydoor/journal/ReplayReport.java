@@ -0,0 +1,115 @@
+package io.github.lgp547.anydoor.journal;
+
+import io.github.lgp547.anydoor.support.LatencySamples;
+import io.github.lgp547.anydoor.support.LatencySummary;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 回放结果，按 类#方法 汇总录制时与回放时的耗时
+ */
+public class ReplayReport {
+
+    private String pacing;
+
+    private long elapsedMillis;
+
+    private MethodReport total = new MethodReport();
+
+    private final Map<String, MethodReport> methods = new LinkedHashMap<>();
+
+    void add(String key, JournalRecord record, long replayNanos, boolean success, boolean digestEquals) {
+        total.add(record, replayNanos, success, digestEquals);
+        methods.computeIfAbsent(key, k -> new MethodReport()).add(record, replayNanos, success, digestEquals);
+    }
+
+    public String getPacing() {
+        return pacing;
+    }
+
+    void setPacing(String pacing) {
+        this.pacing = pacing;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public MethodReport getTotal() {
+        return total;
+    }
+
+    public Map<String, MethodReport> getMethods() {
+        return methods;
+    }
+
+    public static class MethodReport {
+
+        private int count;
+
+        private int fail;
+
+        /**
+         * 录制时成功，回放时返回结果不一致的次数
+         */
+        private int resultMismatch;
+
+        private final LatencySamples recordedSamples = new LatencySamples();
+
+        private final LatencySamples replayedSamples = new LatencySamples();
+
+        void add(JournalRecord record, long replayNanos, boolean success, boolean digestEquals) {
+            count++;
+            if (!success) {
+                fail++;
+            } else if (!digestEquals) {
+                resultMismatch++;
+            }
+            recordedSamples.add(record.totalNanos());
+            replayedSamples.add(replayNanos);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getFail() {
+            return fail;
+        }
+
+        public int getResultMismatch() {
+            return resultMismatch;
+        }
+
+        public LatencySummary getRecorded() {
+            return recordedSamples.summary();
+        }
+
+        public LatencySummary getReplayed() {
+            return replayedSamples.summary();
+        }
+
+        /**
+         * 回放减去录制的耗时差（毫秒），正数表示变慢
+         */
+        public Map<String, Double> getDelta() {
+            LatencySummary recorded = getRecorded();
+            LatencySummary replayed = getReplayed();
+            Map<String, Double> delta = new LinkedHashMap<>();
+            delta.put("mean", round(replayed.getMean() - recorded.getMean()));
+            delta.put("p50", round(replayed.getP50() - recorded.getP50()));
+            delta.put("p90", round(replayed.getP90() - recorded.getP90()));
+            delta.put("p99", round(replayed.getP99() - recorded.getP99()));
+            return delta;
+        }
+
+        private static double round(double millis) {
+            return Math.round(millis * 1000) / 1000.0;
+        }
+    }
+}
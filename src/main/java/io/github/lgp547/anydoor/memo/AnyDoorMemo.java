@@ -0,0 +1,320 @@
+package io.github.lgp547.anydoor.memo;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.support.ObjectSizes;
+import io.github.lgp547.anydoor.support.StreamArgument;
+import io.github.lgp547.anydoor.util.JsonUtil;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.lang.Nullable;
+import org.springframework.util.unit.DataSize;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 相同调用的合并及结果缓存：同一个方法、同一实例策略、请求 content 规范化（Map 按 key 排序）后的json相同的调用视为相同，
+ * 正在执行时再来的相同调用等待并共用这一次的结果（或异常），不会重复执行
+ * <p>
+ * 比较的是请求中的 content 而不是解析后的参数对象：参数对象序列化会丢掉没有 getter 的字段、@JsonIgnore 字段等，
+ * 不同的参数可能得到相同的字节。content 不是json值（程序中直接放入的对象）时不参与
+ * <p>
+ * 合并会改变执行次数，只对声明为幂等的方法或显式开启的调用生效；声明为幂等的方法的结果还会缓存，在 ttl 内直接返回
+ * 统计选项（resource/profile/trace/measure/jfr）需要每次真实执行，通过文件或 part 传入参数的调用无法比较参数，
+ * 生成参数（generate）及预置参数（preset）的参数不由 content 决定，都不参与
+ * <p>
+ * any-door.coalesce.enabled             没有在请求中指定 coalesce 时是否合并，默认 false
+ * any-door.coalesce.max-wait            等待正在执行的相同调用的最长时间，超过后自己执行，默认 10s
+ * any-door.memo.idempotent-methods      幂等方法，格式 类全链路名#方法名，总是合并并缓存结果，首次使用时读取
+ * any-door.memo.ttl                     结果缓存时间，默认 1m
+ * any-door.memo.max-memory              缓存结果按估算的内存合计，超过时淘汰最久没有使用的，默认 64MB
+ */
+public class AnyDoorMemo {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorMemo.class);
+
+    /**
+     * 估算结果内存时最多遍历的对象数
+     */
+    private static final int MAX_SIZE_NODES = 1_000_000;
+
+    /**
+     * Map 按 key 排序，内容相同的 content 得到相同的字节；小数按 BigDecimal 转换，不会把不同的值变成同一个 double
+     */
+    private static final ObjectMapper CANONICAL_MAPPER = JsonUtil.objectMapper.copy()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true);
+
+    @Nullable
+    private static volatile Set<String> idempotentMethods;
+
+    private static final ConcurrentHashMap<Key, CompletableFuture<Object>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    /**
+     * 按访问顺序排列，最前面的最久没有使用
+     */
+    private static final LinkedHashMap<Key, Entry> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long totalBytes;
+
+    private static final AtomicLong HITS = new AtomicLong();
+
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private static final AtomicLong COALESCED = new AtomicLong();
+
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+
+    /**
+     * 执行方法，相同的调用正在执行时等待它的结果，幂等方法先查缓存
+     *
+     * @param invoker 真正执行方法
+     */
+    public static Object execute(AnyDoorDto anyDoorDto, Method method, Supplier<Object> invoker) throws InterruptedException {
+        boolean idempotent = isIdempotent(anyDoorDto);
+        boolean coalesce = idempotent || (anyDoorDto.getCoalesce() != null ? anyDoorDto.getCoalesce()
+                : SpringUtil.getProperty("any-door.coalesce.enabled", Boolean.class, false));
+        if (!coalesce || anyDoorDto.isWrapResult() || !anyDoorDto.getParts().isEmpty() || StreamArgument.hasReference(anyDoorDto.getContent())
+                || anyDoorDto.getGenerate() != null || anyDoorDto.getPreset() != null) {
+            return invoker.get();
+        }
+        Key key = Key.of(anyDoorDto, method);
+        if (key == null) {
+            return invoker.get();
+        }
+
+        if (idempotent) {
+            Entry entry = getEntry(key);
+            if (entry != null) {
+                HITS.incrementAndGet();
+                return entry.value;
+            }
+            MISSES.incrementAndGet();
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = IN_FLIGHT.putIfAbsent(key, future);
+        if (inFlight != null) {
+            COALESCED.incrementAndGet();
+            log.info("any-door coalesce {} with the running invocation", key.method);
+            long maxWait = SpringUtil.getProperty("any-door.coalesce.max-wait", Duration.class, Duration.ofSeconds(10)).toMillis();
+            try {
+                return await(inFlight, maxWait);
+            } catch (TimeoutException e) {
+                // 正在执行的调用太慢，不再占着线程等待
+                log.info("any-door coalesce {} waited {}ms, invoke it directly", key.method, maxWait);
+                return invoker.get();
+            }
+        }
+        try {
+            Object result = invoker.get();
+            if (idempotent) {
+                put(key, result);
+            }
+            future.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            IN_FLIGHT.remove(key, future);
+        }
+    }
+
+    /**
+     * 命中、未命中、合并次数及缓存的条目数、估算的内存
+     */
+    public static Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", HITS.get());
+        stats.put("misses", MISSES.get());
+        stats.put("coalesced", COALESCED.get());
+        stats.put("evictions", EVICTIONS.get());
+        stats.put("inFlight", IN_FLIGHT.size());
+        synchronized (CACHE) {
+            stats.put("entries", CACHE.size());
+            stats.put("bytes", totalBytes);
+        }
+        return stats;
+    }
+
+    public static void clear() {
+        synchronized (CACHE) {
+            CACHE.clear();
+            totalBytes = 0;
+        }
+    }
+
+    private static boolean isIdempotent(AnyDoorDto anyDoorDto) {
+        Set<String> methods = idempotentMethods;
+        if (methods == null) {
+            methods = new HashSet<>(SpringUtil.getProperty("any-door.memo.idempotent-methods", Bindable.listOf(String.class), Collections.emptyList()));
+            idempotentMethods = methods;
+        }
+        return methods.contains(anyDoorDto.getClassName() + "#" + anyDoorDto.getMethodName());
+    }
+
+    private static Object await(CompletableFuture<Object> inFlight, long maxWaitMillis) throws InterruptedException, TimeoutException {
+        try {
+            return inFlight.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static Entry getEntry(Key key) {
+        synchronized (CACHE) {
+            Entry entry = CACHE.get(key);
+            if (entry != null && System.currentTimeMillis() >= entry.expireAt) {
+                CACHE.remove(key);
+                totalBytes -= entry.bytes;
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private static void put(Key key, Object result) {
+        long ttl = SpringUtil.getProperty("any-door.memo.ttl", Duration.class, Duration.ofMinutes(1)).toMillis();
+        long maxBytes = SpringUtil.getProperty("any-door.memo.max-memory", DataSize.class, DataSize.ofMegabytes(64)).toBytes();
+        long bytes = ObjectSizes.estimate(result, MAX_SIZE_NODES) + key.content.length;
+        if (ttl <= 0 || bytes > maxBytes) {
+            return;
+        }
+        Entry entry = new Entry(result, bytes, System.currentTimeMillis() + ttl);
+        synchronized (CACHE) {
+            Entry old = CACHE.put(key, entry);
+            if (old != null) {
+                totalBytes -= old.bytes;
+            }
+            totalBytes += bytes;
+            Iterator<Entry> iterator = CACHE.values().iterator();
+            while (totalBytes > maxBytes && iterator.hasNext()) {
+                Entry eldest = iterator.next();
+                iterator.remove();
+                totalBytes -= eldest.bytes;
+                EVICTIONS.incrementAndGet();
+            }
+        }
+    }
+
+    private static class Entry {
+
+        private final Object value;
+
+        private final long bytes;
+
+        private final long expireAt;
+
+        Entry(Object value, long bytes, long expireAt) {
+            this.value = value;
+            this.bytes = bytes;
+            this.expireAt = expireAt;
+        }
+    }
+
+    static class Key {
+
+        private final Method method;
+
+        private final String instanceStrategy;
+
+        private final byte[] content;
+
+        private final int hash;
+
+        private Key(Method method, String instanceStrategy, byte[] content) {
+            this.method = method;
+            this.instanceStrategy = instanceStrategy;
+            this.content = content;
+            this.hash = 31 * Objects.hash(method, instanceStrategy) + Arrays.hashCode(content);
+        }
+
+        /**
+         * @return content 不是json值时为 null，这样的调用不合并
+         */
+        @Nullable
+        static Key of(AnyDoorDto anyDoorDto, Method method) {
+            Object content = anyDoorDto.getContent();
+            if (!isJsonValue(content)) {
+                log.debug("any-door coalesce skip {}, content is not a json value", method.getName());
+                return null;
+            }
+            try {
+                // 先转换成 Map/List，JsonNode 的属性也按 key 排序
+                Object plain = CANONICAL_MAPPER.convertValue(content, Object.class);
+                return new Key(method, anyDoorDto.getInstanceStrategy(), CANONICAL_MAPPER.writeValueAsBytes(plain));
+            } catch (Exception e) {
+                log.debug("any-door coalesce skip {}, content can not be serialized: {}", method.getName(), e.toString());
+                return null;
+            }
+        }
+
+        /**
+         * 请求体解析得到的 content 只包含这些类型，其它对象序列化可能丢失字段
+         */
+        private static boolean isJsonValue(@Nullable Object value) {
+            if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof JsonNode) {
+                return true;
+            }
+            if (value instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    if (!(entry.getKey() instanceof String) || !isJsonValue(entry.getValue())) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if (value instanceof Collection) {
+                return ((Collection<?>) value).stream().allMatch(Key::isJsonValue);
+            }
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash && method.equals(key.method) && Objects.equals(instanceStrategy, key.instanceStrategy)
+                    && Arrays.equals(content, key.content);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.lgp547.anydoor.preset;
+
+import io.github.lgp547.anydoor.core.AnyDoorHandlerMethod;
+import io.github.lgp547.anydoor.core.AnyDoorService;
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.dto.PresetDto;
+import io.github.lgp547.anydoor.support.ObjectSizes;
+import io.github.lgp547.anydoor.support.StreamArgument;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预置参数：注册时解析一次参数并保留，之后的调用通过 preset 引用，不再重复解析json
+ * 所有预置参数按估算的内存占用合计，超过 any-door.preset.max-memory（默认 256MB）时淘汰最久没有使用的
+ */
+public class AnyDoorPresets {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorPresets.class);
+
+    /**
+     * 估算内存时最多遍历的对象数
+     */
+    private static final int MAX_SIZE_NODES = 10_000_000;
+
+    /**
+     * 按访问顺序排列，最前面的最久没有使用
+     */
+    private static final LinkedHashMap<String, ArgumentPreset> PRESETS = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long totalBytes;
+
+    public static ArgumentPreset register(PresetDto presetDto) {
+        presetDto.verify();
+        AnyDoorDto anyDoorDto = presetDto.getAnyDoorDto();
+        if (anyDoorDto.getPreset() != null) {
+            throw new IllegalArgumentException("preset can not reference another preset");
+        }
+
+        long startNanos = System.nanoTime();
+        AnyDoorHandlerMethod handlerMethod = new AnyDoorService().resolve(anyDoorDto);
+        Object[] args = handlerMethod.getArgs(anyDoorDto);
+        long decodeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        for (Object arg : args) {
+            if (arg instanceof InputStream) {
+                StreamArgument.close(args);
+                throw new IllegalArgumentException("InputStream parameter can not be preset");
+            }
+        }
+
+        long bytes = ObjectSizes.estimate(args, MAX_SIZE_NODES);
+        long maxBytes = getMaxBytes();
+        if (bytes > maxBytes) {
+            throw new IllegalArgumentException("preset " + presetDto.getId() + " about " + bytes + " bytes, exceeds any-door.preset.max-memory " + maxBytes);
+        }
+        ArgumentPreset preset = new ArgumentPreset(presetDto.getId(), handlerMethod.getMethod(), args,
+                Boolean.TRUE.equals(presetDto.getShared()), bytes, decodeMillis);
+        synchronized (PRESETS) {
+            ArgumentPreset old = PRESETS.put(preset.getId(), preset);
+            if (old != null) {
+                totalBytes -= old.getBytes();
+            }
+            totalBytes += bytes;
+            evict(maxBytes);
+        }
+        log.info("any-door preset register {} {} bytes {}", preset.getId(), preset.getMethod(), bytes);
+        return preset;
+    }
+
+    /**
+     * @return 预置参数的一份新的参数数组，shared 时数组中为同一组对象
+     */
+    public static Object[] getArgs(String id, Method method) {
+        ArgumentPreset preset;
+        synchronized (PRESETS) {
+            preset = PRESETS.get(id);
+        }
+        if (preset == null) {
+            throw new IllegalArgumentException("preset " + id + " not found, it may have been evicted");
+        }
+        if (!preset.getTargetMethod().equals(method)) {
+            throw new IllegalArgumentException("preset " + id + " is for " + preset.getMethod() + ", not " + method.getName());
+        }
+        return preset.newArgs();
+    }
+
+    public static List<ArgumentPreset> list() {
+        synchronized (PRESETS) {
+            return new ArrayList<>(PRESETS.values());
+        }
+    }
+
+    @Nullable
+    public static ArgumentPreset remove(String id) {
+        synchronized (PRESETS) {
+            ArgumentPreset preset = PRESETS.remove(id);
+            if (preset != null) {
+                totalBytes -= preset.getBytes();
+            }
+            return preset;
+        }
+    }
+
+    private static void evict(long maxBytes) {
+        Iterator<Map.Entry<String, ArgumentPreset>> iterator = PRESETS.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            ArgumentPreset eldest = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= eldest.getBytes();
+            log.info("any-door preset evict {} {} bytes", eldest.getId(), eldest.getBytes());
+        }
+    }
+
+    private static long getMaxBytes() {
+        return SpringUtil.getProperty("any-door.preset.max-memory", DataSize.class, DataSize.ofMegabytes(256)).toBytes();
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.lgp547.anydoor.preset;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.github.lgp547.anydoor.support.DeepCopier;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一组注册后已经解析好的参数
+ */
+public class ArgumentPreset {
+
+    private final String id;
+
+    private final String method;
+
+    private final boolean shared;
+
+    private final long bytes;
+
+    private final long decodeMillis;
+
+    private final long createTime = System.currentTimeMillis();
+
+    private volatile long lastUseTime = createTime;
+
+    private final AtomicLong useCount = new AtomicLong();
+
+    @JsonIgnore
+    private final Method targetMethod;
+
+    @JsonIgnore
+    private final Object[] args;
+
+    ArgumentPreset(String id, Method targetMethod, Object[] args, boolean shared, long bytes, long decodeMillis) {
+        this.id = id;
+        this.method = targetMethod.getDeclaringClass().getName() + "#" + targetMethod.getName();
+        this.targetMethod = targetMethod;
+        this.args = args;
+        this.shared = shared;
+        this.bytes = bytes;
+        this.decodeMillis = decodeMillis;
+    }
+
+    /**
+     * @return shared 时为同一组参数对象，否则为深拷贝
+     */
+    Object[] newArgs() {
+        useCount.incrementAndGet();
+        lastUseTime = System.currentTimeMillis();
+        return shared ? args.clone() : DeepCopier.copyArgs(args);
+    }
+
+    Method getTargetMethod() {
+        return targetMethod;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * 按对象布局估算的参数占用内存
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * 注册时解析参数的耗时，之后的调用不再有这部分开销
+     */
+    public long getDecodeMillis() {
+        return decodeMillis;
+    }
+
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    public long getLastUseTime() {
+        return lastUseTime;
+    }
+
+    public long getUseCount() {
+        return useCount.get();
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.lgp547.anydoor.profile;
+
+/**
+ * 采样结果，collapsed 每行为 `栈底;...;栈顶 次数`，可直接用 flamegraph.pl 或 speedscope 生成火焰图
+ */
+public class ProfileResult {
+
+    private long intervalMillis;
+
+    private int samples;
+
+    private int threads;
+
+    /**
+     * 采样线程自身耗时，即采样的开销（采样期间目标线程会停在 safepoint）
+     */
+    private long samplerNanos;
+
+    private String collapsed;
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public void setIntervalMillis(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public void setSamples(int samples) {
+        this.samples = samples;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public long getSamplerNanos() {
+        return samplerNanos;
+    }
+
+    public void setSamplerNanos(long samplerNanos) {
+        this.samplerNanos = samplerNanos;
+    }
+
+    public String getCollapsed() {
+        return collapsed;
+    }
+
+    public void setCollapsed(String collapsed) {
+        this.collapsed = collapsed;
+    }
+}
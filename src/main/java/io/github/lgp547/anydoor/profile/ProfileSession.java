@@ -0,0 +1,191 @@
+package io.github.lgp547.anydoor.profile;
+
+import io.github.lgp547.anydoor.core.AnyDoorHandlerMethod;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * 一次调用期间的采样：按间隔抓取执行线程以及它通过 any-door 线程池派生出的线程的栈，合并成 collapsed stack
+ * 所有线程在同一次 getThreadInfo 中抓取，每次采样只有一个 safepoint
+ */
+public class ProfileSession implements Runnable {
+
+    private static final ThreadLocal<ProfileSession> current = new ThreadLocal<>();
+
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private static final String INVOKE_CLASS = AnyDoorHandlerMethod.class.getName();
+
+    private static final String INVOKE_METHOD = "doInvoke";
+
+    static {
+        // 首次 getThreadInfo 会初始化 jmx，提前做掉避免算进第一次采样
+        threadMXBean.getThreadInfo(Thread.currentThread().getId(), 1);
+    }
+
+    private final Thread invokingThread;
+
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    private final long intervalNanos;
+
+    private final Thread samplerThread;
+
+    /**
+     * 开始采样前执行线程上已有的采样（嵌套调用），结束时恢复
+     */
+    private final ProfileSession previous;
+
+    private volatile boolean stopped;
+
+    private final Map<String, Long> stacks = new HashMap<>();
+
+    private final Set<Long> sampledThreadIds = new HashSet<>();
+
+    private int samples;
+
+    private long samplerNanos;
+
+    private ProfileSession(long intervalMillis) {
+        this.invokingThread = Thread.currentThread();
+        this.previous = current.get();
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervalMillis));
+        this.samplerThread = new Thread(this, "any-door-profiler");
+        this.samplerThread.setDaemon(true);
+    }
+
+    /**
+     * 在执行方法的线程上开始采样
+     */
+    public static ProfileSession start(long intervalMillis) {
+        ProfileSession session = new ProfileSession(intervalMillis);
+        current.set(session);
+        session.samplerThread.start();
+        return session;
+    }
+
+    /**
+     * 提交到 any-door 线程池的任务，如果提交时处于采样中，执行期间该线程也会被采样
+     */
+    public static Runnable wrap(Runnable runnable) {
+        ProfileSession session = current.get();
+        if (session == null) {
+            return runnable;
+        }
+        return () -> {
+            Thread thread = Thread.currentThread();
+            // 调用方线程执行（CallerRunsPolicy）时该线程本身可能已经在采样中，结束后恢复而不是清除
+            ProfileSession outer = current.get();
+            boolean added = session.threads.add(thread);
+            current.set(session);
+            try {
+                runnable.run();
+            } finally {
+                restore(outer);
+                if (added) {
+                    session.threads.remove(thread);
+                }
+            }
+        };
+    }
+
+    public ProfileResult stop() {
+        stopped = true;
+        restore(previous);
+        LockSupport.unpark(samplerThread);
+        try {
+            samplerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ProfileResult result = new ProfileResult();
+        result.setIntervalMillis(TimeUnit.NANOSECONDS.toMillis(intervalNanos));
+        result.setSamples(samples);
+        result.setThreads(sampledThreadIds.size());
+        result.setSamplerNanos(samplerNanos);
+        result.setCollapsed(stacks.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .map(entry -> entry.getKey() + " " + entry.getValue())
+                .collect(Collectors.joining("\n")));
+        return result;
+    }
+
+    private static void restore(ProfileSession session) {
+        if (session == null) {
+            current.remove();
+        } else {
+            current.set(session);
+        }
+    }
+
+    @Override
+    public void run() {
+        while (!stopped) {
+            LockSupport.parkNanos(intervalNanos);
+            if (stopped) {
+                return;
+            }
+            long start = System.nanoTime();
+            sample();
+            samplerNanos += System.nanoTime() - start;
+        }
+    }
+
+    private void sample() {
+        long[] ids = new long[threads.size() + 1];
+        int size = 0;
+        ids[size++] = invokingThread.getId();
+        for (Thread thread : threads) {
+            if (size < ids.length) {
+                ids[size++] = thread.getId();
+            }
+        }
+        ThreadInfo[] threadInfos = threadMXBean.getThreadInfo(size == ids.length ? ids : Arrays.copyOf(ids, size), Integer.MAX_VALUE);
+        samples++;
+        for (ThreadInfo threadInfo : threadInfos) {
+            if (threadInfo == null || threadInfo.getStackTrace().length == 0) {
+                continue;
+            }
+            sampledThreadIds.add(threadInfo.getThreadId());
+            String stack = collapse(threadInfo.getStackTrace(), threadInfo.getThreadId() == invokingThread.getId());
+            if (!stack.isEmpty()) {
+                stacks.merge(stack, 1L, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * 从栈底到栈顶用;连接，执行线程去掉 any-door 调用方法之前的栈
+     */
+    private static String collapse(StackTraceElement[] stackTrace, boolean invoking) {
+        int bottom = stackTrace.length - 1;
+        if (invoking) {
+            for (int i = stackTrace.length - 1; i >= 0; i--) {
+                StackTraceElement element = stackTrace[i];
+                if (INVOKE_CLASS.equals(element.getClassName()) && INVOKE_METHOD.equals(element.getMethodName())) {
+                    bottom = i - 1;
+                    break;
+                }
+            }
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = bottom; i >= 0; i--) {
+            if (builder.length() > 0) {
+                builder.append(';');
+            }
+            builder.append(stackTrace[i].getClassName()).append('.').append(stackTrace[i].getMethodName());
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.lgp547.anydoor.profile;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按 类#方法 累计资源消耗，异步执行时结果只能从这里查询
+ */
+public class ResourceStats {
+
+    private static final Map<String, MethodStats> stats = new ConcurrentHashMap<>();
+
+    public static void add(String key, ResourceUsage usage) {
+        stats.computeIfAbsent(key, k -> new MethodStats()).add(usage);
+    }
+
+    public static Map<String, MethodStats> getStats() {
+        return new TreeMap<>(stats);
+    }
+
+    public static void reset() {
+        stats.clear();
+    }
+
+    public static class MethodStats {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder wallNanos = new LongAdder();
+
+        private final LongAdder cpuNanos = new LongAdder();
+
+        private final LongAdder userNanos = new LongAdder();
+
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private final LongAdder gcCount = new LongAdder();
+
+        private final LongAdder gcMillis = new LongAdder();
+
+        void add(ResourceUsage usage) {
+            count.increment();
+            wallNanos.add(usage.getWallNanos());
+            cpuNanos.add(Math.max(0, usage.getCpuNanos()));
+            userNanos.add(Math.max(0, usage.getUserNanos()));
+            allocatedBytes.add(Math.max(0, usage.getAllocatedBytes()));
+            gcCount.add(usage.getGcCount());
+            gcMillis.add(usage.getGcMillis());
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getWallNanos() {
+            return wallNanos.sum();
+        }
+
+        public long getCpuNanos() {
+            return cpuNanos.sum();
+        }
+
+        public long getUserNanos() {
+            return userNanos.sum();
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes.sum();
+        }
+
+        public long getGcCount() {
+            return gcCount.sum();
+        }
+
+        public long getGcMillis() {
+            return gcMillis.sum();
+        }
+
+        public long getAvgCpuNanos() {
+            long count = getCount();
+            return count == 0 ? 0 : getCpuNanos() / count;
+        }
+
+        public long getAvgAllocatedBytes() {
+            long count = getCount();
+            return count == 0 ? 0 : getAllocatedBytes() / count;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package io.github.lgp547.anydoor.profile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * 一次调用的资源消耗，cpu及分配内存只统计执行方法的线程，gc和safepoint是整个jvm的
+ * 不支持的指标为 -1
+ */
+public class ResourceUsage {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceUsage.class);
+
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private static Object hotspotRuntime;
+
+    private static Method safepointCountMethod;
+
+    private static Method safepointTimeMethod;
+
+    static {
+        try {
+            Class<?> runtimeMBeanClass = Class.forName("sun.management.HotspotRuntimeMBean");
+            Object runtime = Class.forName("sun.management.ManagementFactoryHelper").getMethod("getHotspotRuntimeMBean").invoke(null);
+            safepointCountMethod = runtimeMBeanClass.getMethod("getSafepointCount");
+            safepointTimeMethod = runtimeMBeanClass.getMethod("getTotalSafepointTime");
+            safepointCountMethod.invoke(runtime);
+            hotspotRuntime = runtime;
+        } catch (Throwable e) {
+            log.debug("any-door safepoint statistics not supported {}", e.toString());
+        }
+    }
+
+    private long wallNanos;
+
+    private long cpuNanos = -1;
+
+    private long userNanos = -1;
+
+    private long allocatedBytes = -1;
+
+    private long gcCount;
+
+    private long gcMillis;
+
+    private long safepointCount = -1;
+
+    private long safepointMillis = -1;
+
+    /**
+     * 在执行方法的线程上开始统计
+     */
+    public static Meter start() {
+        return new Meter();
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    public long getUserNanos() {
+        return userNanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public long getGcMillis() {
+        return gcMillis;
+    }
+
+    public long getSafepointCount() {
+        return safepointCount;
+    }
+
+    public long getSafepointMillis() {
+        return safepointMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceUsage{" +
+                "wallNanos=" + wallNanos +
+                ", cpuNanos=" + cpuNanos +
+                ", userNanos=" + userNanos +
+                ", allocatedBytes=" + allocatedBytes +
+                ", gcCount=" + gcCount +
+                ", gcMillis=" + gcMillis +
+                ", safepointCount=" + safepointCount +
+                ", safepointMillis=" + safepointMillis +
+                '}';
+    }
+
+    private static boolean cpuTimeSupported() {
+        return threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+    }
+
+    /**
+     * @return 当前线程累计分配的字节数，不支持时为 -1
+     */
+    public static long allocatedBytes() {
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (sunThreadMXBean.isThreadAllocatedMemorySupported() && sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+                return sunThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static long[] gc() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean gcMXBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gcMXBean.getCollectionCount());
+            time += Math.max(0, gcMXBean.getCollectionTime());
+        }
+        return new long[]{count, time};
+    }
+
+    /**
+     * HotSpot 内部的 safepoint 统计，jdk9+ 需要 --add-exports java.management/sun.management=ALL-UNNAMED
+     */
+    private static long[] safepoint() {
+        if (hotspotRuntime == null) {
+            return null;
+        }
+        try {
+            long count = (long) safepointCountMethod.invoke(hotspotRuntime);
+            long time = (long) safepointTimeMethod.invoke(hotspotRuntime);
+            return new long[]{count, time};
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static class Meter {
+
+        private final long wallStart;
+
+        private final long cpuStart;
+
+        private final long userStart;
+
+        private final long allocatedStart;
+
+        private final long[] gcStart;
+
+        private final long[] safepointStart;
+
+        private Meter() {
+            // jvm级别的统计先取，线程级别的紧挨着方法执行，减少统计本身的开销
+            this.gcStart = gc();
+            this.safepointStart = safepoint();
+            this.allocatedStart = allocatedBytes();
+            boolean cpuTimeSupported = cpuTimeSupported();
+            this.userStart = cpuTimeSupported ? threadMXBean.getCurrentThreadUserTime() : -1;
+            this.cpuStart = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : -1;
+            this.wallStart = System.nanoTime();
+        }
+
+        /**
+         * 必须和 start 在同一个线程上调用
+         */
+        public ResourceUsage stop() {
+            ResourceUsage usage = new ResourceUsage();
+            usage.wallNanos = System.nanoTime() - wallStart;
+            if (cpuStart >= 0) {
+                usage.cpuNanos = threadMXBean.getCurrentThreadCpuTime() - cpuStart;
+                usage.userNanos = threadMXBean.getCurrentThreadUserTime() - userStart;
+            }
+            if (allocatedStart >= 0) {
+                usage.allocatedBytes = allocatedBytes() - allocatedStart;
+            }
+            long[] gcEnd = gc();
+            usage.gcCount = gcEnd[0] - gcStart[0];
+            usage.gcMillis = gcEnd[1] - gcStart[1];
+            long[] safepointEnd = safepoint();
+            if (safepointStart != null && safepointEnd != null) {
+                usage.safepointCount = safepointEnd[0] - safepointStart[0];
+                usage.safepointMillis = safepointEnd[1] - safepointStart[1];
+            }
+            return usage;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.lgp547.anydoor.schedule;
+
+import io.github.lgp547.anydoor.dto.ScheduleDto;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.context.ApplicationListener;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * 进程内定时执行任意方法，例如部署后预热缓存、定期刷新
+ * 启动完成后注册 any-door.schedule.jobs 配置的任务，也可以通过 /any_door/schedule 动态注册
+ */
+public class AnyDoorScheduler implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorScheduler.class);
+
+    private final Map<String, ScheduleJob> jobs = new ConcurrentHashMap<>();
+
+    private volatile ScheduledThreadPoolExecutor scheduler;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        List<ScheduleDto> scheduleDtos = SpringUtil.getProperty("any-door.schedule.jobs",
+                Bindable.listOf(ScheduleDto.class), Collections.emptyList());
+        for (ScheduleDto scheduleDto : scheduleDtos) {
+            try {
+                register(scheduleDto);
+            } catch (IllegalArgumentException e) {
+                log.error("any-door schedule config {} illegal", scheduleDto, e);
+            }
+        }
+    }
+
+    public ScheduleJob register(ScheduleDto scheduleDto) {
+        scheduleDto.verify();
+        String id = scheduleDto.getId() != null ? scheduleDto.getId()
+                : scheduleDto.getAnyDoorDto().getClassName() + "#" + scheduleDto.getAnyDoorDto().getMethodName();
+        ScheduleJob scheduleJob;
+        try {
+            scheduleJob = new ScheduleJob(id, scheduleDto, getScheduler());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("cron illegal " + scheduleDto.getCron(), e);
+        }
+        ScheduleJob old = jobs.put(id, scheduleJob);
+        if (old != null) {
+            old.cancel();
+        }
+        scheduleJob.start();
+        log.info("any-door schedule register {}", scheduleDto);
+        return scheduleJob;
+    }
+
+    @Nullable
+    public ScheduleJob cancel(String id) {
+        ScheduleJob scheduleJob = jobs.remove(id);
+        if (scheduleJob != null) {
+            scheduleJob.cancel();
+            log.info("any-door schedule cancel {}", id);
+        }
+        return scheduleJob;
+    }
+
+    public List<ScheduleJob> list() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    @Override
+    public void destroy() {
+        jobs.values().forEach(ScheduleJob::cancel);
+        jobs.clear();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private ScheduledThreadPoolExecutor getScheduler() {
+        ScheduledThreadPoolExecutor executor = scheduler;
+        if (executor == null) {
+            synchronized (this) {
+                executor = scheduler;
+                if (executor == null) {
+                    executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                        Thread thread = new Thread(runnable, "any-door-scheduler");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor.setRemoveOnCancelPolicy(true);
+                    scheduler = executor;
+                }
+            }
+        }
+        return executor;
+    }
+}
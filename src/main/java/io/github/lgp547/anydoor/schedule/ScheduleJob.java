@@ -0,0 +1,222 @@
+package io.github.lgp547.anydoor.schedule;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.github.lgp547.anydoor.core.AnyDoorExecutor;
+import io.github.lgp547.anydoor.core.AnyDoorService;
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.dto.ScheduleDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一个定时任务：调度线程只负责触发，方法在 {@link AnyDoorExecutor} 执行，上一次还没结束时跳过本次
+ */
+public class ScheduleJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduleJob.class);
+
+    public static final String STATUS_SUCCESS = "SUCCESS";
+
+    public static final String STATUS_FAIL = "FAIL";
+
+    private final String id;
+
+    private final ScheduleDto scheduleDto;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final CronExpression cronExpression;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong runCount = new AtomicLong();
+
+    private final AtomicLong failCount = new AtomicLong();
+
+    private final AtomicLong skipCount = new AtomicLong();
+
+    private volatile boolean cancelled;
+
+    private volatile ScheduledFuture<?> future;
+
+    private volatile LocalDateTime lastStartTime;
+
+    private volatile Long lastDurationMillis;
+
+    private volatile String lastStatus;
+
+    private volatile String lastError;
+
+    private volatile LocalDateTime nextFireTime;
+
+    ScheduleJob(String id, ScheduleDto scheduleDto, ScheduledExecutorService scheduler) {
+        this.id = id;
+        this.scheduleDto = scheduleDto;
+        this.scheduler = scheduler;
+        this.cronExpression = scheduleDto.getCron() == null ? null : CronExpression.parse(scheduleDto.getCron());
+    }
+
+    void start() {
+        long initialDelay = scheduleDto.getInitialDelay() == null ? 0 : scheduleDto.getInitialDelay();
+        if (scheduleDto.getFixedRate() != null) {
+            future = scheduler.scheduleAtFixedRate(this::trigger, initialDelay, scheduleDto.getFixedRate(), TimeUnit.MILLISECONDS);
+            nextFireTime = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(initialDelay));
+        } else {
+            scheduleNext(initialDelay);
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    private void scheduleNext(long delayMillis) {
+        if (cancelled) {
+            return;
+        }
+        if (cronExpression != null) {
+            // 触发时间可能比计划时间略早，以计划时间为基准避免同一时间点重复触发
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime base = nextFireTime != null && nextFireTime.isAfter(now) ? nextFireTime : now;
+            LocalDateTime next = cronExpression.next(base);
+            nextFireTime = next;
+            if (next == null) {
+                return;
+            }
+            delayMillis = Math.max(0, next.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() - System.currentTimeMillis());
+        } else {
+            nextFireTime = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delayMillis));
+        }
+        future = scheduler.schedule(this::trigger, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void trigger() {
+        if (scheduleDto.getFixedRate() != null) {
+            nextFireTime = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(scheduleDto.getFixedRate()));
+        }
+        if (!running.compareAndSet(false, true)) {
+            skipCount.incrementAndGet();
+            log.debug("any-door schedule {} skip, last run not finished", id);
+            if (cronExpression != null) {
+                scheduleNext(0);
+            }
+            return;
+        }
+        try {
+            AnyDoorExecutor.getInstance().execute(this::runOnce);
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            skipCount.incrementAndGet();
+            log.warn("any-door schedule {} rejected by executor", id);
+            if (scheduleDto.getFixedRate() == null) {
+                scheduleNext(scheduleDto.getFixedDelay() == null ? 0 : scheduleDto.getFixedDelay());
+            }
+            return;
+        }
+        if (cronExpression != null) {
+            scheduleNext(0);
+        }
+    }
+
+    private void runOnce() {
+        long start = System.nanoTime();
+        lastStartTime = LocalDateTime.now();
+        try {
+            AnyDoorDto anyDoorDto = scheduleDto.getAnyDoorDto();
+            anyDoorDto.setSync(true);
+            new AnyDoorService().doRun(anyDoorDto);
+            lastStatus = STATUS_SUCCESS;
+            lastError = null;
+        } catch (Throwable e) {
+            failCount.incrementAndGet();
+            lastStatus = STATUS_FAIL;
+            lastError = e.toString();
+            log.warn("any-door schedule {} exception", id, e);
+        } finally {
+            lastDurationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            runCount.incrementAndGet();
+            running.set(false);
+            if (scheduleDto.getFixedDelay() != null) {
+                scheduleNext(scheduleDto.getFixedDelay());
+            }
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @JsonIgnore
+    public ScheduleDto getScheduleDto() {
+        return scheduleDto;
+    }
+
+    public String getClassName() {
+        return scheduleDto.getAnyDoorDto().getClassName();
+    }
+
+    public String getMethodName() {
+        return scheduleDto.getAnyDoorDto().getMethodName();
+    }
+
+    public Long getFixedRate() {
+        return scheduleDto.getFixedRate();
+    }
+
+    public Long getFixedDelay() {
+        return scheduleDto.getFixedDelay();
+    }
+
+    public String getCron() {
+        return scheduleDto.getCron();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public long getRunCount() {
+        return runCount.get();
+    }
+
+    public long getFailCount() {
+        return failCount.get();
+    }
+
+    public long getSkipCount() {
+        return skipCount.get();
+    }
+
+    public LocalDateTime getLastStartTime() {
+        return lastStartTime;
+    }
+
+    public Long getLastDurationMillis() {
+        return lastDurationMillis;
+    }
+
+    public String getLastStatus() {
+        return lastStatus;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public LocalDateTime getNextFireTime() {
+        return nextFireTime;
+    }
+}
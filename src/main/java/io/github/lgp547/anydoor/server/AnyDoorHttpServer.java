@@ -0,0 +1,296 @@
+package io.github.lgp547.anydoor.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.lgp547.anydoor.admission.AnyDoorRejectedException;
+import io.github.lgp547.anydoor.core.AnyDoorService;
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.jfr.JfrSupport;
+import io.github.lgp547.anydoor.util.JsonUtil;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 内置的http服务，不经过项目的 servlet 容器、过滤器链及安全配置，提供与 /any_door/run 相同的请求和响应（json）
+ * 基于 jdk 自带的 com.sun.net.httpserver，连接默认 keep-alive，请求由自己的小线程池处理，不占用业务线程；
+ * 线程池队列满时返回503，与 servlet 方式相同
+ * <p>
+ * jdk 的 httpserver 在执行线程上才读取请求行和请求头，返回503也要先读完请求头。被拒绝的请求交给单独的一个线程处理，
+ * 不在 dispatcher 线程上读，慢的客户端不会卡住 accept；每个被拒绝的请求最多处理 reject-timeout，超时中断线程关闭连接，
+ * 客户端收到的是连接断开而不是503。该线程的队列也满时才退回 dispatcher 线程执行，同样受 reject-timeout 限制
+ * <p>
+ * any-door.server.enabled  是否开启，默认 false，不开启时不会创建该对象
+ * any-door.server.host     监听地址，默认 127.0.0.1 只允许本机访问
+ * any-door.server.port     监听端口，默认 9527
+ * any-door.server.threads  处理请求的线程数，默认 2
+ * any-door.server.backlog  等待 accept 的连接数，默认 16
+ * any-door.server.reject-timeout  处理一个被拒绝的请求（读请求头、返回503）的最长时间，默认 1s
+ */
+public class AnyDoorHttpServer implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorHttpServer.class);
+
+    private static final String GZIP = "gzip";
+
+    private static final ObjectReader ANY_DOOR_DTO_READER = JsonUtil.objectMapper.readerFor(AnyDoorDto.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    /**
+     * 线程池拒绝的请求只返回503
+     */
+    private static final ThreadLocal<Boolean> REJECTED = new ThreadLocal<>();
+
+    private volatile HttpServer httpServer;
+
+    private volatile ThreadPoolExecutor workers;
+
+    private volatile ThreadPoolExecutor rejector;
+
+    private volatile ScheduledThreadPoolExecutor rejectTimer;
+
+    /**
+     * 应用启动完成后再监听端口，不影响启动耗时
+     */
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        try {
+            start();
+        } catch (IOException e) {
+            log.error("any-door http server start exception", e);
+        }
+    }
+
+    public synchronized void start() throws IOException {
+        if (httpServer != null) {
+            return;
+        }
+        String host = SpringUtil.getProperty("any-door.server.host", String.class, "127.0.0.1");
+        int port = SpringUtil.getProperty("any-door.server.port", Integer.class, 9527);
+        int threads = SpringUtil.getProperty("any-door.server.threads", Integer.class, 2);
+        int backlog = SpringUtil.getProperty("any-door.server.backlog", Integer.class, 16);
+        long rejectTimeout = SpringUtil.getProperty("any-door.server.reject-timeout", Duration.class, Duration.ofSeconds(1)).toMillis();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getByName(host), port), backlog);
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, daemon("any-door-http-reject-timeout"));
+        timer.setRemoveOnCancelPolicy(true);
+        ThreadPoolExecutor rejectExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(backlog, 16)), daemon("any-door-http-reject"), new ThreadPoolExecutor.CallerRunsPolicy());
+        rejectExecutor.allowCoreThreadTimeOut(true);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(threads * 32), daemon("any-door-http"),
+                (runnable, pool) -> rejectExecutor.execute(() -> runRejected(runnable, timer, rejectTimeout)));
+        executor.allowCoreThreadTimeOut(true);
+        server.setExecutor(executor);
+        server.createContext("/any_door/run", this::run);
+        server.start();
+        this.workers = executor;
+        this.rejector = rejectExecutor;
+        this.rejectTimer = timer;
+        this.httpServer = server;
+        log.info("any-door http server listening on {}", server.getAddress());
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            workers.shutdownNow();
+            rejector.shutdownNow();
+            rejectTimer.shutdownNow();
+            httpServer = null;
+            workers = null;
+            rejector = null;
+            rejectTimer = null;
+        }
+    }
+
+    /**
+     * @return 实际监听的地址，未启动时为 null
+     */
+    public InetSocketAddress getAddress() {
+        HttpServer server = httpServer;
+        return server == null ? null : server.getAddress();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger threadNum = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNum.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 默认的 AbortPolicy 会把异常抛给 dispatcher 线程，连接直接断开，请求方不知道原因。
+     * 连接的 channel 是阻塞模式，超时中断当前线程会关闭 channel，读写马上失败，不会一直等慢的客户端
+     */
+    private static void runRejected(Runnable runnable, ScheduledExecutorService timer, long timeout) {
+        Deadline deadline = new Deadline(Thread.currentThread());
+        ScheduledFuture<?> future = timer.schedule(deadline::expire, timeout, TimeUnit.MILLISECONDS);
+        REJECTED.set(true);
+        try {
+            runnable.run();
+        } finally {
+            REJECTED.remove();
+            future.cancel(false);
+            if (deadline.finish()) {
+                log.debug("any-door http server rejected request timeout after {}ms", timeout);
+            }
+        }
+    }
+
+    private static class Deadline {
+
+        private final Thread thread;
+
+        private boolean finished;
+
+        private boolean expired;
+
+        Deadline(Thread thread) {
+            this.thread = thread;
+        }
+
+        synchronized void expire() {
+            if (!finished) {
+                expired = true;
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * 与 expire 互斥，结束之后不会再被中断；清除中断标记，线程（可能是 dispatcher）继续使用
+         *
+         * @return 是否超时
+         */
+        synchronized boolean finish() {
+            finished = true;
+            if (expired) {
+                Thread.interrupted();
+            }
+            return expired;
+        }
+    }
+
+    private void run(HttpExchange exchange) throws IOException {
+        try {
+            if (Boolean.TRUE.equals(REJECTED.get())) {
+                send(exchange, 503, "text/plain", "any-door http server is busy".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            AnyDoorDto anyDoorDto;
+            try (InputStream body = decodeBody(exchange)) {
+                anyDoorDto = ANY_DOOR_DTO_READER.readValue(body);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("any-door request body is invalid: " + e.getOriginalMessage(), e);
+            }
+            if (anyDoorDto == null) {
+                throw new IllegalArgumentException("any-door request body is required");
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("any_door http server run requestBody {}", anyDoorDto);
+            }
+
+            Object result = new AnyDoorService().run(anyDoorDto);
+            if (result == null) {
+                send(exchange, 200, "application/json", new byte[0]);
+                return;
+            }
+            Object serializeEvent = JfrSupport.begin(JfrSupport.SERIALIZE, anyDoorDto);
+            byte[] bytes;
+            try {
+                bytes = JsonUtil.objectMapper.writeValueAsBytes(result);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("any-door serialize result fail: " + e.getOriginalMessage(), e);
+            } finally {
+                JfrSupport.commit(serializeEvent);
+            }
+            send(exchange, 200, "application/json", bytes);
+        } catch (AnyDoorRejectedException e) {
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+            send(exchange, 429, "text/plain", String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, "text/plain", String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | UncheckedIOException e) {
+            log.debug("any-door http server io exception", e);
+            throw e;
+        } catch (RuntimeException e) {
+            log.error("any-door http server exception", e);
+            send(exchange, 500, "text/plain", e.toString().getBytes(StandardCharsets.UTF_8));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static InputStream decodeBody(HttpExchange exchange) throws IOException {
+        InputStream body = exchange.getRequestBody();
+        return GZIP.equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding")) ? new GZIPInputStream(body, 8192) : body;
+    }
+
+    /**
+     * 响应带 Content-Length，连接可以复用；较大的响应按 Accept-Encoding gzip 压缩，阈值与 any-door.wire.gzip-min-size 相同
+     */
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] bytes) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", contentType + ";charset=UTF-8");
+        headers.set("Vary", "Accept-Encoding");
+        int gzipMinSize = SpringUtil.getProperty("any-door.wire.gzip-min-size", Integer.class, 8192);
+        if (bytes.length >= gzipMinSize && acceptGzip(exchange.getRequestHeaders())) {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (OutputStream out = new GZIPOutputStream(byteArrayOutputStream, 8192)) {
+                out.write(bytes);
+            }
+            bytes = byteArrayOutputStream.toByteArray();
+            headers.set("Content-Encoding", GZIP);
+        }
+        // 长度为 -1 表示没有响应体
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static boolean acceptGzip(Headers headers) {
+        for (String acceptEncodings : headers.getOrDefault("Accept-Encoding", Collections.emptyList())) {
+            for (String acceptEncoding : acceptEncodings.split(",")) {
+                String value = acceptEncoding.trim().toLowerCase();
+                if (value.startsWith(GZIP) && !value.replace(" ", "").endsWith(";q=0")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
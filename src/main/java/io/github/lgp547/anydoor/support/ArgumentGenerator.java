@@ -0,0 +1,264 @@
+package io.github.lgp547.anydoor.support;
+
+import io.github.lgp547.anydoor.dto.GenerateDto;
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按参数的 ResolvableType 生成填充了随机值的参数：基本类型、字符串、枚举、时间、集合、Map、数组以及嵌套的对象（通过无参构造器和字段）。
+ * 接口、抽象类（集合除外）和没有无参构造器的类生成 null
+ */
+public class ArgumentGenerator {
+
+    private static final String CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    /**
+     * 时间类型以 2020-01-01 为起点，加上三年内的随机秒数，不使用当前时间，保证相同种子生成相同的值
+     */
+    private static final long EPOCH_SECOND = 1577836800L;
+
+    private static final int TIME_RANGE_SECONDS = 3 * 365 * 24 * 3600;
+
+    private static final int MAX_POOLS = 64;
+
+    /**
+     * 方法+生成提示 -> 预先生成的参数组，基准测试循环中只取参数，不计入生成的开销；
+     * 每次取出的是深拷贝，方法修改参数、多线程同时执行都不会影响池中的参数
+     */
+    private static final Map<String, Pool> POOLS = new ConcurrentHashMap<>();
+
+    private final GenerateDto generateDto;
+
+    private final Random random;
+
+    public ArgumentGenerator(GenerateDto generateDto) {
+        generateDto.verify();
+        this.generateDto = generateDto;
+        this.random = new Random(generateDto.getSeed());
+    }
+
+    /**
+     * @return 池中的下一组参数，参数组在第一次使用时生成，之后按顺序轮流返回
+     */
+    public static Object[] next(Method method, MethodParameter[] parameters, GenerateDto generateDto) {
+        String key = method.toGenericString() + generateDto;
+        Pool pool = POOLS.get(key);
+        if (pool == null) {
+            if (POOLS.size() >= MAX_POOLS) {
+                POOLS.clear();
+            }
+            pool = POOLS.computeIfAbsent(key, k -> new Pool(new ArgumentGenerator(generateDto), parameters, generateDto.getPool()));
+        }
+        return pool.next();
+    }
+
+    public Object[] generate(MethodParameter[] parameters) {
+        Object[] args = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            args[i] = generate(ResolvableType.forMethodParameter(parameters[i]));
+        }
+        return args;
+    }
+
+    public Object generate(ResolvableType type) {
+        return generate(type, generateDto.getDepth());
+    }
+
+    private Object generate(ResolvableType type, int depth) {
+        Class<?> clazz = type.resolve(Object.class);
+        Object simple = generateSimple(clazz);
+        if (simple != null) {
+            return simple;
+        }
+        if (clazz.isArray()) {
+            int length = depth > 0 ? generateDto.getSize() : 0;
+            Object array = Array.newInstance(clazz.getComponentType(), length);
+            for (int i = 0; i < length; i++) {
+                Array.set(array, i, generate(type.getComponentType(), depth - 1));
+            }
+            return array;
+        }
+        if (Collection.class.isAssignableFrom(clazz)) {
+            ResolvableType elementType = type.asCollection().getGeneric(0);
+            Collection<Object> collection = CollectionFactory.createCollection(clazz, elementType.resolve(), generateDto.getSize());
+            for (int i = 0; depth > 0 && i < generateDto.getSize(); i++) {
+                Object element = generate(elementType, depth - 1);
+                if (element != null) {
+                    collection.add(element);
+                }
+            }
+            return collection;
+        }
+        if (Map.class.isAssignableFrom(clazz)) {
+            ResolvableType mapType = type.asMap();
+            Map<Object, Object> map = CollectionFactory.createMap(clazz, mapType.getGeneric(0).resolve(), generateDto.getSize());
+            for (int i = 0; depth > 0 && i < generateDto.getSize(); i++) {
+                Object key = generate(mapType.getGeneric(0), depth - 1);
+                if (key != null) {
+                    map.put(key, generate(mapType.getGeneric(1), depth - 1));
+                }
+            }
+            return map;
+        }
+        if (Optional.class == clazz) {
+            return Optional.ofNullable(generate(type.getGeneric(0), depth));
+        }
+        if (depth <= 0 || clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers()) || clazz.getName().startsWith("java.")) {
+            return null;
+        }
+        return generateBean(type, clazz, depth);
+    }
+
+    private Object generateBean(ResolvableType type, Class<?> clazz, int depth) {
+        Object bean;
+        try {
+            Constructor<?> constructor = ReflectionUtils.accessibleConstructor(clazz);
+            bean = constructor.newInstance();
+        } catch (Exception e) {
+            return null;
+        }
+        ReflectionUtils.doWithFields(clazz, field -> {
+            ReflectionUtils.makeAccessible(field);
+            field.set(bean, generate(ResolvableType.forField(field, type), depth - 1));
+        }, ArgumentGenerator::isWritableField);
+        return bean;
+    }
+
+    private static boolean isWritableField(Field field) {
+        int modifiers = field.getModifiers();
+        return !Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) && !field.isSynthetic();
+    }
+
+    /**
+     * @return 不是简单类型时为 null
+     */
+    private Object generateSimple(Class<?> clazz) {
+        Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(clazz);
+        if (type == String.class || type == CharSequence.class) {
+            return randomString();
+        }
+        if (type == Integer.class) {
+            return random.nextInt(10000);
+        }
+        if (type == Long.class) {
+            return (long) random.nextInt(1000000);
+        }
+        if (type == Short.class) {
+            return (short) random.nextInt(Short.MAX_VALUE);
+        }
+        if (type == Byte.class) {
+            return (byte) random.nextInt(Byte.MAX_VALUE);
+        }
+        if (type == Double.class) {
+            return Math.round(random.nextDouble() * 1000000) / 100.0;
+        }
+        if (type == Float.class) {
+            return Math.round(random.nextFloat() * 1000000) / 100.0f;
+        }
+        if (type == Boolean.class) {
+            return random.nextBoolean();
+        }
+        if (type == Character.class) {
+            return CHARS.charAt(random.nextInt(CHARS.length()));
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal.valueOf(random.nextInt(1000000), 2);
+        }
+        if (type == BigInteger.class) {
+            return BigInteger.valueOf(random.nextInt(1000000));
+        }
+        if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            return constants.length == 0 ? null : constants[random.nextInt(constants.length)];
+        }
+        if (type == UUID.class) {
+            return new UUID(random.nextLong(), random.nextLong());
+        }
+        return generateTime(type);
+    }
+
+    private Object generateTime(Class<?> type) {
+        if (type != Date.class && type != Instant.class && type != LocalDateTime.class && type != LocalDate.class
+                && type != LocalTime.class && type != ZonedDateTime.class && type != OffsetDateTime.class && type != Duration.class) {
+            return null;
+        }
+        Instant instant = Instant.ofEpochSecond(EPOCH_SECOND + random.nextInt(TIME_RANGE_SECONDS));
+        ZonedDateTime dateTime = instant.atZone(ZoneId.systemDefault());
+        if (type == Date.class) {
+            return Date.from(instant);
+        }
+        if (type == Instant.class) {
+            return instant;
+        }
+        if (type == LocalDateTime.class) {
+            return dateTime.toLocalDateTime();
+        }
+        if (type == LocalDate.class) {
+            return dateTime.toLocalDate();
+        }
+        if (type == LocalTime.class) {
+            return dateTime.toLocalTime();
+        }
+        if (type == ZonedDateTime.class) {
+            return dateTime;
+        }
+        if (type == OffsetDateTime.class) {
+            return dateTime.toOffsetDateTime();
+        }
+        return Duration.ofSeconds(random.nextInt(3600));
+    }
+
+    private String randomString() {
+        char[] chars = new char[generateDto.getStringLength()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = CHARS.charAt(random.nextInt(CHARS.length()));
+        }
+        return new String(chars);
+    }
+
+    private static class Pool {
+
+        private final Object[][] args;
+
+        private final AtomicInteger index = new AtomicInteger();
+
+        Pool(ArgumentGenerator generator, MethodParameter[] parameters, int size) {
+            args = new Object[size][];
+            for (int i = 0; i < size; i++) {
+                args[i] = generator.generate(parameters);
+            }
+        }
+
+        Object[] next() {
+            // 调用方还会用 content 中给出的参数覆盖数组元素
+            return DeepCopier.copyArgs(args[(index.getAndIncrement() & Integer.MAX_VALUE) % args.length]);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package io.github.lgp547.anydoor.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.CollectionFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.objenesis.SpringObjenesis;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * 不经过json的深拷贝，每个类型的拷贝方式只在第一次遇到时确定
+ * <p>
+ * 不可变类型（字符串、包装类、枚举、java.time 等）直接共享；数组、集合、Map 按元素拷贝，jdk 中不可修改的集合拷贝为对应的可修改集合；
+ * 其它对象不经过构造器创建后逐个字段拷贝，字段无法访问的 jdk 内部类型直接共享。同一次拷贝中对象间的引用关系（包括循环引用）保持不变
+ */
+public class DeepCopier {
+
+    private static final Logger log = LoggerFactory.getLogger(DeepCopier.class);
+
+    private static final SpringObjenesis OBJENESIS = new SpringObjenesis();
+
+    private static final ClassValue<Copier> COPIERS = new ClassValue<Copier>() {
+        @Override
+        protected Copier computeValue(Class<?> type) {
+            return createCopier(type);
+        }
+    };
+
+    private final IdentityHashMap<Object, Object> copies = new IdentityHashMap<>();
+
+    /**
+     * 拷贝一组参数，参数之间共享的对象拷贝后仍然共享
+     */
+    public static Object[] copyArgs(Object[] args) {
+        DeepCopier deepCopier = new DeepCopier();
+        Object[] copy = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            copy[i] = deepCopier.copy(args[i]);
+        }
+        return copy;
+    }
+
+    @Nullable
+    public Object copy(@Nullable Object source) {
+        if (source == null) {
+            return null;
+        }
+        Object copy = copies.get(source);
+        if (copy != null) {
+            return copy;
+        }
+        return COPIERS.get(source.getClass()).copy(source, this);
+    }
+
+    private interface Copier {
+        Object copy(Object source, DeepCopier context);
+    }
+
+    private static final Copier SHARE = (source, context) -> source;
+
+    private static Copier createCopier(Class<?> type) {
+        if (isImmutable(type)) {
+            return SHARE;
+        }
+        if (type.isArray()) {
+            return type.getComponentType().isPrimitive() ? DeepCopier::copyPrimitiveArray : DeepCopier::copyArray;
+        }
+        if (Date.class.isAssignableFrom(type)) {
+            return (source, context) -> ((Date) source).clone();
+        }
+        if (Optional.class == type) {
+            return (source, context) -> ((Optional<?>) source).map(context::copy);
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return DeepCopier::copyCollection;
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return DeepCopier::copyMap;
+        }
+        return createFieldCopier(type);
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        return type.isPrimitive() || type.isEnum() || (type.getSuperclass() != null && type.getSuperclass().isEnum())
+                || type == String.class || type == Boolean.class || type == Character.class
+                || (Number.class.isAssignableFrom(type) && type.getName().startsWith("java.lang."))
+                || type == BigDecimal.class || type == BigInteger.class || type == UUID.class || type == Locale.class
+                || type == URI.class || type == Class.class || type.getName().startsWith("java.time.");
+    }
+
+    private static boolean isRecordOrHidden(Class<?> type) {
+        for (String methodName : new String[]{"isRecord", "isHidden"}) {
+            try {
+                if (Boolean.TRUE.equals(Class.class.getMethod(methodName).invoke(type))) {
+                    return true;
+                }
+            } catch (ReflectiveOperationException e) {
+                // jdk16 之前没有 record，jdk15 之前没有隐藏类
+            }
+        }
+        return type.isSynthetic();
+    }
+
+    private static Object copyPrimitiveArray(Object source, DeepCopier context) {
+        int length = Array.getLength(source);
+        Object copy = Array.newInstance(source.getClass().getComponentType(), length);
+        System.arraycopy(source, 0, copy, 0, length);
+        context.copies.put(source, copy);
+        return copy;
+    }
+
+    private static Object copyArray(Object source, DeepCopier context) {
+        Object[] array = (Object[]) source;
+        Object[] copy = (Object[]) Array.newInstance(source.getClass().getComponentType(), array.length);
+        context.copies.put(source, copy);
+        for (int i = 0; i < array.length; i++) {
+            copy[i] = context.copy(array[i]);
+        }
+        return copy;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Object copyCollection(Object source, DeepCopier context) {
+        Collection collection = (Collection) source;
+        Collection copy;
+        if (collection instanceof EnumSet) {
+            // 元素是枚举，不需要逐个拷贝
+            copy = EnumSet.copyOf((EnumSet) collection);
+            context.copies.put(source, copy);
+            return copy;
+        } else if (collection instanceof SortedSet) {
+            copy = new TreeSet(((SortedSet) collection).comparator());
+        } else {
+            copy = newCollection(collection);
+        }
+        context.copies.put(source, copy);
+        for (Object element : collection) {
+            copy.add(context.copy(element));
+        }
+        return copy;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Collection newCollection(Collection collection) {
+        try {
+            // Collections.unmodifiableList、List.of 等不可修改的集合都不是 public 类
+            if (Modifier.isPublic(collection.getClass().getModifiers())) {
+                return CollectionFactory.createCollection(collection.getClass(), collection.size());
+            }
+        } catch (Exception e) {
+            log.debug("any-door create collection {} fail: {}", collection.getClass().getName(), e.toString());
+        }
+        if (collection instanceof Set) {
+            return new LinkedHashSet(collection.size() * 4 / 3 + 1);
+        }
+        return new ArrayList(collection.size());
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Object copyMap(Object source, DeepCopier context) {
+        Map map = (Map) source;
+        Map copy;
+        if (map instanceof EnumMap) {
+            copy = new EnumMap((EnumMap) map);
+            copy.clear();
+        } else if (map instanceof SortedMap) {
+            copy = new TreeMap(((SortedMap) map).comparator());
+        } else {
+            copy = newMap(map);
+        }
+        context.copies.put(source, copy);
+        for (Object entryObject : map.entrySet()) {
+            Map.Entry entry = (Map.Entry) entryObject;
+            copy.put(context.copy(entry.getKey()), context.copy(entry.getValue()));
+        }
+        return copy;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Map newMap(Map map) {
+        try {
+            if (Modifier.isPublic(map.getClass().getModifiers())) {
+                return CollectionFactory.createMap(map.getClass(), map.size());
+            }
+        } catch (Exception e) {
+            log.debug("any-door create map {} fail: {}", map.getClass().getName(), e.toString());
+        }
+        return new LinkedHashMap(map.size() * 4 / 3 + 1);
+    }
+
+    private static Copier createFieldCopier(Class<?> type) {
+        if (isRecordOrHidden(type)) {
+            // record 及 lambda 等隐藏类的 final 字段不能通过反射修改
+            return SHARE;
+        }
+        List<Field> fields = new ArrayList<>();
+        try {
+            for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                for (Field field : clazz.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            OBJENESIS.getInstantiatorOf(type);
+        } catch (RuntimeException e) {
+            // jdk9+ 没有开放的模块中的字段
+            log.debug("any-door deep copy {} not supported, share instance: {}", type.getName(), e.toString());
+            return SHARE;
+        }
+        Field[] fieldArray = fields.toArray(new Field[0]);
+        return (source, context) -> {
+            Object copy = OBJENESIS.newInstance(type);
+            context.copies.put(source, copy);
+            try {
+                for (Field field : fieldArray) {
+                    Object value = field.get(source);
+                    field.set(copy, field.getType().isPrimitive() ? value : context.copy(value));
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("any-door deep copy " + type.getName() + " fail", e);
+            }
+            return copy;
+        };
+    }
+}
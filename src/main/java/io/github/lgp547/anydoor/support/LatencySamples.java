@@ -0,0 +1,32 @@
+package io.github.lgp547.anydoor.support;
+
+import java.util.Arrays;
+
+/**
+ * 耗时样本（纳秒），非线程安全
+ */
+public class LatencySamples {
+
+    private long[] samples = new long[64];
+
+    private int size;
+
+    public void add(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(samples, size);
+    }
+
+    public LatencySummary summary() {
+        return LatencySummary.of(toArray());
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.lgp547.anydoor.support;
+
+import java.util.Arrays;
+
+/**
+ * 耗时统计，单位毫秒
+ */
+public class LatencySummary {
+
+    private int count;
+
+    private double mean;
+
+    private double min;
+
+    private double p50;
+
+    private double p90;
+
+    private double p99;
+
+    private double max;
+
+    /**
+     * 标准差
+     */
+    private double stdDev;
+
+    public static LatencySummary of(long[] nanos) {
+        LatencySummary summary = new LatencySummary();
+        summary.count = nanos.length;
+        if (nanos.length == 0) {
+            return summary;
+        }
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double sum = 0;
+        for (long value : sorted) {
+            sum += value;
+        }
+        double mean = sum / sorted.length;
+        double variance = 0;
+        for (long value : sorted) {
+            variance += (value - mean) * (value - mean);
+        }
+        summary.mean = toMillis(mean);
+        summary.stdDev = toMillis(Math.sqrt(variance / sorted.length));
+        summary.min = toMillis(sorted[0]);
+        summary.p50 = toMillis(percentile(sorted, 0.5));
+        summary.p90 = toMillis(percentile(sorted, 0.9));
+        summary.p99 = toMillis(percentile(sorted, 0.99));
+        summary.max = toMillis(sorted[sorted.length - 1]);
+        return summary;
+    }
+
+    public static LatencySummary of(StripedHistogram histogram) {
+        long[] counts = histogram.snapshot();
+        int buckets = StripedHistogram.buckets();
+        long total = counts[buckets];
+        LatencySummary summary = new LatencySummary();
+        summary.count = (int) Math.min(total, Integer.MAX_VALUE);
+        if (total == 0) {
+            return summary;
+        }
+        double mean = (double) counts[buckets + 1] / total;
+        double variance = 0;
+        for (int i = 0; i < buckets; i++) {
+            if (counts[i] > 0) {
+                double diff = StripedHistogram.value(i) - mean;
+                variance += diff * diff * counts[i];
+            }
+        }
+        summary.mean = toMillis(mean);
+        summary.stdDev = toMillis(Math.sqrt(variance / total));
+        summary.min = toMillis(counts[buckets + 2]);
+        summary.p50 = toMillis(percentile(counts, buckets, total, 0.5));
+        summary.p90 = toMillis(percentile(counts, buckets, total, 0.9));
+        summary.p99 = toMillis(percentile(counts, buckets, total, 0.99));
+        summary.max = toMillis(counts[buckets + 3]);
+        return summary;
+    }
+
+    private static long percentile(long[] counts, int buckets, long total, double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < buckets; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // 桶中间值可能超出实际的最小/最大值
+                return Math.min(counts[buckets + 3], Math.max(counts[buckets + 2], StripedHistogram.value(i)));
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param sorted 已排序
+     */
+    public static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double toMillis(double nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getStdDev() {
+        return stdDev;
+    }
+}
@@ -0,0 +1,266 @@
+package io.github.lgp547.anydoor.support;
+
+import io.github.lgp547.anydoor.instrument.InstrumentationHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 按 HotSpot 对象布局估算对象图占用的内存：对象头 + 字段，按8字节对齐，压缩指针时引用为4字节。
+ * 字段无法访问的 jdk 内部集合按元素遍历，每个元素额外计一个槽位/节点的开销
+ * <p>
+ * 有 agent 的 Instrumentation 时 {@link #measure} 使用 jvm 给出的对象大小，布局估算只作为没有 agent 时的兜底
+ */
+public class ObjectSizes {
+
+    private static final Logger log = LoggerFactory.getLogger(ObjectSizes.class);
+
+    private static final boolean COMPRESSED_OOPS = compressedOops();
+
+    static final int REFERENCE_SIZE = COMPRESSED_OOPS ? 4 : 8;
+
+    static final int OBJECT_HEADER_SIZE = COMPRESSED_OOPS ? 12 : 16;
+
+    static final int ARRAY_HEADER_SIZE = COMPRESSED_OOPS ? 16 : 24;
+
+    /**
+     * HashMap.Node 等链表节点的大小
+     */
+    private static final int ENTRY_SIZE = align(OBJECT_HEADER_SIZE + 4 + REFERENCE_SIZE * 3);
+
+    private static final ClassValue<Layout> LAYOUTS = new ClassValue<Layout>() {
+        @Override
+        protected Layout computeValue(Class<?> type) {
+            return new Layout(type);
+        }
+    };
+
+    /**
+     * 估算 root 可达的对象图的大小，最多遍历 maxNodes 个对象
+     */
+    public static long estimate(Object root, int maxNodes) {
+        if (root == null) {
+            return 0;
+        }
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Object> stack = new ArrayDeque<>();
+        stack.push(root);
+        visited.add(root);
+        long bytes = 0;
+        while (!stack.isEmpty() && visited.size() <= maxNodes) {
+            Object obj = stack.pop();
+            bytes += shallowSize(obj);
+            for (Object child : children(obj)) {
+                if (child != null && !(child instanceof Class) && visited.add(child)) {
+                    stack.push(child);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 测量 root 可达的对象图：有 agent 的 Instrumentation 时用 getObjectSize 取每个对象的大小，否则按布局估算，
+     * 同时按类型合计，取最大的 topN 个类型。遍历用显式栈，对象图再深也不会栈溢出
+     */
+    public static RetainedSize measure(@Nullable Object root, int maxNodes, int topN) {
+        return measure(root, maxNodes, topN, InstrumentationHolder.getIfAvailable());
+    }
+
+    static RetainedSize measure(@Nullable Object root, int maxNodes, int topN, @Nullable Instrumentation instrumentation) {
+        RetainedSize retainedSize = new RetainedSize();
+        retainedSize.setSource(instrumentation != null ? RetainedSize.SOURCE_INSTRUMENTATION : RetainedSize.SOURCE_ESTIMATE);
+        Map<Class<?>, long[]> classSizes = new HashMap<>();
+        long bytes = 0;
+        long count = 0;
+        if (root != null) {
+            Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            ArrayDeque<Object> stack = new ArrayDeque<>();
+            stack.push(root);
+            visited.add(root);
+            while (!stack.isEmpty() && count < maxNodes) {
+                Object obj = stack.pop();
+                long size = instrumentation != null ? instrumentation.getObjectSize(obj) + extraSize(obj) : shallowSize(obj);
+                bytes += size;
+                count++;
+                long[] classSize = classSizes.computeIfAbsent(obj.getClass(), k -> new long[2]);
+                classSize[0]++;
+                classSize[1] += size;
+                for (Object child : children(obj)) {
+                    if (child != null && !(child instanceof Class) && visited.add(child)) {
+                        stack.push(child);
+                    }
+                }
+            }
+            retainedSize.setTruncated(!stack.isEmpty());
+        }
+        retainedSize.setTotalBytes(bytes);
+        retainedSize.setObjectCount(count);
+        retainedSize.setTopClasses(classSizes.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]))
+                .limit(topN)
+                .map(entry -> new RetainedSize.ClassSize(entry.getKey().getName(), entry.getValue()[0], entry.getValue()[1]))
+                .collect(Collectors.toList()));
+        return retainedSize;
+    }
+
+    static long shallowSize(Object obj) {
+        Class<?> type = obj.getClass();
+        if (type.isArray()) {
+            Class<?> componentType = type.getComponentType();
+            return align(ARRAY_HEADER_SIZE + (long) Array.getLength(obj) * fieldSize(componentType));
+        }
+        return LAYOUTS.get(type).shallowSize + extraSize(obj);
+    }
+
+    /**
+     * 字段无法访问的类型，内部数组、节点不会被遍历到，按内容估算它们的大小
+     */
+    private static long extraSize(Object obj) {
+        if (obj.getClass().isArray()) {
+            return 0;
+        }
+        Layout layout = LAYOUTS.get(obj.getClass());
+        long size = 0;
+        if (!layout.accessible) {
+            if (obj instanceof String) {
+                // jdk9+ 读取不到 value 字段，拉丁字符按每个字符1字节计
+                size += align(ARRAY_HEADER_SIZE + (long) ((String) obj).length());
+            } else if (obj instanceof Collection) {
+                size += (long) ((Collection<?>) obj).size() * (REFERENCE_SIZE + ENTRY_SIZE / 2);
+            } else if (obj instanceof Map) {
+                size += (long) ((Map<?, ?>) obj).size() * (REFERENCE_SIZE + ENTRY_SIZE);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 引用的对象，基本类型数组没有
+     */
+    static List<Object> children(Object obj) {
+        Class<?> type = obj.getClass();
+        if (type.isArray()) {
+            if (type.getComponentType().isPrimitive()) {
+                return Collections.emptyList();
+            }
+            Object[] array = (Object[]) obj;
+            List<Object> children = new ArrayList<>(array.length);
+            Collections.addAll(children, array);
+            return children;
+        }
+        Layout layout = LAYOUTS.get(type);
+        if (!layout.accessible) {
+            if (obj instanceof Collection) {
+                return new ArrayList<>((Collection<?>) obj);
+            }
+            if (obj instanceof Map) {
+                List<Object> children = new ArrayList<>(((Map<?, ?>) obj).size() * 2);
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) obj).entrySet()) {
+                    children.add(entry.getKey());
+                    children.add(entry.getValue());
+                }
+                return children;
+            }
+            return Collections.emptyList();
+        }
+        List<Object> children = new ArrayList<>(layout.referenceFields.length);
+        for (Field field : layout.referenceFields) {
+            try {
+                children.add(field.get(obj));
+            } catch (IllegalAccessException e) {
+                log.debug("any-door object size read {} fail", field, e);
+            }
+        }
+        return children;
+    }
+
+    static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE_SIZE;
+    }
+
+    private static boolean compressedOops() {
+        try {
+            com.sun.management.HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+            return Boolean.parseBoolean(bean.getVMOption("UseCompressedOops").getValue());
+        } catch (Throwable e) {
+            log.debug("any-door UseCompressedOops unknown {}", e.toString());
+            return !"64".equals(System.getProperty("sun.arch.data.model")) || Runtime.getRuntime().maxMemory() < 32L * 1024 * 1024 * 1024;
+        }
+    }
+
+    private static class Layout {
+
+        private final long shallowSize;
+
+        private final Field[] referenceFields;
+
+        /**
+         * jdk9+ 没有开放的模块中的类型不能读取字段
+         */
+        private final boolean accessible;
+
+        Layout(Class<?> type) {
+            long size = OBJECT_HEADER_SIZE;
+            List<Field> references = new ArrayList<>();
+            boolean canAccess = true;
+            for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+                for (Field field : clazz.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    size += fieldSize(field.getType());
+                    if (!field.getType().isPrimitive()) {
+                        references.add(field);
+                    }
+                }
+            }
+            try {
+                for (Field field : references) {
+                    field.setAccessible(true);
+                }
+            } catch (RuntimeException e) {
+                canAccess = false;
+            }
+            this.shallowSize = align(size);
+            this.referenceFields = references.toArray(new Field[0]);
+            this.accessible = canAccess;
+        }
+    }
+}
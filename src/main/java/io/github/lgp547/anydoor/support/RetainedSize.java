@@ -0,0 +1,114 @@
+package io.github.lgp547.anydoor.support;
+
+import java.util.List;
+
+/**
+ * 返回值可达的对象图占用的内存，被多处引用的对象只计一次
+ */
+public class RetainedSize {
+
+    public static final String SOURCE_INSTRUMENTATION = "instrumentation";
+
+    public static final String SOURCE_ESTIMATE = "estimate";
+
+    private long totalBytes;
+
+    private long objectCount;
+
+    /**
+     * 达到遍历对象数上限，结果偏小
+     */
+    private boolean truncated;
+
+    /**
+     * 大小来源：instrumentation（agent 的 getObjectSize）或 estimate（按对象布局估算）
+     */
+    private String source;
+
+    /**
+     * 按类型合计的大小，从大到小
+     */
+    private List<ClassSize> topClasses;
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public long getObjectCount() {
+        return objectCount;
+    }
+
+    public void setObjectCount(long objectCount) {
+        this.objectCount = objectCount;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public List<ClassSize> getTopClasses() {
+        return topClasses;
+    }
+
+    public void setTopClasses(List<ClassSize> topClasses) {
+        this.topClasses = topClasses;
+    }
+
+    public static class ClassSize {
+
+        private String className;
+
+        private long count;
+
+        private long bytes;
+
+        public ClassSize() {
+        }
+
+        public ClassSize(String className, long count, long bytes) {
+            this.className = className;
+            this.count = count;
+            this.bytes = bytes;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public void setClassName(String className) {
+            this.className = className;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public void setBytes(long bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
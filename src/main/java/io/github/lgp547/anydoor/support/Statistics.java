@@ -0,0 +1,107 @@
+package io.github.lgp547.anydoor.support;
+
+import java.util.Arrays;
+
+/**
+ * 两组耗时样本的显著性检验，样本量较大时使用正态近似
+ */
+public class Statistics {
+
+    /**
+     * Mann-Whitney U 检验（秩和检验），不要求正态分布，对长尾的耗时更稳健
+     *
+     * @return 双侧 p 值
+     */
+    public static double mannWhitneyPValue(long[] a, long[] b) {
+        int n1 = a.length;
+        int n2 = b.length;
+        if (n1 == 0 || n2 == 0) {
+            return 1;
+        }
+        long[][] all = new long[n1 + n2][];
+        for (int i = 0; i < n1; i++) {
+            all[i] = new long[]{a[i], 0};
+        }
+        for (int i = 0; i < n2; i++) {
+            all[n1 + i] = new long[]{b[i], 1};
+        }
+        Arrays.sort(all, (x, y) -> Long.compare(x[0], y[0]));
+        double rankSumA = 0;
+        double tieCorrection = 0;
+        int i = 0;
+        while (i < all.length) {
+            int j = i;
+            while (j + 1 < all.length && all[j + 1][0] == all[i][0]) {
+                j++;
+            }
+            // 相同值取平均秩
+            double rank = (i + j) / 2.0 + 1;
+            for (int k = i; k <= j; k++) {
+                if (all[k][1] == 0) {
+                    rankSumA += rank;
+                }
+            }
+            double ties = j - i + 1;
+            tieCorrection += ties * ties * ties - ties;
+            i = j + 1;
+        }
+        double u = rankSumA - n1 * (n1 + 1) / 2.0;
+        double mean = n1 * (double) n2 / 2;
+        double n = n1 + n2;
+        double variance = n1 * (double) n2 / 12 * ((n + 1) - tieCorrection / (n * (n - 1)));
+        if (variance <= 0) {
+            return 1;
+        }
+        double z = (Math.abs(u - mean) - 0.5) / Math.sqrt(variance);
+        return Math.min(1, 2 * (1 - normalCdf(Math.max(0, z))));
+    }
+
+    /**
+     * Welch 两样本均值差 b - a 的 95% 置信区间
+     *
+     * @return [下限, 上限]，单位同样本
+     */
+    public static double[] meanDiffInterval(long[] a, long[] b) {
+        double meanA = mean(a);
+        double meanB = mean(b);
+        return meanDiffInterval(meanA, Math.sqrt(variance(a, meanA)), a.length, meanB, Math.sqrt(variance(b, meanB)), b.length);
+    }
+
+    /**
+     * 只有汇总统计（平均值、标准差、样本数）时的 Welch 95% 置信区间
+     */
+    public static double[] meanDiffInterval(double meanA, double stdDevA, long countA, double meanB, double stdDevB, long countB) {
+        double standardError = Math.sqrt(stdDevA * stdDevA / Math.max(1, countA) + stdDevB * stdDevB / Math.max(1, countB));
+        double diff = meanB - meanA;
+        return new double[]{diff - 1.96 * standardError, diff + 1.96 * standardError};
+    }
+
+    public static double mean(long[] values) {
+        double sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return values.length == 0 ? 0 : sum / values.length;
+    }
+
+    public static double variance(long[] values, double mean) {
+        if (values.length < 2) {
+            return 0;
+        }
+        double sum = 0;
+        for (long value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return sum / (values.length - 1);
+    }
+
+    /**
+     * 标准正态分布函数，Abramowitz-Stegun 7.1.26 近似，误差小于 1.5e-7
+     */
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - (((((1.061405429 * t - 1.453152027) * t) + 1.421413741) * t - 0.284496736) * t + 0.254829592) * t * Math.exp(-x * x);
+        return z >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+    }
+}
@@ -0,0 +1,336 @@
+package io.github.lgp547.anydoor.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.lgp547.anydoor.util.JsonUtil;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import io.github.lgp547.anydoor.util.SpringWebmvcUtil;
+import io.github.lgp547.anydoor.util.WireFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 通过引用传入的大参数：content 中参数的值为 {"@file": "本地文件路径"} 或 {"@part": "multipart 的 part 名"}，
+ * 参数直接从文件流反序列化，不再经过 content 的json字符串
+ * <p>
+ * InputStream 参数得到文件流（方法执行完后关闭），Path/File 参数得到文件路径，ByteBuffer/MappedByteBuffer 参数得到只读的内存映射，
+ * byte[]/String 参数读取全部内容，其它类型按文件后缀（.smile/.cbor，其余按json）从流中反序列化。
+ * part 需要本地路径时写到临时文件，方法执行完后删除
+ * <p>
+ * any-door.upload.allowed-dirs  允许 @file 引用的目录，为空时不允许 @file
+ */
+public class StreamArgument {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamArgument.class);
+
+    public static final String FILE = "@file";
+
+    public static final String PART = "@part";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * part 写出的临时文件，作为 Path/File 参数交给方法，close 时删除
+     */
+    private static final Set<Path> TEMP_FILES = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 参数的数据来源
+     */
+    public interface Source {
+
+        String getName();
+
+        InputStream open() throws IOException;
+
+        /**
+         * @return 本地文件路径，没有落盘的 part 为 null
+         */
+        @Nullable
+        Path getPath();
+    }
+
+    public static Source file(String file) {
+        return file(file, SpringUtil.getProperty("any-door.upload.allowed-dirs", Bindable.listOf(String.class), Collections.emptyList()));
+    }
+
+    /**
+     * 按真实路径（解析符号链接后）判断是否在允许的目录下，目录中指向外部的链接不能绕过限制
+     */
+    static Source file(String file, List<String> allowedDirs) {
+        // 接口可以远程调用，默认不允许读取本地文件
+        if (allowedDirs.isEmpty()) {
+            throw new IllegalArgumentException("any-door @file is disabled, configure any-door.upload.allowed-dirs to enable it");
+        }
+        Path path;
+        try {
+            path = Paths.get(file).toRealPath();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("any-door @file " + file + " cannot be resolved", e);
+        }
+        if (allowedDirs.stream().map(StreamArgument::realPath).noneMatch(dir -> dir != null && path.startsWith(dir))) {
+            throw new IllegalArgumentException("any-door @file " + path + " is not under any-door.upload.allowed-dirs");
+        }
+        if (!Files.isReadable(path) || Files.isDirectory(path)) {
+            throw new IllegalArgumentException("any-door @file " + path + " is not a readable file");
+        }
+        return new Source() {
+            @Override
+            public String getName() {
+                return path.getFileName().toString();
+            }
+
+            @Override
+            public InputStream open() throws IOException {
+                return Files.newInputStream(path);
+            }
+
+            @Override
+            public Path getPath() {
+                return path;
+            }
+        };
+    }
+
+    /**
+     * @return 目录不存在时为 null
+     */
+    @Nullable
+    private static Path realPath(String dir) {
+        try {
+            return Paths.get(dir).toRealPath();
+        } catch (IOException | RuntimeException e) {
+            log.debug("any-door upload allowed dir {} cannot be resolved", dir, e);
+            return null;
+        }
+    }
+
+    /**
+     * @param raw   content 中参数的值
+     * @param parts multipart 请求中除了请求本身之外的 part
+     * @return 不是引用时返回 null
+     */
+    @Nullable
+    public static Source resolve(@Nullable Object raw, Map<String, Source> parts) {
+        String file = referenceOf(raw, FILE);
+        if (file != null) {
+            return file(file);
+        }
+        String part = referenceOf(raw, PART);
+        if (part != null) {
+            Source source = parts.get(part);
+            if (source == null) {
+                throw new IllegalArgumentException("any-door @part " + part + " not found in multipart request");
+            }
+            return source;
+        }
+        return null;
+    }
+
+    /**
+     * content 中是否有参数通过引用传入，这类调用不记录参数内容
+     */
+    public static boolean hasReference(@Nullable Object content) {
+        if (content instanceof Map) {
+            return ((Map<?, ?>) content).values().stream().anyMatch(StreamArgument::isReference);
+        }
+        if (content instanceof JsonNode) {
+            for (JsonNode value : (JsonNode) content) {
+                if (isReference(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isReference(@Nullable Object raw) {
+        return referenceOf(raw, FILE) != null || referenceOf(raw, PART) != null;
+    }
+
+    @Nullable
+    private static String referenceOf(@Nullable Object raw, String key) {
+        if (raw instanceof Map && ((Map<?, ?>) raw).size() == 1) {
+            Object value = ((Map<?, ?>) raw).get(key);
+            return value instanceof String ? (String) value : null;
+        }
+        if (raw instanceof JsonNode && ((JsonNode) raw).isObject() && ((JsonNode) raw).size() == 1) {
+            JsonNode value = ((JsonNode) raw).get(key);
+            return value != null && value.isTextual() ? value.asText() : null;
+        }
+        return null;
+    }
+
+    /**
+     * 按参数类型从数据来源读取参数
+     */
+    public static Object read(MethodParameter parameter, Source source) {
+        Class<?> type = parameter.getParameterType();
+        try {
+            if (InputStream.class == type) {
+                return new ArgumentInputStream(source.open());
+            }
+            if (Path.class == type) {
+                return tempFileIfNeeded(localPath(source), source);
+            }
+            if (File.class == type) {
+                return tempFileIfNeeded(localPath(source), source).toFile();
+            }
+            if (ByteBuffer.class == type || MappedByteBuffer.class == type) {
+                Path path = localPath(source);
+                // 映射建立后关闭 channel 不影响映射
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                } finally {
+                    if (source.getPath() == null) {
+                        // 已经映射的文件删除后映射仍然可用，不支持删除映射中的文件时（Windows）只记录日志
+                        deleteQuietly(path);
+                    }
+                }
+            }
+            if (byte[].class == type) {
+                return readBytes(source);
+            }
+            if (String.class == type || CharSequence.class == type) {
+                return new String(readBytes(source), StandardCharsets.UTF_8);
+            }
+            return readObject(parameter, source);
+        } catch (IOException e) {
+            throw new UncheckedIOException("any-door read " + source.getName() + " fail", e);
+        }
+    }
+
+    /**
+     * 关闭方法没有关闭的文件流，删除 part 写出的临时文件
+     */
+    public static void close(@Nullable Object[] args) {
+        if (args == null) {
+            return;
+        }
+        for (Object arg : args) {
+            if (arg instanceof ArgumentInputStream) {
+                try {
+                    ((ArgumentInputStream) arg).close();
+                } catch (IOException e) {
+                    log.debug("any-door close argument stream exception", e);
+                }
+            } else if (arg instanceof Path || arg instanceof File) {
+                Path path = arg instanceof File ? ((File) arg).toPath() : (Path) arg;
+                if (TEMP_FILES.remove(path)) {
+                    deleteQuietly(path);
+                }
+            }
+        }
+    }
+
+    private static Object readObject(MethodParameter parameter, Source source) throws IOException {
+        if (!SpringUtil.webPresent) {
+            return readObject(JsonUtil.objectMapper, parameter, source);
+        }
+        WireFormat wireFormat = formatOf(source.getName());
+        if (wireFormat == WireFormat.JSON) {
+            Object obj;
+            try (InputStream in = new BufferedInputStream(source.open(), BUFFER_SIZE)) {
+                obj = SpringWebmvcUtil.readObject(parameter.getNestedGenericParameterType(), parameter.getContainingClass(), in);
+            }
+            if (obj != null) {
+                return obj;
+            }
+        }
+        return readObject(wireFormat.getObjectMapper(), parameter, source);
+    }
+
+    private static Object readObject(ObjectMapper objectMapper, MethodParameter parameter, Source source) throws IOException {
+        JavaType javaType = objectMapper.getTypeFactory().constructType(ResolvableType.forMethodParameter(parameter).getType());
+        try (InputStream in = new BufferedInputStream(source.open(), BUFFER_SIZE)) {
+            return objectMapper.readerFor(javaType).readValue(in);
+        }
+    }
+
+    private static WireFormat formatOf(String name) {
+        String lowerName = name.toLowerCase();
+        if (lowerName.endsWith(".smile") && WireFormat.SMILE.isPresent()) {
+            return WireFormat.SMILE;
+        }
+        if (lowerName.endsWith(".cbor") && WireFormat.CBOR.isPresent()) {
+            return WireFormat.CBOR;
+        }
+        return WireFormat.JSON;
+    }
+
+    private static byte[] readBytes(Source source) throws IOException {
+        Path path = source.getPath();
+        if (path != null) {
+            return Files.readAllBytes(path);
+        }
+        try (InputStream in = source.open()) {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+
+    /**
+     * 没有落盘的 part 先写到临时文件
+     */
+    private static Path localPath(Source source) throws IOException {
+        Path path = source.getPath();
+        if (path != null) {
+            return path;
+        }
+        Path tempFile = Files.createTempFile("any-door-upload-", ".tmp");
+        try (InputStream in = source.open()) {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(tempFile);
+            throw e;
+        }
+        return tempFile;
+    }
+
+    private static Path tempFileIfNeeded(Path path, Source source) {
+        if (source.getPath() == null) {
+            TEMP_FILES.add(path);
+        }
+        return path;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("any-door delete temp file {} exception", path, e);
+        }
+    }
+
+    private static class ArgumentInputStream extends BufferedInputStream {
+
+        ArgumentInputStream(InputStream in) {
+            super(in, BUFFER_SIZE);
+        }
+    }
+}
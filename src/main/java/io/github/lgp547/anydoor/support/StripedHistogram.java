@@ -0,0 +1,109 @@
+package io.github.lgp547.anydoor.support;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 纳秒耗时直方图，线程安全且记录时无锁、不分配内存。
+ * 桶按对数-线性划分（每个2的幂区间再分64份），相对误差不超过 1/64；按线程分条减少多核下的竞争
+ */
+public class StripedHistogram {
+
+    /**
+     * 小于 SUB_BUCKETS 的值每个值一个桶，之后每个2的幂区间 HALF 个桶
+     */
+    private static final int SUB_BUCKETS = 128;
+
+    private static final int HALF = SUB_BUCKETS / 2;
+
+    private static final int BUCKETS = SUB_BUCKETS + 56 * HALF;
+
+    /**
+     * 总数不单独记录，快照时由各桶相加
+     */
+    private static final int COUNT = BUCKETS;
+
+    private static final int SUM = BUCKETS + 1;
+
+    private static final int MIN = BUCKETS + 2;
+
+    private static final int MAX = BUCKETS + 3;
+
+    private final AtomicLongArray[] stripes;
+
+    private final int mask;
+
+    public StripedHistogram() {
+        int size = 1;
+        while (size < Math.min(Runtime.getRuntime().availableProcessors(), 16)) {
+            size <<= 1;
+        }
+        stripes = new AtomicLongArray[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS + 4);
+            stripes[i].set(MIN, Long.MAX_VALUE);
+        }
+        mask = size - 1;
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        AtomicLongArray stripe = stripes[(int) ((Thread.currentThread().getId() * 0x9E3779B9L) >>> 16) & mask];
+        stripe.incrementAndGet(index(value));
+        stripe.addAndGet(SUM, value);
+        long min;
+        while (value < (min = stripe.get(MIN)) && !stripe.compareAndSet(MIN, min, value)) {
+            // retry
+        }
+        long max;
+        while (value > (max = stripe.get(MAX)) && !stripe.compareAndSet(MAX, max, value)) {
+            // retry
+        }
+    }
+
+    /**
+     * @return 各桶合并后的计数，最后四位依次为 总数、总和、最小值、最大值
+     */
+    public long[] snapshot() {
+        long[] counts = new long[BUCKETS + 4];
+        counts[MIN] = Long.MAX_VALUE;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long count = stripe.get(i);
+                counts[i] += count;
+                counts[COUNT] += count;
+            }
+            counts[SUM] += stripe.get(SUM);
+            counts[MIN] = Math.min(counts[MIN], stripe.get(MIN));
+            counts[MAX] = Math.max(counts[MAX], stripe.get(MAX));
+        }
+        return counts;
+    }
+
+    public LatencySummary summary() {
+        return LatencySummary.of(this);
+    }
+
+    static int buckets() {
+        return BUCKETS;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 6;
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    /**
+     * @return 桶的中间值
+     */
+    static long value(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long sub = (index - SUB_BUCKETS) % HALF + HALF;
+        return (sub << shift) + (1L << (shift - 1));
+    }
+}
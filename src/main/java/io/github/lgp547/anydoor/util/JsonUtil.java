@@ -5,6 +5,7 @@ import java.time.temporal.Temporal;
 import java.util.Map;
 
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.slf4j.Logger;
@@ -35,6 +36,19 @@ public class JsonUtil {
         }
     }
 
+    /**
+     * 从节点的 token 流直接绑定，不经过json字符串
+     */
+    public static <T> T toJavaBean(JsonNode node, Type valueType) {
+        try {
+            JavaType javaType = JsonUtil.objectMapper.getTypeFactory().constructType(valueType);
+            return objectMapper.readerFor(javaType).readValue(node);
+        } catch (Exception e) {
+            log.debug("toJavaBean exception ", e);
+            throw new IllegalArgumentException(e);
+        }
+    }
+
     public static Map<String, Object> toMap(String content) {
         try {
             return objectMapper.readValue(content, Map.class);
@@ -3,8 +3,14 @@ package io.github.lgp547.anydoor.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.util.ClassUtils;
 
 import java.util.Objects;
 
@@ -12,12 +18,20 @@ public class SpringUtil implements ApplicationContextAware {
 
     private static final Logger log = LoggerFactory.getLogger(SpringUtil.class);
 
+    /**
+     * 是否有 spring-web，没有 Spring MVC/WebFlux 的项目（如只通过内置http服务调用）不能加载 {@link SpringWebmvcUtil}
+     */
+    public static final boolean webPresent = ClassUtils.isPresent("org.springframework.http.converter.HttpMessageConverter",
+            SpringUtil.class.getClassLoader());
+
     private static ApplicationContext applicationContext;
 
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         SpringUtil.applicationContext = applicationContext;
-        SpringWebmvcUtil.init(applicationContext);
+        if (webPresent) {
+            SpringWebmvcUtil.init(applicationContext);
+        }
         BuildProperties instance = BuildProperties.getInstance();
         log.info(String.format("mmmmmmmmmmmmmmmmmmm any-door %s springUtil init end mmmmmmmmmmmmmmmmmmm",instance.getVersion()));
     }
@@ -35,4 +49,31 @@ public class SpringUtil implements ApplicationContextAware {
         }
     }
 
+    public static AutowireCapableBeanFactory getAutowireCapableBeanFactory() {
+        return Objects.requireNonNull(applicationContext).getAutowireCapableBeanFactory();
+    }
+
+    /**
+     * 读取配置，支持 Duration、List、Map 等类型，未启动Spring时返回默认值
+     */
+    public static <T> T getProperty(String name, Bindable<T> target, T defaultValue) {
+        if (applicationContext == null) {
+            return defaultValue;
+        }
+        Environment environment = applicationContext.getEnvironment();
+        if (!(environment instanceof ConfigurableEnvironment)) {
+            return defaultValue;
+        }
+        try {
+            return Binder.get(environment).bind(name, target).orElse(defaultValue);
+        } catch (Exception e) {
+            log.warn("any-door property {} bind fail, use default {}", name, defaultValue, e);
+            return defaultValue;
+        }
+    }
+
+    public static <T> T getProperty(String name, Class<T> type, T defaultValue) {
+        return getProperty(name, Bindable.of(type), defaultValue);
+    }
+
 }
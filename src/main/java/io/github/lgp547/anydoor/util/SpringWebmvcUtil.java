@@ -1,13 +1,18 @@
 package io.github.lgp547.anydoor.util;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
+import org.springframework.core.GenericTypeResolver;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.GenericHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
 import org.springframework.lang.Nullable;
 import org.springframework.util.StringUtils;
 
@@ -27,6 +32,12 @@ public class SpringWebmvcUtil {
 
     private static List<HttpMessageConverter<?>> httpMessageConverters = new ArrayList<>();
 
+    /**
+     * 项目的 ObjectMapper，没有json消息转换器时（如 WebFlux 项目）使用
+     */
+    @Nullable
+    private static ObjectMapper objectMapper;
+
     public static boolean webmvcSupport = false;
 
     @SuppressWarnings({"rawtypes", "unchecked"})
@@ -37,6 +48,11 @@ public class SpringWebmvcUtil {
         } catch (Exception e) {
             log.debug("SpringWebmvcUtil init fail", e);
         }
+        try {
+            SpringWebmvcUtil.objectMapper = applicationContext.getBeanProvider(ObjectMapper.class).getIfUnique();
+        } catch (Exception e) {
+            log.debug("SpringWebmvcUtil init objectMapper fail", e);
+        }
         webmvcSupport = true;
     }
 
@@ -68,7 +84,33 @@ public class SpringWebmvcUtil {
         if (!StringUtils.hasText(value)) {
             return null;
         }
-        HttpInputMessage httpInputMessage = SpringWebmvcUtil.getHttpInputMessage(value);
+        return readObject(targetType, contextClass, SpringWebmvcUtil.getHttpInputMessage(value));
+    }
+
+    /**
+     * 从流中直接读取，用于通过文件、multipart 传入的参数
+     */
+    @Nullable
+    public static Object readObject(Type targetType, @Nullable Class<?> contextClass, InputStream body) {
+        if (!webmvcSupport) {
+            return null;
+        }
+        return readObject(targetType, contextClass, new HttpInputMessage() {
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return HttpHeaders.EMPTY;
+            }
+
+            @Override
+            public InputStream getBody() {
+                return body;
+            }
+        });
+    }
+
+    @Nullable
+    private static Object readObject(Type targetType, @Nullable Class<?> contextClass, HttpInputMessage httpInputMessage) {
         for (HttpMessageConverter<?> converter : httpMessageConverters) {
             GenericHttpMessageConverter<?> genericConverter;
             if (converter instanceof GenericHttpMessageConverter &&
@@ -81,7 +123,46 @@ public class SpringWebmvcUtil {
                 }
             }
         }
+        if (objectMapper != null) {
+            try (InputStream body = httpInputMessage.getBody()) {
+                return objectMapper.readerFor(toJavaType(objectMapper, targetType, contextClass)).readValue(body);
+            } catch (Exception e) {
+                log.error("SpringWebmvcUtil readObject IOException {}", e.getMessage());
+                return null;
+            }
+        }
         log.error("SpringWebmvcUtil 没有对应的消息转换器支持");
         return null;
     }
+
+    private static JavaType toJavaType(ObjectMapper objectMapper, Type targetType, @Nullable Class<?> contextClass) {
+        return objectMapper.getTypeFactory().constructType(GenericTypeResolver.resolveType(targetType, contextClass));
+    }
+
+    /**
+     * 使用项目json转换器的 ObjectMapper 从节点的 token 流直接读取，保留项目的序列化配置
+     */
+    @Nullable
+    public static Object readObject(Type targetType, @Nullable Class<?> contextClass, JsonNode node) {
+        if (!webmvcSupport) {
+            return null;
+        }
+        for (HttpMessageConverter<?> converter : httpMessageConverters) {
+            if (converter instanceof AbstractJackson2HttpMessageConverter
+                    && ((AbstractJackson2HttpMessageConverter) converter).canRead(targetType, contextClass, MediaType.APPLICATION_JSON)) {
+                return readNode(((AbstractJackson2HttpMessageConverter) converter).getObjectMapper(), targetType, contextClass, node);
+            }
+        }
+        return objectMapper == null ? null : readNode(objectMapper, targetType, contextClass, node);
+    }
+
+    @Nullable
+    private static Object readNode(ObjectMapper mapper, Type targetType, @Nullable Class<?> contextClass, JsonNode node) {
+        try {
+            return mapper.readerFor(toJavaType(mapper, targetType, contextClass)).readValue(node);
+        } catch (Exception e) {
+            log.error("SpringWebmvcUtil readObject IOException {}", e.getMessage());
+            return null;
+        }
+    }
 }
@@ -0,0 +1,97 @@
+package io.github.lgp547.anydoor.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+/**
+ * /any_door/run 支持的请求、响应格式，smile/cbor 需要项目中有对应的 jackson-dataformat 依赖
+ */
+public enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON_VALUE, null),
+    SMILE(WireFormat.SMILE_VALUE, "com.fasterxml.jackson.dataformat.smile.SmileFactory"),
+    CBOR(WireFormat.CBOR_VALUE, "com.fasterxml.jackson.dataformat.cbor.CBORFactory");
+
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final String CBOR_VALUE = "application/cbor";
+
+    private final MediaType mediaType;
+
+    private final boolean present;
+
+    private volatile ObjectMapper objectMapper;
+
+    WireFormat(String mediaType, @Nullable String factoryClassName) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.present = factoryClassName == null || ClassUtils.isPresent(factoryClassName, WireFormat.class.getClassLoader());
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * 与 {@link JsonUtil#objectMapper} 配置相同，只是底层格式不同
+     */
+    public ObjectMapper getObjectMapper() {
+        if (this == JSON) {
+            return JsonUtil.objectMapper;
+        }
+        if (!present) {
+            throw new IllegalArgumentException("any-door wire format " + mediaType + " requires jackson-dataformat-" + name().toLowerCase());
+        }
+        ObjectMapper mapper = objectMapper;
+        if (mapper == null) {
+            synchronized (this) {
+                mapper = objectMapper;
+                if (mapper == null) {
+                    mapper = this == SMILE ? new ObjectMapper(new SmileFactory()) : new ObjectMapper(new CBORFactory());
+                    mapper.registerModule(new JavaTimeModule());
+                    objectMapper = mapper;
+                }
+            }
+        }
+        return mapper;
+    }
+
+    /**
+     * @return 与 mediaType 兼容的格式，没有时返回 null
+     */
+    @Nullable
+    public static WireFormat of(@Nullable MediaType mediaType) {
+        if (mediaType == null) {
+            return null;
+        }
+        for (WireFormat wireFormat : values()) {
+            if (wireFormat.mediaType.isCompatibleWith(mediaType) && !mediaType.isWildcardType()) {
+                return wireFormat;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按 Accept 的顺序取第一个支持的格式，都不支持时返回 defaultFormat
+     */
+    public static WireFormat negotiate(List<MediaType> accept, WireFormat defaultFormat) {
+        for (MediaType mediaType : accept) {
+            WireFormat wireFormat = of(mediaType);
+            if (wireFormat != null && wireFormat.present) {
+                return wireFormat;
+            }
+        }
+        return defaultFormat;
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.lgp547.anydoor.util;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * smile/cbor 及 gzip 请求的读取和响应的写出
+ * <p>
+ * any-door.wire.gzip-min-size 响应超过该字节数且 Accept-Encoding 包含 gzip 时压缩，默认 8KB
+ */
+public class WireUtil {
+
+    private static final String GZIP = "gzip";
+
+    /**
+     * 读取请求体，content 保留为 {@link JsonNode}，参数直接从节点的 token 流绑定，不再转成json字符串
+     */
+    public static AnyDoorDto readAnyDoorDto(HttpHeaders headers, InputStream body) throws IOException {
+        ObjectMapper objectMapper = requestFormat(headers).getObjectMapper();
+        JsonNode tree = objectMapper.readTree(decodeBody(headers, body));
+        if (!(tree instanceof ObjectNode)) {
+            throw new IllegalArgumentException("any-door request body must be an object");
+        }
+        JsonNode content = ((ObjectNode) tree).remove("content");
+        AnyDoorDto anyDoorDto = objectMapper.readerFor(AnyDoorDto.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(tree);
+        anyDoorDto.setContent(content == null || content.isNull() ? null : content);
+        return anyDoorDto;
+    }
+
+    /**
+     * 按 Accept 选择响应格式，没有指定时与请求格式相同
+     */
+    public static ResponseEntity<byte[]> write(HttpHeaders requestHeaders, @Nullable Object value) throws IOException {
+        WireFormat wireFormat = WireFormat.negotiate(requestHeaders.getAccept(), requestFormat(requestHeaders));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(wireFormat.getMediaType());
+        headers.setVary(Arrays.asList(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+        if (value == null) {
+            return new ResponseEntity<>(headers, HttpStatus.OK);
+        }
+
+        byte[] bytes = wireFormat.getObjectMapper().writeValueAsBytes(value);
+        int gzipMinSize = SpringUtil.getProperty("any-door.wire.gzip-min-size", Integer.class, 8192);
+        if (bytes.length >= gzipMinSize && acceptGzip(requestHeaders)) {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (OutputStream out = new GZIPOutputStream(byteArrayOutputStream, 8192)) {
+                out.write(bytes);
+            }
+            bytes = byteArrayOutputStream.toByteArray();
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        headers.setContentLength(bytes.length);
+        return new ResponseEntity<>(bytes, headers, HttpStatus.OK);
+    }
+
+    private static WireFormat requestFormat(HttpHeaders headers) {
+        WireFormat wireFormat = WireFormat.of(headers.getContentType());
+        return wireFormat == null ? WireFormat.JSON : wireFormat;
+    }
+
+    private static InputStream decodeBody(HttpHeaders headers, InputStream body) throws IOException {
+        InputStream in = StreamUtils.nonClosing(body);
+        return GZIP.equalsIgnoreCase(headers.getFirst(HttpHeaders.CONTENT_ENCODING)) ? new GZIPInputStream(in, 8192) : in;
+    }
+
+    private static boolean acceptGzip(HttpHeaders headers) {
+        for (String acceptEncoding : headers.getValuesAsList(HttpHeaders.ACCEPT_ENCODING)) {
+            if (acceptEncoding.toLowerCase().startsWith(GZIP) && !acceptEncoding.replace(" ", "").endsWith(";q=0")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
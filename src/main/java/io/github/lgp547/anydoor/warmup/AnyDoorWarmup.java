@@ -0,0 +1,152 @@
+package io.github.lgp547.anydoor.warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.github.lgp547.anydoor.core.AnyDoorHandlerMethod;
+import io.github.lgp547.anydoor.core.AnyDoorService;
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.journal.JournalReader;
+import io.github.lgp547.anydoor.support.StreamArgument;
+import io.github.lgp547.anydoor.util.JsonUtil;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 启动预热：ApplicationReadyEvent 时同步执行清单中的方法若干轮，执行完之后 Spring Boot 才会发布 ACCEPTING_TRAFFIC
+ * 每轮结束通过 CompilationMXBean 统计 JIT 编译耗时，连续几轮编译耗时都很小则提前结束
+ * <p>
+ * any-door.warmup.enabled        是否开启，默认 false
+ * any-door.warmup.manifest       清单文件，内容为 AnyDoorDto 的json数组
+ * any-door.warmup.journal        从录制的调用日志生成清单（目录或分段文件），与 manifest 合并
+ * any-door.warmup.iterations     最多执行轮数，默认 100
+ * any-door.warmup.min-iterations 最少执行轮数，默认 3
+ * any-door.warmup.settle-millis  一轮的编译耗时不超过该值视为平稳，默认 10
+ * any-door.warmup.settle-rounds  连续平稳的轮数，默认 3
+ * any-door.warmup.timeout        最长预热时间，默认 5m
+ */
+public class AnyDoorWarmup implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(AnyDoorWarmup.class);
+
+    private final AnyDoorService anyDoorService = new AnyDoorService();
+
+    private final WarmupStatus status = new WarmupStatus();
+
+    public WarmupStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        long start = System.currentTimeMillis();
+        status.setState(WarmupStatus.STATE_RUNNING);
+        try {
+            List<AnyDoorDto> manifest = loadManifest();
+            status.setManifestSize(manifest.size());
+            log.info("any-door warmup start, manifest size {}", manifest.size());
+            warmup(manifest, start);
+            status.setState(WarmupStatus.STATE_DONE);
+        } catch (Exception e) {
+            status.setState(WarmupStatus.STATE_FAILED);
+            status.setError(e.toString());
+            log.error("any-door warmup exception", e);
+        } finally {
+            status.setElapsedMillis(System.currentTimeMillis() - start);
+        }
+        log.info("any-door warmup end, state {} rounds {} invocations {} failures {} elapsed {}ms settled {}",
+                status.getState(), status.getRounds(), status.getInvocations(), status.getFailures(),
+                status.getElapsedMillis(), status.isSettled());
+    }
+
+    private void warmup(List<AnyDoorDto> manifest, long start) {
+        if (manifest.isEmpty()) {
+            return;
+        }
+        int iterations = SpringUtil.getProperty("any-door.warmup.iterations", Integer.class, 100);
+        int minIterations = SpringUtil.getProperty("any-door.warmup.min-iterations", Integer.class, 3);
+        long settleMillis = SpringUtil.getProperty("any-door.warmup.settle-millis", Long.class, 10L);
+        int settleRounds = SpringUtil.getProperty("any-door.warmup.settle-rounds", Integer.class, 3);
+        long timeout = SpringUtil.getProperty("any-door.warmup.timeout", Duration.class, Duration.ofMinutes(5)).toMillis();
+
+        CompilationMXBean compilationMXBean = ManagementFactory.getCompilationMXBean();
+        boolean compilationMonitoring = compilationMXBean != null && compilationMXBean.isCompilationTimeMonitoringSupported();
+        long invocations = 0;
+        long failures = 0;
+        int settledCount = 0;
+        for (int round = 1; round <= iterations; round++) {
+            long compilationStart = compilationMonitoring ? compilationMXBean.getTotalCompilationTime() : 0;
+            for (AnyDoorDto anyDoorDto : manifest) {
+                invocations++;
+                Object[] args = null;
+                try {
+                    AnyDoorHandlerMethod handlerMethod = anyDoorService.resolve(anyDoorDto);
+                    args = handlerMethod.getArgs(anyDoorDto);
+                    handlerMethod.invoke(args);
+                } catch (Exception e) {
+                    failures++;
+                    log.debug("any-door warmup {}#{} exception", anyDoorDto.getClassName(), anyDoorDto.getMethodName(), e);
+                } finally {
+                    StreamArgument.close(args);
+                }
+            }
+            status.setRounds(round);
+            status.setInvocations(invocations);
+            status.setFailures(failures);
+            status.setElapsedMillis(System.currentTimeMillis() - start);
+
+            if (compilationMonitoring) {
+                long compilationMillis = compilationMXBean.getTotalCompilationTime() - compilationStart;
+                status.addRoundCompilationMillis(compilationMillis);
+                settledCount = compilationMillis <= settleMillis ? settledCount + 1 : 0;
+                if (round >= minIterations && settledCount >= settleRounds) {
+                    status.setSettled(true);
+                    return;
+                }
+            }
+            if (System.currentTimeMillis() - start > timeout) {
+                log.warn("any-door warmup timeout after {} rounds", round);
+                return;
+            }
+        }
+    }
+
+    private List<AnyDoorDto> loadManifest() throws IOException {
+        // 以json去重，日志中同样的调用只保留一个
+        Map<String, AnyDoorDto> manifest = new LinkedHashMap<>();
+        String manifestPath = SpringUtil.getProperty("any-door.warmup.manifest", String.class, null);
+        if (StringUtils.hasText(manifestPath)) {
+            Path path = Paths.get(manifestPath);
+            try (BufferedReader reader = Files.newBufferedReader(path)) {
+                List<AnyDoorDto> anyDoorDtos = JsonUtil.objectMapper.readValue(reader, new TypeReference<List<AnyDoorDto>>() {
+                });
+                anyDoorDtos.forEach(anyDoorDto -> addManifest(manifest, anyDoorDto));
+            }
+        }
+        String journalPath = SpringUtil.getProperty("any-door.warmup.journal", String.class, null);
+        if (StringUtils.hasText(journalPath)) {
+            JournalReader.read(Paths.get(journalPath), record -> addManifest(manifest, record.getAnyDoorDto()));
+        }
+        return new ArrayList<>(manifest.values());
+    }
+
+    private static void addManifest(Map<String, AnyDoorDto> manifest, AnyDoorDto anyDoorDto) {
+        anyDoorDto.verify();
+        manifest.putIfAbsent(JsonUtil.toStrNotExc(anyDoorDto), anyDoorDto);
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.lgp547.anydoor.warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 预热进度
+ */
+public class WarmupStatus {
+
+    public static final String STATE_PENDING = "PENDING";
+
+    public static final String STATE_RUNNING = "RUNNING";
+
+    public static final String STATE_DONE = "DONE";
+
+    public static final String STATE_FAILED = "FAILED";
+
+    private volatile String state = STATE_PENDING;
+
+    private volatile int manifestSize;
+
+    private volatile int rounds;
+
+    private volatile long invocations;
+
+    private volatile long failures;
+
+    private volatile long elapsedMillis;
+
+    /**
+     * 是否因为编译活动平稳而提前结束
+     */
+    private volatile boolean settled;
+
+    private volatile String error;
+
+    /**
+     * 每轮的 JIT 编译耗时（毫秒），不支持编译耗时监控时为空
+     */
+    private final List<Long> roundCompilationMillis = new ArrayList<>();
+
+    public String getState() {
+        return state;
+    }
+
+    void setState(String state) {
+        this.state = state;
+    }
+
+    public int getManifestSize() {
+        return manifestSize;
+    }
+
+    void setManifestSize(int manifestSize) {
+        this.manifestSize = manifestSize;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    void setRounds(int rounds) {
+        this.rounds = rounds;
+    }
+
+    public long getInvocations() {
+        return invocations;
+    }
+
+    void setInvocations(long invocations) {
+        this.invocations = invocations;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isSettled() {
+        return settled;
+    }
+
+    void setSettled(boolean settled) {
+        this.settled = settled;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    void setError(String error) {
+        this.error = error;
+    }
+
+    public synchronized List<Long> getRoundCompilationMillis() {
+        return new ArrayList<>(roundCompilationMillis);
+    }
+
+    synchronized void addRoundCompilationMillis(long millis) {
+        roundCompilationMillis.add(millis);
+    }
+}
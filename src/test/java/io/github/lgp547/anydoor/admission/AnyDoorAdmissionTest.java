@@ -0,0 +1,90 @@
+package io.github.lgp547.anydoor.admission;
+
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnyDoorAdmissionTest {
+
+    @Test
+    void tokenBucketBurstThenWait() {
+        AnyDoorAdmission.TokenBucket bucket = new AnyDoorAdmission.TokenBucket(10, 2);
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        long waitNanos = bucket.tryAcquire();
+        assertTrue(waitNanos > 0 && waitNanos <= TimeUnit.MILLISECONDS.toNanos(100), "wait " + waitNanos);
+    }
+
+    @Test
+    void tokenBucketRefill() throws InterruptedException {
+        AnyDoorAdmission.TokenBucket bucket = new AnyDoorAdmission.TokenBucket(100, 1);
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+        TimeUnit.MILLISECONDS.sleep(30);
+        assertEquals(0, bucket.tryAcquire());
+    }
+
+    @Test
+    void globalConcurrency() {
+        AnyDoorAdmission admission = new AnyDoorAdmission(1, 0, 64, 0, 0, 0, 500, null);
+        AnyDoorAdmission.Permit permit = admission.acquire(dto("A", "a"));
+        AnyDoorRejectedException rejected = assertThrows(AnyDoorRejectedException.class, () -> admission.acquire(dto("B", "b")));
+        assertEquals(500, rejected.getRetryAfterMillis());
+        assertEquals(1, rejected.getRetryAfterSeconds());
+        permit.release();
+        // 重复释放不会让执行中的计数变成负数
+        permit.release();
+        assertEquals(0, admission.getStatus().get("inFlight"));
+        admission.acquire(dto("B", "b")).release();
+        assertEquals(1L, admission.getStatus().get("rejected"));
+    }
+
+    @Test
+    void methodConcurrency() {
+        AnyDoorAdmission admission = new AnyDoorAdmission(0, 1, 64, 0, 0, 0, 1000, null);
+        AnyDoorAdmission.Permit permit = admission.acquire(dto("A", "a"));
+        assertThrows(AnyDoorRejectedException.class, () -> admission.acquire(dto("A", "a")));
+        permit.release();
+        admission.acquire(dto("A", "a")).release();
+    }
+
+    /**
+     * 被方法并发数拒绝时，已经占用的全局并发数要还回去
+     */
+    @Test
+    void methodRejectReleasesGlobal() {
+        AnyDoorAdmission admission = new AnyDoorAdmission(2, 1, 64, 0, 0, 0, 1000, null);
+        AnyDoorAdmission.Permit permit = admission.acquire(dto("A", "a"));
+        assertThrows(AnyDoorRejectedException.class, () -> admission.acquire(dto("A", "a")));
+        assertEquals(1, admission.getStatus().get("inFlight"));
+        permit.release();
+    }
+
+    @Test
+    void rateLimit() {
+        AnyDoorAdmission admission = new AnyDoorAdmission(0, 0, 64, 1, 0, 1, 1000, null);
+        admission.acquire(dto("A", "a")).release();
+        AnyDoorRejectedException rejected = assertThrows(AnyDoorRejectedException.class, () -> admission.acquire(dto("A", "a")));
+        assertTrue(rejected.getRetryAfterMillis() > 0 && rejected.getRetryAfterMillis() <= 1000);
+    }
+
+    @Test
+    void methodRateIsPerMethod() {
+        AnyDoorAdmission admission = new AnyDoorAdmission(0, 0, 64, 0, 1, 1, 1000, null);
+        admission.acquire(dto("A", "a")).release();
+        admission.acquire(dto("B", "b")).release();
+        assertThrows(AnyDoorRejectedException.class, () -> admission.acquire(dto("A", "a")));
+    }
+
+    private static AnyDoorDto dto(String className, String methodName) {
+        AnyDoorDto anyDoorDto = new AnyDoorDto();
+        anyDoorDto.setClassName(className);
+        anyDoorDto.setMethodName(methodName);
+        return anyDoorDto;
+    }
+}
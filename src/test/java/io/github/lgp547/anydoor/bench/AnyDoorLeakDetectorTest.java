@@ -0,0 +1,82 @@
+package io.github.lgp547.anydoor.bench;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.LongUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnyDoorLeakDetectorTest {
+
+    @Test
+    void linearGrowth() {
+        LeakReport report = report(invocations -> 1_000_000 + 64 * invocations, true);
+        AnyDoorLeakDetector.fit(report, 1);
+        assertEquals(AnyDoorLeakDetector.METRIC_USED_AFTER_GC, report.getMetric());
+        assertEquals(64, report.getLeakBytesPerCall(), 1e-9);
+        assertEquals(1, report.getR2(), 1e-9);
+        assertEquals(64 * 5000, report.getGrowthBytes());
+        assertTrue(report.isLeakSuspected());
+    }
+
+    @Test
+    void flat() {
+        LeakReport report = report(invocations -> 1_000_000, true);
+        AnyDoorLeakDetector.fit(report, 1);
+        assertEquals(0, report.getLeakBytesPerCall(), 1e-9);
+        assertEquals(0, report.getR2(), 1e-9);
+        assertEquals(0, report.getGrowthBytes());
+        assertFalse(report.isLeakSuspected());
+    }
+
+    /**
+     * 增长低于 minBytesPerCall 不算泄漏
+     */
+    @Test
+    void belowMinBytesPerCall() {
+        LeakReport report = report(invocations -> 1_000_000 + 2 * invocations, true);
+        AnyDoorLeakDetector.fit(report, 8);
+        assertEquals(2, report.getLeakBytesPerCall(), 1e-9);
+        assertFalse(report.isLeakSuspected());
+    }
+
+    /**
+     * 来回波动的堆使用拟合优度低，更可能是GC噪声
+     */
+    @Test
+    void noisy() {
+        LeakReport report = report(invocations -> invocations / 1000 % 2 == 0 ? 0 : 1_000_000, true);
+        AnyDoorLeakDetector.fit(report, 0);
+        assertTrue(report.getLeakBytesPerCall() > 0);
+        assertEquals(0.086, report.getR2(), 1e-9);
+        assertFalse(report.isLeakSuspected());
+    }
+
+    /**
+     * 没有GC后使用量时使用堆使用量
+     */
+    @Test
+    void heapUsedFallback() {
+        LeakReport report = report(invocations -> 10 * invocations, false);
+        AnyDoorLeakDetector.fit(report, 1);
+        assertEquals(AnyDoorLeakDetector.METRIC_HEAP_USED, report.getMetric());
+        assertEquals(10, report.getLeakBytesPerCall(), 1e-9);
+    }
+
+    /**
+     * 每轮 1000 次调用，共 6 个采样点
+     */
+    private static LeakReport report(LongUnaryOperator used, boolean afterGc) {
+        LeakReport report = new LeakReport();
+        for (long invocations = 0; invocations <= 5000; invocations += 1000) {
+            LeakReport.Sample sample = new LeakReport.Sample();
+            sample.setInvocations(invocations);
+            sample.setHeapUsed(used.applyAsLong(invocations));
+            sample.setUsedAfterGc(afterGc ? used.applyAsLong(invocations) : -1);
+            report.getSamples().add(sample);
+        }
+        return report;
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.lgp547.anydoor.bench;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ComplexityFitTest {
+
+    private static final double[] SIZES = {100, 200, 400, 800, 1600, 3200, 6400};
+
+    @Test
+    void linear() {
+        ComplexityFit fit = ComplexityFit.fit(SIZES, times(n -> 500 + 3 * n));
+        assertEquals("O(n)", fit.getModel());
+        assertEquals(3, coefficient(fit, "O(n)"), 1e-9);
+    }
+
+    @Test
+    void quadratic() {
+        ComplexityFit fit = ComplexityFit.fit(SIZES, times(n -> 1000 + 0.5 * n * n));
+        assertEquals("O(n^2)", fit.getModel());
+        assertEquals(0.5, coefficient(fit, "O(n^2)"), 1e-9);
+        assertEquals(2, fit.getExponent(), 0.1);
+    }
+
+    @Test
+    void nLogN() {
+        ComplexityFit fit = ComplexityFit.fit(SIZES, times(n -> 2 * n * Math.log(n)));
+        assertEquals("O(n log n)", fit.getModel());
+        assertEquals(2, coefficient(fit, "O(n log n)"), 1e-9);
+    }
+
+    /**
+     * 1% 的噪声不会让不变的耗时被判成更高阶的模型
+     */
+    @Test
+    void constantWithNoise() {
+        double[] times = new double[SIZES.length];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = 1000 + (i % 2 == 0 ? 10 : -10);
+        }
+        ComplexityFit fit = ComplexityFit.fit(SIZES, times);
+        assertEquals("O(1)", fit.getModel());
+        assertEquals(0, fit.getExponent(), 0.01);
+    }
+
+    private static double[] times(DoubleUnaryOperator function) {
+        double[] times = new double[SIZES.length];
+        for (int i = 0; i < SIZES.length; i++) {
+            times[i] = function.applyAsDouble(SIZES[i]);
+        }
+        return times;
+    }
+
+    private static double coefficient(ComplexityFit fit, String model) {
+        return fit.getFits().stream().filter(modelFit -> model.equals(modelFit.getModel())).findFirst()
+                .orElseThrow(IllegalStateException::new).getCoefficient();
+    }
+}
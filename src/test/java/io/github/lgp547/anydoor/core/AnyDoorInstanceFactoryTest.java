@@ -0,0 +1,122 @@
+package io.github.lgp547.anydoor.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AnyDoorInstanceFactoryTest {
+
+    @AfterEach
+    void tearDown() {
+        AnyDoorInstanceFactory.evict(Counted.class);
+        Counted.closed.set(0);
+    }
+
+    @Test
+    void singletonReused() {
+        AnyDoorInstanceFactory.Lease first = AnyDoorInstanceFactory.getInstance(Counted.class, InstanceStrategy.SINGLETON);
+        AnyDoorInstanceFactory.Lease second = AnyDoorInstanceFactory.getInstance(Counted.class, InstanceStrategy.SINGLETON);
+        assertSame(first.getInstance(), second.getInstance());
+    }
+
+    /**
+     * 执行中的实例不会被空闲回收，结束后才回收
+     */
+    @Test
+    void inUseNotEvictedAsIdle() {
+        AnyDoorInstanceFactory.Lease lease = AnyDoorInstanceFactory.getInstance(Counted.class, InstanceStrategy.SINGLETON);
+        lease.enter();
+        long later = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+        AnyDoorInstanceFactory.evictIdle(later, 0);
+        assertEquals(0, Counted.closed.get());
+        assertSame(lease.getInstance(), AnyDoorInstanceFactory.getInstance(Counted.class, InstanceStrategy.SINGLETON).getInstance());
+
+        lease.exit();
+        AnyDoorInstanceFactory.evictIdle(later, 0);
+        assertEquals(1, Counted.closed.get());
+        assertNotSame(lease.getInstance(), AnyDoorInstanceFactory.getInstance(Counted.class, InstanceStrategy.SINGLETON).getInstance());
+    }
+
+    /**
+     * 执行中被移出缓存，最后一个调用结束时销毁一次
+     */
+    @Test
+    void retiredDestroyedByLastExit() {
+        AnyDoorInstanceFactory.Lease lease = AnyDoorInstanceFactory.getInstance(Counted.class, InstanceStrategy.SINGLETON);
+        lease.enter();
+        lease.enter();
+        AnyDoorInstanceFactory.evict(Counted.class);
+        assertEquals(0, Counted.closed.get());
+        lease.exit();
+        assertEquals(0, Counted.closed.get());
+        lease.exit();
+        assertEquals(1, Counted.closed.get());
+
+        lease.enter();
+        lease.exit();
+        assertEquals(1, Counted.closed.get());
+    }
+
+    @Test
+    void perCallKeepsCached() {
+        AnyDoorInstanceFactory.Lease singleton = AnyDoorInstanceFactory.getInstance(Counted.class, InstanceStrategy.SINGLETON);
+        singleton.enter();
+        AnyDoorInstanceFactory.Lease perCall = AnyDoorInstanceFactory.getInstance(Counted.class, InstanceStrategy.PER_CALL);
+        assertNotSame(singleton.getInstance(), perCall.getInstance());
+        assertSame(singleton.getInstance(), AnyDoorInstanceFactory.getInstance(Counted.class, InstanceStrategy.SINGLETON).getInstance());
+        singleton.exit();
+        assertEquals(0, Counted.closed.get());
+    }
+
+    /**
+     * 并发调用中移出缓存，所有调用结束后正好销毁一次
+     */
+    @Test
+    void concurrentExitDestroysOnce() throws Exception {
+        int threads = 8;
+        int rounds = 200;
+        for (int round = 0; round < rounds; round++) {
+            AnyDoorInstanceFactory.Lease lease = AnyDoorInstanceFactory.getInstance(Counted.class, InstanceStrategy.SINGLETON);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch entered = new CountDownLatch(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    lease.enter();
+                    entered.countDown();
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    lease.exit();
+                });
+            }
+            entered.await();
+            start.countDown();
+            AnyDoorInstanceFactory.evict(Counted.class);
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+            assertEquals(round + 1, Counted.closed.get());
+        }
+    }
+
+    public static class Counted implements AutoCloseable {
+
+        static final AtomicInteger closed = new AtomicInteger();
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.lgp547.anydoor.core;
+
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.jfr.JfrSupport;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AnyDoorServiceTest {
+
+    private final AtomicInteger released = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(SpringUtil.class, "applicationContext", null);
+    }
+
+    @Test
+    void verifyFailReleasesPermit() {
+        AnyDoorDto anyDoorDto = new AnyDoorDto();
+        assertThrows(IllegalArgumentException.class, () -> new AnyDoorService().run(anyDoorDto, released::incrementAndGet));
+        assertEquals(1, released.get());
+    }
+
+    /**
+     * 录制启动失败时还没有进入执行，许可要马上释放
+     */
+    @Test
+    void jfrStartFailReleasesPermit() {
+        Assumptions.assumeTrue(JfrSupport.isAvailable());
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                Collections.singletonMap("any-door.jfr.settings", "any-door-missing-settings")));
+        ReflectionTestUtils.setField(SpringUtil.class, "applicationContext", applicationContext);
+
+        AnyDoorDto anyDoorDto = new AnyDoorDto();
+        anyDoorDto.setClassName(AnyDoorServiceTest.class.getName());
+        anyDoorDto.setMethodName("toString");
+        anyDoorDto.setJfr(true);
+        assertThrows(IllegalArgumentException.class, () -> new AnyDoorService().run(anyDoorDto, released::incrementAndGet));
+        assertEquals(1, released.get());
+    }
+}
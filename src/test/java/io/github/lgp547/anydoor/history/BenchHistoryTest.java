@@ -0,0 +1,128 @@
+package io.github.lgp547.anydoor.history;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BenchHistoryTest {
+
+    @Test
+    void regression() {
+        RegressionReport report = compare(series("n=10", 1_000_000, 10_000, 1000), series("n=10", 1_200_000, 10_000, 1000));
+        assertTrue(report.isRegression());
+        assertEquals(RegressionReport.Verdict.REGRESSION, report.getItems().get(0).getVerdict());
+        assertEquals(1.2, report.getItems().get(0).getRatio(), 1e-9);
+    }
+
+    @Test
+    void improvement() {
+        RegressionReport report = compare(series("n=10", 1_000_000, 10_000, 1000), series("n=10", 800_000, 10_000, 1000));
+        assertFalse(report.isRegression());
+        assertEquals(RegressionReport.Verdict.IMPROVEMENT, report.getItems().get(0).getVerdict());
+    }
+
+    /**
+     * 统计显著但小于 minEffect 的差异不算变慢
+     */
+    @Test
+    void smallDifferenceUnchanged() {
+        RegressionReport report = compare(series("n=10", 1_000_000, 1_000, 100_000), series("n=10", 1_010_000, 1_000, 100_000));
+        assertFalse(report.isRegression());
+        assertEquals(RegressionReport.Verdict.UNCHANGED, report.getItems().get(0).getVerdict());
+    }
+
+    /**
+     * 波动大、样本少时置信区间跨过 0，不能判定变慢
+     */
+    @Test
+    void noisyUnchanged() {
+        RegressionReport report = compare(series("n=10", 1_000_000, 500_000, 10), series("n=10", 1_200_000, 500_000, 10));
+        assertEquals(RegressionReport.Verdict.UNCHANGED, report.getItems().get(0).getVerdict());
+    }
+
+    /**
+     * 平均值没有明显变化，p99 变慢也算变慢
+     */
+    @Test
+    void tailRegression() {
+        BenchSeries baseline = series("n=10", 1_000_000, 10_000, 1000);
+        baseline.setP99(2_000_000);
+        BenchSeries current = series("n=10", 1_000_000, 10_000, 1000);
+        current.setP99(3_000_000);
+        RegressionReport report = compare(baseline, current);
+        assertTrue(report.isRegression());
+        RegressionReport.Item item = report.getItems().get(0);
+        assertEquals(RegressionReport.Verdict.UNCHANGED, item.getVerdict());
+        assertEquals(RegressionReport.Verdict.REGRESSION, item.getTailVerdict());
+        assertEquals(1.5, item.getP99Ratio(), 1e-9);
+    }
+
+    /**
+     * 样本太少或旧记录没有 p99 时不对比尾部
+     */
+    @Test
+    void tailSkipped() {
+        BenchSeries baseline = series("n=10", 1_000_000, 10_000, 50);
+        baseline.setP99(2_000_000);
+        BenchSeries current = series("n=10", 1_000_000, 10_000, 50);
+        current.setP99(4_000_000);
+        assertNull(compare(baseline, current).getItems().get(0).getTailVerdict());
+
+        BenchSeries old = series("n=10", 1_000_000, 10_000, 1000);
+        BenchSeries recent = series("n=10", 1_000_000, 10_000, 1000);
+        recent.setP99(4_000_000);
+        RegressionReport report = compare(old, recent);
+        assertNull(report.getItems().get(0).getTailVerdict());
+        assertFalse(report.isRegression());
+    }
+
+    /**
+     * 慢的调用保留在平均值和标准差中
+     */
+    @Test
+    void seriesKeepsSlowSamples() {
+        long[] nanos = new long[100];
+        Arrays.fill(nanos, 1000);
+        nanos[42] = 100_000;
+        BenchSeries series = BenchSeries.of("a", nanos);
+        assertEquals(100, series.getCount());
+        assertEquals(1990, series.getMean(), 1e-9);
+        assertTrue(series.getStdDev() > 9000);
+        assertEquals(1000, series.getP50());
+        assertEquals(1000, series.getP99());
+    }
+
+    @Test
+    void onlySameNameCompared() {
+        RegressionReport report = BenchHistory.compare(
+                run(series("n=10", 1_000_000, 10_000, 1000), series("n=20", 1, 1, 1000)),
+                run(series("n=10", 1_000_000, 10_000, 1000), series("n=30", 9_000_000, 1, 1000)), 0.05);
+        assertEquals(1, report.getItems().size());
+        assertEquals("n=10", report.getItems().get(0).getName());
+    }
+
+    private static RegressionReport compare(BenchSeries baseline, BenchSeries current) {
+        return BenchHistory.compare(run(current), run(baseline), 0.05);
+    }
+
+    private static BenchRun run(BenchSeries... series) {
+        BenchRun run = new BenchRun();
+        run.setId("id");
+        run.setSeries(Arrays.asList(series));
+        return run;
+    }
+
+    private static BenchSeries series(String name, double mean, double stdDev, long count) {
+        BenchSeries series = new BenchSeries();
+        series.setName(name);
+        series.setMean(mean);
+        series.setStdDev(stdDev);
+        series.setCount(count);
+        return series;
+    }
+}
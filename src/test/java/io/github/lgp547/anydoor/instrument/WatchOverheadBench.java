@@ -0,0 +1,61 @@
+package io.github.lgp547.anydoor.instrument;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * watch 探针的开销：按插入后的字节码调用 enter/exit，分别在没有探针、槽位为空（观察已结束）、观察中三种情况下执行同一个方法，
+ * 输出每次调用增加的纳秒数。放在 instrument 包下以便直接注册观察，不需要加载 agent
+ * <p>
+ * 参数：每种情况调用次数（默认 50000000） 轮数（默认 5）
+ */
+public class WatchOverheadBench {
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        long calls = args.length > 0 ? Long.parseLong(args[0]) : 50_000_000L;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        WatchSession session = new WatchSession(0, "bench", TimeUnit.MINUTES.toMillis(1), 0);
+        int activeSlot = WatchProbe.register(session);
+        WatchSession idle = new WatchSession(1, "idle", TimeUnit.MINUTES.toMillis(1), 0);
+        int idleSlot = WatchProbe.register(idle);
+        WatchProbe.unregister(idleSlot, idle);
+
+        for (int round = 0; round < rounds; round++) {
+            long baseline = run(calls, -1);
+            long empty = run(calls, idleSlot);
+            long active = run(calls, activeSlot);
+            System.out.printf("round %d: baseline %.2fns/call, empty slot +%.2fns/call, watching +%.2fns/call%n", round,
+                    (double) baseline / calls, (double) (empty - baseline) / calls, (double) (active - baseline) / calls);
+        }
+        WatchProbe.unregister(activeSlot, session);
+        System.out.println("recorded: " + session.getLatency().getCount());
+    }
+
+    /**
+     * @param slot 小于0时不插入探针
+     */
+    private static long run(long calls, int slot) {
+        long start = System.nanoTime();
+        for (long i = 0; i < calls; i++) {
+            sink += slot < 0 ? target(i) : probed(slot, i);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long target(long i) {
+        return i * 31 + (i >>> 3);
+    }
+
+    /**
+     * 与 MethodProbeTransformer 插入后的结构相同
+     */
+    private static long probed(int slot, long i) {
+        long start = WatchProbe.enter(slot);
+        try {
+            return i * 31 + (i >>> 3);
+        } finally {
+            WatchProbe.exit(slot, start);
+        }
+    }
+}
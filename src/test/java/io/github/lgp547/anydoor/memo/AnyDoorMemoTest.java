@@ -0,0 +1,254 @@
+package io.github.lgp547.anydoor.memo;
+
+import io.github.lgp547.anydoor.dto.AnyDoorDto;
+import io.github.lgp547.anydoor.util.JsonUtil;
+import io.github.lgp547.anydoor.util.SpringUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnyDoorMemoTest {
+
+    private static final Method METHOD = method();
+
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        AnyDoorMemo.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(SpringUtil.class, "applicationContext", null);
+        ReflectionTestUtils.setField(AnyDoorMemo.class, "idempotentMethods", null);
+        AnyDoorMemo.clear();
+    }
+
+    @Test
+    void mapKeyOrder() throws Exception {
+        Map<String, Object> ab = new LinkedHashMap<>();
+        ab.put("a", 1);
+        ab.put("b", Collections.singletonMap("c", "d"));
+        Map<String, Object> ba = new LinkedHashMap<>();
+        ba.put("b", Collections.singletonMap("c", "d"));
+        ba.put("a", 1);
+        assertEquals(key(ab), key(ba));
+        assertEquals(key(ab), key(JsonUtil.objectMapper.readTree("{\"b\":{\"c\":\"d\"},\"a\":1}")));
+        assertNotEquals(key(ab), key(Collections.singletonMap("a", 1)));
+    }
+
+    /**
+     * 请求解析得到的 1.0 与 1.00 是同一个值；直接给出的 BigDecimal 保留精度，不同精度传给方法的参数不同，不合并
+     */
+    @Test
+    void decimalScale() throws Exception {
+        assertEquals(key(JsonUtil.objectMapper.readValue("{\"a\":1.0}", Object.class)),
+                key(JsonUtil.objectMapper.readValue("{\"a\":1.00}", Object.class)));
+        assertEquals(key(JsonUtil.objectMapper.readTree("{\"a\":1.0}")), key(JsonUtil.objectMapper.readTree("{\"a\":1.00}")));
+        assertNotEquals(key(Collections.singletonMap("a", new BigDecimal("1.0"))), key(Collections.singletonMap("a", new BigDecimal("1.00"))));
+        assertNotEquals(key(Collections.singletonMap("a", 0.1)), key(Collections.singletonMap("a", new BigDecimal("0.1000000000000000001"))));
+    }
+
+    @Test
+    void nonJsonContentNotCoalesced() throws Exception {
+        assertNull(AnyDoorMemo.Key.of(dto(Collections.singletonMap("a", new StringBuilder("x"))), METHOD));
+        assertNull(AnyDoorMemo.Key.of(dto(new AnyDoorDto()), METHOD));
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AnyDoorDto anyDoorDto = dto(new AnyDoorDto());
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> execute(anyDoorDto, blocking(started, release, "leader")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals("follower", AnyDoorMemo.execute(anyDoorDto, METHOD, counting("follower")));
+        release.countDown();
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(2, invocations.get());
+    }
+
+    @Test
+    void followerSharesResult() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Object result = new Object();
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> execute(dto(Collections.singletonMap("a", 1)), blocking(started, release, result)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() -> execute(dto(Collections.singletonMap("a", 1)), counting("follower")));
+        awaitCoalesced(1);
+        release.countDown();
+        assertSame(result, leader.get(5, TimeUnit.SECONDS));
+        assertSame(result, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void leaderExceptionReachesFollower() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException exception = new IllegalStateException("leader fail");
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> execute(dto(Collections.singletonMap("a", 2)), () -> {
+            blocking(started, release, null).get();
+            throw exception;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() -> execute(dto(Collections.singletonMap("a", 2)), counting("follower")));
+        awaitCoalesced(1);
+        release.countDown();
+        assertSame(exception, assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+        assertSame(exception, assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+        assertEquals(1, invocations.get());
+    }
+
+    /**
+     * 等待超过 max-wait 后自己执行，不再等正在执行的调用
+     */
+    @Test
+    void followerTimeoutInvokesItself() throws Exception {
+        properties(Collections.singletonMap("any-door.coalesce.max-wait", "100ms"));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> execute(dto(Collections.singletonMap("a", 3)), blocking(started, release, "leader")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals("follower", AnyDoorMemo.execute(dto(Collections.singletonMap("a", 3)), METHOD, counting("follower")));
+        release.countDown();
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(2, invocations.get());
+    }
+
+    /**
+     * 淘汰后估算的内存合计与剩下的条目一致，不超过 max-memory
+     */
+    @Test
+    void evictionKeepsBytes() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("any-door.memo.idempotent-methods", AnyDoorMemoTest.class.getName() + "#" + METHOD.getName());
+        properties.put("any-door.memo.max-memory", "4KB");
+        properties(properties);
+
+        AnyDoorDto first = idempotentDto(Collections.singletonMap("k", 100));
+        AnyDoorMemo.execute(first, METHOD, counting(new String(new char[100])));
+        long entryBytes = bytes();
+        assertTrue(entryBytes > 0);
+        for (int i = 101; i < 200; i++) {
+            AnyDoorMemo.execute(idempotentDto(Collections.singletonMap("k", i)), METHOD, counting(new String(new char[100])));
+        }
+        Map<String, Object> stats = AnyDoorMemo.stats();
+        long entries = ((Number) stats.get("entries")).longValue();
+        assertTrue(entries > 0 && entries < 100);
+        assertTrue((Long) stats.get("evictions") > 0);
+        assertEquals(entries * entryBytes, bytes());
+        assertTrue(bytes() <= 4096);
+
+        // 最近的仍然命中，最早的已经淘汰
+        int before = invocations.get();
+        AnyDoorMemo.execute(idempotentDto(Collections.singletonMap("k", 199)), METHOD, counting("x"));
+        assertEquals(before, invocations.get());
+        AnyDoorMemo.execute(first, METHOD, counting(new String(new char[100])));
+        assertEquals(before + 1, invocations.get());
+        assertEquals(((Number) AnyDoorMemo.stats().get("entries")).longValue() * entryBytes, bytes());
+
+        AnyDoorMemo.clear();
+        assertEquals(0L, bytes());
+    }
+
+    private Object execute(AnyDoorDto anyDoorDto, Supplier<Object> invoker) {
+        try {
+            return AnyDoorMemo.execute(anyDoorDto, METHOD, invoker);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Supplier<Object> counting(Object result) {
+        return () -> {
+            invocations.incrementAndGet();
+            return result;
+        };
+    }
+
+    private Supplier<Object> blocking(CountDownLatch started, CountDownLatch release, Object result) {
+        return () -> {
+            invocations.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        };
+    }
+
+    private static void awaitCoalesced(long count) throws InterruptedException {
+        long expected = (Long) AnyDoorMemo.stats().get("coalesced") + count;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((Long) AnyDoorMemo.stats().get("coalesced") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static long bytes() {
+        return (Long) AnyDoorMemo.stats().get("bytes");
+    }
+
+    private static void properties(Map<String, Object> properties) {
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+        ReflectionTestUtils.setField(SpringUtil.class, "applicationContext", applicationContext);
+    }
+
+    private static AnyDoorMemo.Key key(Object content) {
+        return AnyDoorMemo.Key.of(dto(content), METHOD);
+    }
+
+    private static AnyDoorDto dto(Object content) {
+        AnyDoorDto anyDoorDto = new AnyDoorDto();
+        anyDoorDto.setClassName(AnyDoorMemoTest.class.getName());
+        anyDoorDto.setMethodName(METHOD.getName());
+        anyDoorDto.setContent(content);
+        anyDoorDto.setCoalesce(true);
+        return anyDoorDto;
+    }
+
+    private static AnyDoorDto idempotentDto(Object content) {
+        AnyDoorDto anyDoorDto = dto(content);
+        anyDoorDto.setCoalesce(null);
+        return anyDoorDto;
+    }
+
+    private static Method method() {
+        try {
+            return AnyDoorMemoTest.class.getDeclaredMethod("target", Object.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static Object target(Object value) {
+        return value;
+    }
+}
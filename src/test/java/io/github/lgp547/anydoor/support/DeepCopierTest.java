@@ -0,0 +1,114 @@
+package io.github.lgp547.anydoor.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DeepCopierTest {
+
+    @Test
+    void cycle() {
+        Node a = new Node("a");
+        Node b = new Node("b");
+        a.next = b;
+        b.next = a;
+        Node copy = (Node) new DeepCopier().copy(a);
+        assertNotSame(a, copy);
+        assertNotSame(b, copy.next);
+        assertEquals("b", copy.next.name);
+        assertSame(copy, copy.next.next);
+    }
+
+    /**
+     * 参数之间共享的对象，拷贝后仍然共享同一个拷贝
+     */
+    @Test
+    void aliasingAcrossArgs() {
+        List<Node> shared = new ArrayList<>(Collections.singletonList(new Node("x")));
+        Node holder = new Node("holder");
+        holder.children = shared;
+        Object[] copy = DeepCopier.copyArgs(new Object[]{shared, holder});
+        assertNotSame(shared, copy[0]);
+        assertSame(copy[0], ((Node) copy[1]).children);
+    }
+
+    @Test
+    void mutationDoesNotLeak() {
+        Node source = new Node("source");
+        source.children = new ArrayList<>(Collections.singletonList(new Node("child")));
+        source.values = new int[]{1, 2, 3};
+        Node copy = (Node) new DeepCopier().copy(source);
+        copy.children.get(0).name = "changed";
+        copy.children.add(new Node("added"));
+        copy.values[0] = 100;
+        assertEquals("child", source.children.get(0).name);
+        assertEquals(1, source.children.size());
+        assertEquals(1, source.values[0]);
+    }
+
+    @Test
+    void immutableShared() {
+        String text = new String("text");
+        LocalDate date = LocalDate.of(2020, 1, 1);
+        Integer number = 1000;
+        Object[] copy = DeepCopier.copyArgs(new Object[]{text, date, number});
+        assertSame(text, copy[0]);
+        assertSame(date, copy[1]);
+        assertSame(number, copy[2]);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void unmodifiableCollectionsBecomeModifiable() {
+        List<Node> list = Collections.unmodifiableList(Arrays.asList(new Node("a"), new Node("b")));
+        Map<String, Node> map = Collections.unmodifiableMap(new HashMap<>(Collections.singletonMap("k", new Node("v"))));
+        Object[] copy = DeepCopier.copyArgs(new Object[]{list, map});
+        List<Node> listCopy = (List<Node>) copy[0];
+        Map<String, Node> mapCopy = (Map<String, Node>) copy[1];
+        listCopy.add(new Node("c"));
+        mapCopy.put("k2", new Node("v2"));
+        assertEquals(3, listCopy.size());
+        assertNotSame(list.get(0), listCopy.get(0));
+        assertNotSame(map.get("k"), mapCopy.get("k"));
+        assertEquals("v", mapCopy.get("k").name);
+    }
+
+    @Test
+    void arrays() {
+        long[] primitive = {1, 2, 3};
+        Node[] nodes = {new Node("a"), null};
+        nodes[1] = nodes[0];
+        Object[] copy = DeepCopier.copyArgs(new Object[]{primitive, nodes});
+        assertNotSame(primitive, copy[0]);
+        assertArrayEquals(primitive, (long[]) copy[0]);
+        Node[] nodesCopy = (Node[]) copy[1];
+        assertNotSame(nodes[0], nodesCopy[0]);
+        assertSame(nodesCopy[0], nodesCopy[1]);
+    }
+
+    static class Node {
+
+        String name;
+
+        Node next;
+
+        List<Node> children;
+
+        int[] values;
+
+        Node(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.lgp547.anydoor.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ObjectSizesTest {
+
+    @Test
+    void nullIsEmpty() {
+        assertEquals(0, ObjectSizes.estimate(null, 100));
+    }
+
+    @Test
+    void primitiveArray() {
+        assertEquals(ObjectSizes.align(ObjectSizes.ARRAY_HEADER_SIZE + 10 * 8L), ObjectSizes.estimate(new long[10], 100));
+        assertEquals(ObjectSizes.align(ObjectSizes.ARRAY_HEADER_SIZE + 3L), ObjectSizes.estimate(new byte[3], 100));
+    }
+
+    /**
+     * 对象头 + long + 引用，按8字节对齐
+     */
+    @Test
+    void fieldLayout() {
+        assertEquals(ObjectSizes.align(ObjectSizes.OBJECT_HEADER_SIZE + 8L + ObjectSizes.REFERENCE_SIZE), ObjectSizes.shallowSize(new Node()));
+    }
+
+    @Test
+    void cycleCountedOnce() {
+        Node a = new Node();
+        Node b = new Node();
+        a.next = b;
+        b.next = a;
+        assertEquals(2 * ObjectSizes.shallowSize(a), ObjectSizes.estimate(a, 100));
+    }
+
+    @Test
+    void sharedCountedOnce() {
+        Node shared = new Node();
+        Node[] array = {shared, shared, shared};
+        assertEquals(ObjectSizes.shallowSize(array) + ObjectSizes.shallowSize(shared), ObjectSizes.estimate(array, 100));
+    }
+
+    @Test
+    void maxNodesLimitsWalk() {
+        Node head = chain(1000);
+        long full = ObjectSizes.estimate(head, Integer.MAX_VALUE);
+        assertEquals(1000 * ObjectSizes.shallowSize(head), full);
+        assertTrue(ObjectSizes.estimate(head, 10) < full);
+    }
+
+    @Test
+    void measureCycle() {
+        Node a = new Node();
+        Node b = new Node();
+        a.next = b;
+        b.next = a;
+        RetainedSize retainedSize = ObjectSizes.measure(a, 100, 10, null);
+        assertEquals(RetainedSize.SOURCE_ESTIMATE, retainedSize.getSource());
+        assertEquals(2, retainedSize.getObjectCount());
+        assertEquals(2 * ObjectSizes.shallowSize(a), retainedSize.getTotalBytes());
+        assertFalse(retainedSize.isTruncated());
+        assertEquals(1, retainedSize.getTopClasses().size());
+        assertEquals(Node.class.getName(), retainedSize.getTopClasses().get(0).getClassName());
+        assertEquals(2, retainedSize.getTopClasses().get(0).getCount());
+    }
+
+    @Test
+    void measureTruncated() {
+        Node head = chain(1000);
+        RetainedSize retainedSize = ObjectSizes.measure(head, 10, 10, null);
+        assertTrue(retainedSize.isTruncated());
+        assertEquals(10, retainedSize.getObjectCount());
+        assertEquals(10 * ObjectSizes.shallowSize(head), retainedSize.getTotalBytes());
+
+        RetainedSize exact = ObjectSizes.measure(chain(10), 10, 10, null);
+        assertFalse(exact.isTruncated());
+        assertEquals(10, exact.getObjectCount());
+    }
+
+    @Test
+    void measureNull() {
+        RetainedSize retainedSize = ObjectSizes.measure(null, 10, 10, null);
+        assertEquals(0, retainedSize.getTotalBytes());
+        assertEquals(0, retainedSize.getObjectCount());
+        assertFalse(retainedSize.isTruncated());
+        assertTrue(retainedSize.getTopClasses().isEmpty());
+    }
+
+    @Test
+    void measureTopClasses() {
+        Object[] root = {new Node(), new long[100]};
+        List<RetainedSize.ClassSize> topClasses = ObjectSizes.measure(root, 100, 1, null).getTopClasses();
+        assertEquals(1, topClasses.size());
+        assertEquals(long[].class.getName(), topClasses.get(0).getClassName());
+        assertEquals(ObjectSizes.shallowSize(new long[100]), topClasses.get(0).getBytes());
+    }
+
+    /**
+     * 有 Instrumentation 时使用 getObjectSize
+     */
+    @Test
+    void measureInstrumentation() {
+        Instrumentation instrumentation = (Instrumentation) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Instrumentation.class}, (proxy, method, args) -> {
+                    if ("getObjectSize".equals(method.getName())) {
+                        return 100L;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        RetainedSize retainedSize = ObjectSizes.measure(chain(3), 100, 10, instrumentation);
+        assertEquals(RetainedSize.SOURCE_INSTRUMENTATION, retainedSize.getSource());
+        assertEquals(3, retainedSize.getObjectCount());
+        assertEquals(300, retainedSize.getTotalBytes());
+    }
+
+    static Node chain(int length) {
+        Node head = new Node();
+        Node current = head;
+        for (int i = 1; i < length; i++) {
+            current.next = new Node();
+            current = current.next;
+        }
+        return head;
+    }
+
+    static class Node {
+
+        long value;
+
+        Node next;
+    }
+}
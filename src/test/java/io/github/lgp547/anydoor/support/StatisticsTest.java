@@ -0,0 +1,63 @@
+package io.github.lgp547.anydoor.support;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 参考值与 scipy.stats.mannwhitneyu(method='asymptotic', use_continuity=True) 一致
+ */
+class StatisticsTest {
+
+    @Test
+    void normalCdf() {
+        assertEquals(0.5, Statistics.normalCdf(0), 1e-7);
+        assertEquals(0.9750021, Statistics.normalCdf(1.96), 1e-6);
+        assertEquals(0.0499952, Statistics.normalCdf(-1.6449), 1e-6);
+    }
+
+    @Test
+    void mannWhitneySeparated() {
+        long[] a = {1, 2, 3, 4, 5};
+        long[] b = {6, 7, 8, 9, 10};
+        assertEquals(0.012186, Statistics.mannWhitneyPValue(a, b), 1e-5);
+        assertEquals(0.012186, Statistics.mannWhitneyPValue(b, a), 1e-5);
+    }
+
+    @Test
+    void mannWhitneyTies() {
+        assertEquals(0.110149, Statistics.mannWhitneyPValue(new long[]{1, 1, 2}, new long[]{2, 3, 3}), 1e-5);
+    }
+
+    @Test
+    void mannWhitneyNoDifference() {
+        long[] a = {3, 1, 2, 5, 4};
+        assertEquals(1, Statistics.mannWhitneyPValue(a, a.clone()), 1e-6);
+        assertEquals(1, Statistics.mannWhitneyPValue(new long[]{7, 7, 7}, new long[]{7, 7}), 1e-9);
+        assertEquals(1, Statistics.mannWhitneyPValue(new long[0], a), 1e-9);
+    }
+
+    @Test
+    void welchInterval() {
+        // 两组方差都是 2.5、样本数 5，标准误 sqrt(0.5 + 0.5) = 1，均值差 2
+        double[] interval = Statistics.meanDiffInterval(new long[]{1, 2, 3, 4, 5}, new long[]{3, 4, 5, 6, 7});
+        assertArrayEquals(new double[]{0.04, 3.96}, interval, 1e-9);
+    }
+
+    @Test
+    void welchIntervalUnequalVariance() {
+        // se = sqrt(4 / 4 + 9 / 9) = sqrt(2)
+        double[] interval = Statistics.meanDiffInterval(10, 2, 4, 7, 3, 9);
+        double half = 1.96 * Math.sqrt(2);
+        assertArrayEquals(new double[]{-3 - half, -3 + half}, interval, 1e-9);
+    }
+
+    @Test
+    void meanAndVariance() {
+        long[] values = {2, 4, 4, 4, 5, 5, 7, 9};
+        assertEquals(5, Statistics.mean(values), 1e-9);
+        assertEquals(32.0 / 7, Statistics.variance(values, 5), 1e-9);
+        assertEquals(0, Statistics.variance(new long[]{3}, 3), 1e-9);
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.lgp547.anydoor.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StreamArgumentTest {
+
+    private Path root;
+
+    private Path allowed;
+
+    private Path outside;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = Files.createTempDirectory("any-door-stream-argument-");
+        allowed = Files.createDirectory(root.resolve("allowed"));
+        outside = Files.write(root.resolve("outside.json"), "{}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    @Test
+    void denyByDefault() throws IOException {
+        Path file = Files.write(allowed.resolve("a.json"), "{}".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> StreamArgument.file(file.toString(), Collections.emptyList()));
+    }
+
+    @Test
+    void allowedFile() throws IOException {
+        Path file = Files.write(allowed.resolve("a.json"), "{}".getBytes(StandardCharsets.UTF_8));
+        StreamArgument.Source source = StreamArgument.file(file.toString(), allowedDirs());
+        assertEquals(file.toRealPath(), source.getPath());
+        assertEquals("a.json", source.getName());
+    }
+
+    @Test
+    void outsideAllowedDirs() {
+        assertThrows(IllegalArgumentException.class, () -> StreamArgument.file(outside.toString(), allowedDirs()));
+    }
+
+    /**
+     * 路径中的 .. 不能跳出允许的目录
+     */
+    @Test
+    void dotDotEscape() {
+        String file = allowed + "/../outside.json";
+        assertThrows(IllegalArgumentException.class, () -> StreamArgument.file(file, allowedDirs()));
+    }
+
+    /**
+     * 允许的目录中指向外部的符号链接按真实路径判断
+     */
+    @Test
+    void symlinkEscape() throws IOException {
+        Path link;
+        try {
+            link = Files.createSymbolicLink(allowed.resolve("link.json"), outside);
+        } catch (UnsupportedOperationException | IOException e) {
+            // 不支持符号链接的文件系统
+            return;
+        }
+        assertThrows(IllegalArgumentException.class, () -> StreamArgument.file(link.toString(), allowedDirs()));
+    }
+
+    @Test
+    void missingFile() {
+        String file = allowed.resolve("missing.json").toString();
+        assertThrows(IllegalArgumentException.class, () -> StreamArgument.file(file, allowedDirs()));
+    }
+
+    private List<String> allowedDirs() {
+        return Collections.singletonList(allowed.toString());
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.lgp547.anydoor.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedHistogramTest {
+
+    @Test
+    void bucketRelativeError() {
+        int previous = -1;
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 / 2 + 1) {
+            int index = StripedHistogram.index(value);
+            assertTrue(index >= previous, "index must not decrease at " + value);
+            assertTrue(index < StripedHistogram.buckets(), "index out of range at " + value);
+            double error = Math.abs(StripedHistogram.value(index) - value) / (double) value;
+            assertTrue(error <= 1.0 / 64, "relative error " + error + " at " + value);
+            previous = index;
+        }
+        assertTrue(StripedHistogram.index(Long.MAX_VALUE) < StripedHistogram.buckets());
+    }
+
+    @Test
+    void snapshotTotals() {
+        StripedHistogram histogram = new StripedHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        long[] snapshot = histogram.snapshot();
+        int buckets = StripedHistogram.buckets();
+        assertEquals(1000, snapshot[buckets]);
+        assertEquals(500500, snapshot[buckets + 1]);
+        assertEquals(1, snapshot[buckets + 2]);
+        assertEquals(1000, snapshot[buckets + 3]);
+    }
+
+    @Test
+    void summaryPercentiles() {
+        StripedHistogram histogram = new StripedHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+        LatencySummary summary = histogram.summary();
+        assertEquals(100, summary.getCount());
+        assertEquals(50, summary.getP50(), 50.0 / 64);
+        assertEquals(90, summary.getP90(), 90.0 / 64);
+        assertEquals(99, summary.getP99(), 99.0 / 64);
+        assertEquals(1, summary.getMin());
+        assertEquals(100, summary.getMax());
+        assertEquals(50.5, summary.getMean(), 1e-9);
+    }
+
+    @Test
+    void concurrentRecord() throws InterruptedException {
+        StripedHistogram histogram = new StripedHistogram();
+        int threads = 4;
+        int perThread = 100_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < perThread; j++) {
+                    histogram.record(j % 1000);
+                }
+            });
+            thread.start();
+            workers.add(thread);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long[] snapshot = histogram.snapshot();
+        assertEquals((long) threads * perThread, snapshot[StripedHistogram.buckets()]);
+        assertEquals(0, snapshot[StripedHistogram.buckets() + 2]);
+        assertEquals(999, snapshot[StripedHistogram.buckets() + 3]);
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.lgp547.anydoor.test.bench;
+
+import io.github.lgp547.anydoor.profile.ProfileResult;
+import io.github.lgp547.anydoor.profile.ProfileSession;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 采样开销：同一段计算分别在不采样、按间隔采样下执行，对比耗时，并输出每次采样的耗时（README 采样开销一节的数据来源）
+ * <p>
+ * 参数：采样间隔毫秒（默认 10） 每次执行秒数（默认 5） 轮数（默认 5）
+ */
+public class ProfileOverheadBench {
+
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        long intervalMillis = args.length > 0 ? Long.parseLong(args[0]) : 10;
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 5;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long iterations = calibrate(TimeUnit.SECONDS.toNanos(seconds));
+
+        for (int round = 0; round < rounds; round++) {
+            long baseline = timed(iterations);
+
+            long start = System.nanoTime();
+            ProfileSession session = ProfileSession.start(intervalMillis);
+            work(iterations);
+            ProfileResult result = session.stop();
+            long profiled = System.nanoTime() - start;
+
+            System.out.printf("round %d: baseline %dms, profiled %dms, overhead %.2f%%, samples %d, %.1fus/sample, sampler %.2f%%%n",
+                    round, TimeUnit.NANOSECONDS.toMillis(baseline), TimeUnit.NANOSECONDS.toMillis(profiled),
+                    (profiled - baseline) * 100.0 / baseline, result.getSamples(),
+                    result.getSamples() == 0 ? 0 : result.getSamplerNanos() / 1000.0 / result.getSamples(),
+                    result.getSamplerNanos() * 100.0 / profiled);
+        }
+    }
+
+    /**
+     * 找到大约执行 targetNanos 的迭代次数，同时完成预热
+     */
+    private static long calibrate(long targetNanos) {
+        long iterations = 1_000_000;
+        long elapsed = timed(iterations);
+        while (elapsed < targetNanos / 4) {
+            iterations *= 2;
+            elapsed = timed(iterations);
+        }
+        return iterations * targetNanos / elapsed;
+    }
+
+    private static long timed(long iterations) {
+        long start = System.nanoTime();
+        work(iterations);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * 分成 int 计数的小循环，JIT 会在循环中保留 safepoint 检查，不会让采样一直等到计算结束
+     */
+    private static void work(long iterations) {
+        long x = 0;
+        for (long done = 0; done < iterations; done += 1000) {
+            for (int i = 0; i < 1000; i++) {
+                x = x * 31 + (i ^ (x >>> 7));
+            }
+        }
+        sink = x;
+    }
+}